@@ -1,9 +1,8 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
-import com.google.common.collect.Sets;
 import com.google.common.collect.TreeRangeSet;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -23,19 +22,28 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Yifan Peng
  * @since 1.0.0
  */
-public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
+public class BioCAnnotation implements HasInfons, HasText, HasID, HasFingerprint, BioCObject,
+    FingerprintLink {
+
+  private static final long ANNOTATION = Fingerprints.of("annotation");
 
   private String id;
-  private Map<String, String> infons;
+  private InfonMap infons;
   private Set<BioCLocation> locations;
-  private String text;
+  /**
+   * A string, or a {@link TextSlice} of the text of the passage or the sentence.
+   */
+  private CharSequence text;
+  private volatile boolean frozen;
+  private volatile long fingerprint;
+  private FingerprintLink owner;
 
   /**
    * Constructs an empty annotation.
    */
   public BioCAnnotation() {
-    infons = Maps.newHashMap();
-    locations = Sets.newHashSet();
+    infons = new InfonMap(this);
+    locations = new ChildSet<>(this);
   }
 
   /**
@@ -45,8 +53,8 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
    */
   public BioCAnnotation(String id) {
     this.id = id;
-    infons = Maps.newHashMap();
-    locations = Sets.newHashSet();
+    infons = new InfonMap(this);
+    locations = new ChildSet<>(this);
   }
 
   /**
@@ -57,7 +65,7 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
   public BioCAnnotation(BioCAnnotation annotation) {
     this();
     setID(annotation.id);
-    setText(annotation.text);
+    text = annotation.text;
     setInfons(annotation.infons);
     setLocations(annotation.locations);
   }
@@ -72,6 +80,16 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
     locations.add(location);
   }
 
+  /**
+   * Records that this annotation has been added to the owner.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+    if (!frozen) {
+      this.owner = Owners.join(this.owner, owner);
+    }
+  }
+
   /**
    * Clears all locations in this annotation.
    */
@@ -89,6 +107,35 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
     return locations.contains(location);
   }
 
+  /**
+   * Returns a deep copy of this annotation. Unlike the copy constructor, the copy does not share
+   * locations with this annotation. The copy is never frozen.
+   *
+   * @return a deep copy of this annotation
+   */
+  public BioCAnnotation deepCopy() {
+    BioCAnnotation copy = new BioCAnnotation(id);
+    copy.text = text;
+    copy.infons.putAll(infons);
+    if (!locations.isEmpty()) {
+      copy.locations = new ChildSet<>(copy, locations.size());
+      for (BioCLocation location : locations) {
+        copy.locations.add(new BioCLocation(location));
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Records that this annotation has been removed from the owner.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+    if (this.owner == owner) {
+      this.owner = null;
+    }
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -98,18 +145,76 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
       return false;
     }
     BioCAnnotation rhs = (BioCAnnotation) obj;
+    if (Fingerprints.differ(fingerprint, rhs.fingerprint)) {
+      return false;
+    }
     return Objects.equals(id, rhs.id)
-        && Objects.equals(text, rhs.text)
+        && TextSlice.contentEquals(text, rhs.text)
         && Objects.equals(infons, rhs.infons)
         && Objects.equals(locations, rhs.locations);
   }
 
+  @Override
+  public long fingerprint() {
+    long h = fingerprint;
+    if (h == 0) {
+      h = Fingerprints.combine(ANNOTATION, Fingerprints.of(id));
+      h = Fingerprints.combine(h, Fingerprints.of(text));
+      h = Fingerprints.combine(h, Fingerprints.ofMap(infons));
+      h = Fingerprints.nonZero(Fingerprints.combine(h, Fingerprints.ofSet(locations)));
+      if (frozen || Owners.allNotify(locations, this)) {
+        fingerprint = h;
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Clears the cached fingerprint of this annotation and of its owner.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    if (fingerprint != 0) {
+      fingerprint = 0;
+      Owners.invalidate(owner);
+    }
+  }
+
+  /**
+   * Makes this annotation and everything it contains unmodifiable. Afterwards every mutator throws
+   * {@link UnsupportedOperationException} and the getters return unmodifiable views.
+   *
+   * @return this annotation
+   * @see BioCStructure#freeze()
+   */
+  public BioCAnnotation freeze() {
+    if (!frozen) {
+      infons = infons.freeze();
+      for (BioCLocation location : locations) {
+        location.freeze();
+      }
+      locations = ImmutableSet.copyOf(locations);
+      frozen = true;
+    }
+    return this;
+  }
+
   @Override
   public String getID() {
     checkNotNull(id, "id has to be set");
     return id;
   }
 
+  /**
+   * Returns true if the id of this annotation has been set. Unlike {@link #getID()}, it does not throw
+   * while the annotation is still being built.
+   *
+   * @return true if the id of this annotation has been set
+   */
+  public boolean hasID() {
+    return id != null;
+  }
+
   @Override
   public Map<String, String> getInfons() {
     return infons;
@@ -133,8 +238,24 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
     return locations;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the text is shared with the passage or the sentence, a new string is created on every
+   * call.
+   */
   @Override
   public Optional<String> getText() {
+    return text == null ? Optional.empty() : Optional.of(text.toString());
+  }
+
+  /**
+   * Returns the original text without copying it.
+   *
+   * @return the original text
+   * @see BioCPassage#shareText()
+   */
+  public Optional<CharSequence> getTextSequence() {
     return Optional.ofNullable(text);
   }
 
@@ -160,6 +281,16 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
     return Objects.hash(id, text, infons, locations);
   }
 
+  /**
+   * Returns true if this annotation has been frozen.
+   *
+   * @return true if this annotation has been frozen
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
   /**
    * Returns a unmodifiable iterator over the locations in this annotation in proper sequence.
    *
@@ -169,9 +300,20 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
     return locations.iterator();
   }
 
+  /**
+   * Returns true if a change to this annotation will be told to the owner, which can then cache
+   * its fingerprint.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen || this.owner == owner && fingerprint != 0;
+  }
+
   @Override
   public void setID(String id) {
+    checkNotFrozen();
     this.id = id;
+    invalidateFingerprint();
   }
 
   /**
@@ -186,7 +328,37 @@ public class BioCAnnotation implements HasInfons, HasText, HasID, BioCObject {
 
   @Override
   public void setText(String text) {
+    checkNotFrozen();
     this.text = text;
+    invalidateFingerprint();
+  }
+
+  /**
+   * Replaces the text of this annotation by the equal region of the source, if this annotation has
+   * one location and the source starts at {@code sourceOffset}.
+   *
+   * @return true if the text is now shared
+   */
+  boolean shareText(String source, int sourceOffset) {
+    if (frozen || text == null || text.length() == 0 || locations.size() != 1) {
+      return false;
+    }
+    BioCLocation location = locations.iterator().next();
+    if (location.getLength() != text.length()) {
+      return false;
+    }
+    TextSlice slice = TextSlice.share(source, location.getOffset() - sourceOffset, text);
+    if (slice == null) {
+      return false;
+    }
+    text = slice;
+    return true;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("annotation is frozen");
+    }
   }
 
   @Override
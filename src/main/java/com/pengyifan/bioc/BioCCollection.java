@@ -1,7 +1,6 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableList;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Iterator;
@@ -25,9 +24,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Yifan Peng
  * @since 1.0.0
  */
-public class BioCCollection implements HasInfons, BioCObject {
+public class BioCCollection implements HasInfons, HasFingerprint, BioCObject,
+    FingerprintLink {
 
   private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  private static final long COLLECTION = Fingerprints.of("collection");
 
   // XML information
   private String encoding;
@@ -37,8 +38,10 @@ public class BioCCollection implements HasInfons, BioCObject {
   private String source;
   private String date;
   private String key;
-  private Map<String, String> infons;
+  private InfonMap infons;
   private List<BioCDocument> documents;
+  private volatile boolean frozen;
+  private volatile long fingerprint;
 
   /**
    * Constructs an empty collection.
@@ -52,8 +55,8 @@ public class BioCCollection implements HasInfons, BioCObject {
    * </ul>
    */
   public BioCCollection() {
-    infons = Maps.newHashMap();
-    documents = Lists.newArrayList();
+    infons = new InfonMap(this);
+    documents = new ChildList<>(this);
     setEncoding("UTF-8");
     setDate(formatter.format(LocalDateTime.now()));
     setVersion("1.0");
@@ -116,7 +119,7 @@ public class BioCCollection implements HasInfons, BioCObject {
     setVersion(collection.version);
     setEncoding(collection.encoding);
     setStandalone(collection.standalone);
-    setDocuments(collection.documents);
+    setDocuments(collection.getDocuments());
   }
 
   /**
@@ -129,6 +132,62 @@ public class BioCCollection implements HasInfons, BioCObject {
     this.documents.add(document);
   }
 
+  /**
+   * Returns a deep copy of this collection. The copy does not share any document with this
+   * collection, and is never frozen.
+   *
+   * @return a deep copy of this collection
+   */
+  public BioCCollection deepCopy() {
+    BioCCollection copy = new BioCCollection(encoding, version, date, standalone, source, key);
+    copy.infons.putAll(infons);
+    if (getDocmentCount() != 0) {
+      copy.documents = new ChildList<>(copy, getDocmentCount());
+      for (BioCDocument document : getDocuments()) {
+        copy.documents.add(document.deepCopy());
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a copy-on-write copy of this collection. This collection is frozen, and the returned
+   * collection shares all of its documents. Use {@link #mutableDocument(int)} to obtain a private
+   * copy of a document before modifying it.
+   *
+   * @return a modifiable collection that shares its unchanged documents with this collection
+   * @see BioCDocument#derive()
+   */
+  public BioCCollection derive() {
+    freeze();
+    return new BioCCollection(this);
+  }
+
+  /**
+   * Returns the document at the specified position, replacing it with a modifiable copy first if
+   * it is frozen. The copy shares its passages, annotations and relations with the frozen
+   * document.
+   *
+   * @param index document position in this collection
+   * @return the modifiable document at the specified position
+   */
+  public BioCDocument mutableDocument(int index) {
+    checkNotFrozen();
+    BioCDocument document = documents.get(index);
+    if (document.isFrozen()) {
+      document = new BioCDocument(document);
+      documents.set(index, document);
+    }
+    return document;
+  }
+
+  /**
+   * Does nothing, since a collection is never contained in another object.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+  }
+
   /**
    * Clears all documents.
    */
@@ -145,6 +204,13 @@ public class BioCCollection implements HasInfons, BioCObject {
     return documents.iterator();
   }
 
+  /**
+   * Does nothing, since a collection is never contained in another object.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -154,6 +220,10 @@ public class BioCCollection implements HasInfons, BioCObject {
       return false;
     }
     BioCCollection rhs = (BioCCollection) obj;
+    if (frozen && rhs.frozen ? fingerprint() != rhs.fingerprint()
+        : Fingerprints.differ(fingerprint, rhs.fingerprint)) {
+      return false;
+    }
     return Objects.equals(source, rhs.source)
         && Objects.equals(infons, rhs.infons)
         && Objects.equals(key, rhs.key)
@@ -161,7 +231,61 @@ public class BioCCollection implements HasInfons, BioCObject {
         && Objects.equals(version, rhs.version)
         && Objects.equals(encoding, rhs.encoding)
         && Objects.equals(standalone, rhs.standalone)
-        && Objects.equals(documents, rhs.documents);
+        && Objects.equals(getDocuments(), rhs.getDocuments());
+  }
+
+  @Override
+  public long fingerprint() {
+    long h = fingerprint;
+    if (h == 0) {
+      h = Fingerprints.combine(COLLECTION, Fingerprints.of(source));
+      h = Fingerprints.combine(h, Fingerprints.of(date));
+      h = Fingerprints.combine(h, Fingerprints.of(key));
+      h = Fingerprints.combine(h, Fingerprints.ofMap(infons));
+      h = Fingerprints.combine(h, Fingerprints.of(version));
+      h = Fingerprints.combine(h, Fingerprints.of(encoding));
+      h = Fingerprints.combine(h, standalone ? 1 : 0);
+      h = Fingerprints.nonZero(Fingerprints.combine(h, Fingerprints.ofList(getDocuments())));
+      if (frozen || Owners.allNotify(documents, this)) {
+        fingerprint = h;
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Clears the cached fingerprint of this collection. Every mutator calls it.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    fingerprint = 0;
+  }
+
+  /**
+   * Returns true if this collection is frozen. A collection has no owner to tell of its changes.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen;
+  }
+
+  /**
+   * Makes this collection and all of its documents unmodifiable. Afterwards every mutator throws
+   * {@link UnsupportedOperationException} and the getters return unmodifiable views.
+   *
+   * @return this collection
+   * @see BioCStructure#freeze()
+   */
+  public BioCCollection freeze() {
+    if (!frozen) {
+      infons = infons.freeze();
+      for (BioCDocument document : documents) {
+        document.freeze();
+      }
+      documents = ImmutableList.copyOf(documents);
+      frozen = true;
+    }
+    return this;
   }
 
   /**
@@ -257,7 +381,17 @@ public class BioCCollection implements HasInfons, BioCObject {
         version,
         encoding,
         standalone,
-        documents);
+        getDocuments());
+  }
+
+  /**
+   * Returns true if this collection has been frozen.
+   *
+   * @return true if this collection has been frozen
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
   }
 
   /**
@@ -275,7 +409,9 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param date the date the documents obtained from the source
    */
   public void setDate(String date) {
+    checkNotFrozen();
     this.date = date;
+    invalidateFingerprint();
   }
 
   /**
@@ -294,7 +430,9 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param encoding the charset encoding of the BioC file
    */
   public void setEncoding(String encoding) {
+    checkNotFrozen();
     this.encoding = encoding;
+    invalidateFingerprint();
   }
 
   /**
@@ -303,7 +441,9 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param key the name of a file describing the contents and conventions used in this XML file
    */
   public void setKey(String key) {
+    checkNotFrozen();
     this.key = key;
+    invalidateFingerprint();
   }
 
   /**
@@ -312,7 +452,9 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param source the original source of the documents
    */
   public void setSource(String source) {
+    checkNotFrozen();
     this.source = source;
+    invalidateFingerprint();
   }
 
   /**
@@ -321,7 +463,9 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param standalone true if the parser can ignore the DTD
    */
   public void setStandalone(boolean standalone) {
+    checkNotFrozen();
     this.standalone = standalone;
+    invalidateFingerprint();
   }
 
   /**
@@ -330,8 +474,16 @@ public class BioCCollection implements HasInfons, BioCObject {
    * @param version the XML version declared on the XML declaration
    */
   public void setVersion(String version) {
+    checkNotFrozen();
     Validate.notNull(version);
     this.version = version;
+    invalidateFingerprint();
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("collection is frozen");
+    }
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -39,7 +40,7 @@ public class BioCDocument extends BioCStructure {
   public BioCDocument(String id) {
     super();
     this.id = id;
-    passages = Lists.newArrayList();
+    passages = Collections.emptyList();
   }
 
   /**
@@ -50,7 +51,11 @@ public class BioCDocument extends BioCStructure {
   public BioCDocument(BioCDocument document) {
     super(document);
     this.id = document.id;
-    passages = Lists.newArrayList(document.passages);
+    passages = Collections.emptyList();
+    if (!document.passages.isEmpty()) {
+      passages = new ChildList<>(this, document.passages.size());
+      passages.addAll(document.passages);
+    }
   }
 
 
@@ -61,7 +66,7 @@ public class BioCDocument extends BioCStructure {
    */
   public void addPassage(BioCPassage passage) {
     checkNotNull(passage, "passage cannot be null");
-    this.passages.add(passage);
+    getPassages().add(passage);
   }
 
   /**
@@ -71,6 +76,70 @@ public class BioCDocument extends BioCStructure {
     passages.clear();
   }
 
+  /**
+   * Returns a deep copy of this document. Unlike the copy constructor, the copy does not share
+   * passages, sentences, annotations or relations with this document. The copy is never frozen.
+   *
+   * @return a deep copy of this document
+   */
+  public BioCDocument deepCopy() {
+    BioCDocument copy = new BioCDocument(id);
+    copy.deepCopyContent(this);
+    if (!passages.isEmpty()) {
+      copy.passages = new ChildList<>(copy, passages.size());
+      for (BioCPassage passage : passages) {
+        copy.passages.add(passage.deepCopy());
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a copy-on-write copy of this document.
+   * <p>
+   * This document is frozen, and the returned document shares all of its passages, annotations
+   * and relations. The returned document itself is modifiable. To modify a shared child, obtain a
+   * private copy of it with {@link #mutablePassage(int)}, {@link #mutableAnnotation(int)} or
+   * {@link #mutableRelation(int)}; only that subtree is copied, one level at a time. For example,
+   * <p>
+   * <pre>
+   * BioCDocument variant = document.derive();
+   * variant.mutablePassage(0).mutableSentence(2).addAnnotation(annotation);
+   * </pre>
+   *
+   * @return a modifiable document that shares its unchanged subtrees with this document
+   */
+  public BioCDocument derive() {
+    freeze();
+    return new BioCDocument(this);
+  }
+
+  @Override
+  public BioCDocument freeze() {
+    super.freeze();
+    return this;
+  }
+
+  @Override
+  void freezeContent() {
+    super.freezeContent();
+    for (BioCPassage passage : passages) {
+      passage.freeze();
+    }
+    passages = ImmutableList.copyOf(passages);
+  }
+
+  @Override
+  boolean childrenNotify() {
+    return super.childrenNotify() && Owners.allNotify(passages, this);
+  }
+
+  @Override
+  long computeFingerprint() {
+    long h = Fingerprints.combine(super.computeFingerprint(), Fingerprints.of(id));
+    return Fingerprints.combine(h, Fingerprints.ofList(passages));
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -85,6 +154,25 @@ public class BioCDocument extends BioCStructure {
         && Objects.equals(passages, rhs.passages);
   }
 
+  /**
+   * Returns the passage at the specified position, replacing it with a modifiable copy first if
+   * it is frozen. The copy shares its sentences, annotations and relations with the frozen
+   * passage.
+   *
+   * @param index passage position in this document
+   * @return the modifiable passage at the specified position
+   * @see #derive()
+   */
+  public BioCPassage mutablePassage(int index) {
+    checkNotFrozen();
+    BioCPassage passage = passages.get(index);
+    if (passage.isFrozen()) {
+      passage = new BioCPassage(passage);
+      passages.set(index, passage);
+    }
+    return passage;
+  }
+
   /**
    * Returns the passage at the specified position in this document.
    *
@@ -113,6 +201,9 @@ public class BioCDocument extends BioCStructure {
    * @return passages of the document
    */
   public List<BioCPassage> getPassages() {
+    if (passages == Collections.EMPTY_LIST) {
+      passages = new ChildList<>(this);
+    }
     return passages;
   }
 
@@ -137,7 +228,9 @@ public class BioCDocument extends BioCStructure {
    */
   public void setPassages(List<BioCPassage> passages) {
     clearPassages();
-    this.passages.addAll(passages);
+    if (!passages.isEmpty()) {
+      getPassages().addAll(passages);
+    }
   }
 
   @Override
@@ -169,6 +262,8 @@ public class BioCDocument extends BioCStructure {
    * @param id the id used to identify structure
    */
   public void setID(String id) {
+    checkNotFrozen();
     this.id = id;
+    invalidateFingerprint();
   }
 }
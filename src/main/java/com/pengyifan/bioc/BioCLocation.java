@@ -13,10 +13,14 @@ import static com.google.common.base.Preconditions.checkArgument;
  * @author Yifan Peng
  * @since 1.0.0
  */
-public class BioCLocation implements HasOffset, BioCObject {
+public class BioCLocation implements HasOffset, HasFingerprint, BioCObject, FingerprintLink {
 
-  private Integer offset;
-  private Integer length;
+  private static final long LOCATION = Fingerprints.of("location");
+
+  private int offset;
+  private int length;
+  private volatile boolean frozen;
+  private FingerprintLink owner;
 
   /**
    * Constructs a newly <code>BioCLocation</code> object that has offset and length.
@@ -38,6 +42,26 @@ public class BioCLocation implements HasOffset, BioCObject {
     this(location.offset, location.length);
   }
 
+  /**
+   * Records that this location has been added to the owner.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+    if (!frozen) {
+      this.owner = Owners.join(this.owner, owner);
+    }
+  }
+
+  /**
+   * Records that this location has been removed from the owner.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+    if (this.owner == owner) {
+      this.owner = null;
+    }
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -47,8 +71,24 @@ public class BioCLocation implements HasOffset, BioCObject {
       return false;
     }
     BioCLocation rhs = (BioCLocation) obj;
-    return Objects.equals(offset, rhs.offset)
-        && Objects.equals(length, rhs.length);
+    return offset == rhs.offset
+        && length == rhs.length;
+  }
+
+  @Override
+  public long fingerprint() {
+    return Fingerprints.combine(Fingerprints.combine(LOCATION, offset), length);
+  }
+
+  /**
+   * Makes this location unmodifiable.
+   *
+   * @return this location
+   * @see BioCStructure#freeze()
+   */
+  public BioCLocation freeze() {
+    frozen = true;
+    return this;
   }
 
   /**
@@ -77,18 +117,53 @@ public class BioCLocation implements HasOffset, BioCObject {
     return Objects.hash(offset, length);
   }
 
+  /**
+   * Returns true if this location has been frozen.
+   *
+   * @return true if this location has been frozen
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Tells the owner that this location has changed. A location caches no fingerprint of its own.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    Owners.invalidate(owner);
+  }
+
+  /**
+   * Returns true if a change to this location will be told to the owner.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen || this.owner == owner;
+  }
+
   /**
    * Sets the length of the annotated text.
    *
    * @param length the length of the annotated text
    */
   public void setLength(int length) {
+    checkNotFrozen();
     this.length = length;
+    invalidateFingerprint();
   }
 
   @Override
   public void setOffset(int offset) {
+    checkNotFrozen();
     this.offset = offset;
+    invalidateFingerprint();
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("location is frozen");
+    }
   }
 
   @Override
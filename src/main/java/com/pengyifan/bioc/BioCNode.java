@@ -12,10 +12,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Yifan Peng
  * @since 1.0.0
  */
-public class BioCNode implements BioCObject {
+public class BioCNode implements HasFingerprint, BioCObject, FingerprintLink {
+
+  private static final long NODE = Fingerprints.of("node");
 
   private String refid;
   private String role;
+  private volatile boolean frozen;
+  private FingerprintLink owner;
 
   /**
    * Constructs a newly <code>BioCNode</code> object that has id and role.
@@ -38,6 +42,26 @@ public class BioCNode implements BioCObject {
     this(node.refid, node.role);
   }
 
+  /**
+   * Records that this node has been added to the owner.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+    if (!frozen) {
+      this.owner = Owners.join(this.owner, owner);
+    }
+  }
+
+  /**
+   * Records that this node has been removed from the owner.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+    if (this.owner == owner) {
+      this.owner = null;
+    }
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -51,6 +75,24 @@ public class BioCNode implements BioCObject {
         && Objects.equals(refid, rhs.refid);
   }
 
+  @Override
+  public long fingerprint() {
+    return Fingerprints.combine(
+        Fingerprints.combine(NODE, Fingerprints.of(refid)),
+        Fingerprints.of(role));
+  }
+
+  /**
+   * Makes this node unmodifiable.
+   *
+   * @return this node
+   * @see BioCStructure#freeze()
+   */
+  public BioCNode freeze() {
+    frozen = true;
+    return this;
+  }
+
   /**
    * Returns the id of an annotated object or another relation. Typically there will be one label
    * for each node.
@@ -79,13 +121,40 @@ public class BioCNode implements BioCObject {
     return Objects.hash(refid, role);
   }
 
+  /**
+   * Returns true if this node has been frozen.
+   *
+   * @return true if this node has been frozen
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Tells the owner that this node has changed. A node caches no fingerprint of its own.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    Owners.invalidate(owner);
+  }
+
+  /**
+   * Returns true if a change to this node will be told to the owner.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen || this.owner == owner;
+  }
+
   /**
    * Sets the id of an annotated object or another relation.
    *
    * @param refid the id of an annotated object or another relation
    */
   public void setRefid(String refid) {
+    checkNotFrozen();
     this.refid = refid;
+    invalidateFingerprint();
   }
 
   /**
@@ -96,7 +165,15 @@ public class BioCNode implements BioCObject {
    *             current relation
    */
   public void setRole(String role) {
+    checkNotFrozen();
     this.role = role;
+    invalidateFingerprint();
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("node is frozen");
+    }
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -28,7 +29,7 @@ public class BioCPassage extends BioCStructureWithText {
    */
   public BioCPassage() {
     super();
-    sentences = Lists.newArrayList();
+    sentences = Collections.emptyList();
   }
 
   /**
@@ -38,7 +39,11 @@ public class BioCPassage extends BioCStructureWithText {
    */
   public BioCPassage(BioCPassage passage) {
     super(passage);
-    sentences = Lists.newArrayList(passage.sentences);
+    sentences = Collections.emptyList();
+    if (!passage.sentences.isEmpty()) {
+      sentences = new ChildList<>(this, passage.sentences.size());
+      sentences.addAll(passage.sentences);
+    }
   }
 
   /**
@@ -48,7 +53,7 @@ public class BioCPassage extends BioCStructureWithText {
    */
   public void addSentence(BioCSentence sentence) {
     checkNotNull(sentence, "sentence cannot be null");
-    this.sentences.add(sentence);
+    getSentences().add(sentence);
   }
 
   /**
@@ -58,6 +63,49 @@ public class BioCPassage extends BioCStructureWithText {
     sentences.clear();
   }
 
+  /**
+   * Returns a deep copy of this passage. Unlike the copy constructor, the copy does not share
+   * sentences, annotations or relations with this passage. The copy is never frozen.
+   *
+   * @return a deep copy of this passage
+   */
+  public BioCPassage deepCopy() {
+    BioCPassage copy = new BioCPassage();
+    copy.deepCopyContent(this);
+    if (!sentences.isEmpty()) {
+      copy.sentences = new ChildList<>(copy, sentences.size());
+      for (BioCSentence sentence : sentences) {
+        copy.sentences.add(sentence.deepCopy());
+      }
+    }
+    return copy;
+  }
+
+  @Override
+  public BioCPassage freeze() {
+    super.freeze();
+    return this;
+  }
+
+  @Override
+  void freezeContent() {
+    super.freezeContent();
+    for (BioCSentence sentence : sentences) {
+      sentence.freeze();
+    }
+    sentences = ImmutableList.copyOf(sentences);
+  }
+
+  @Override
+  boolean childrenNotify() {
+    return super.childrenNotify() && Owners.allNotify(sentences, this);
+  }
+
+  @Override
+  long computeFingerprint() {
+    return Fingerprints.combine(super.computeFingerprint(), Fingerprints.ofList(sentences));
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -72,6 +120,24 @@ public class BioCPassage extends BioCStructureWithText {
   }
 
 
+  /**
+   * Returns the sentence at the specified position, replacing it with a modifiable copy first if
+   * it is frozen.
+   *
+   * @param index sentence position in this passage
+   * @return the modifiable sentence at the specified position
+   * @see #mutableAnnotation(int)
+   */
+  public BioCSentence mutableSentence(int index) {
+    checkNotFrozen();
+    BioCSentence sentence = sentences.get(index);
+    if (sentence.isFrozen()) {
+      sentence = new BioCSentence(sentence);
+      sentences.set(index, sentence);
+    }
+    return sentence;
+  }
+
   /**
    * Returns the sentence at the specified position in this passage.
    *
@@ -97,6 +163,9 @@ public class BioCPassage extends BioCStructureWithText {
    * @return sentences of the passage
    */
   public List<BioCSentence> getSentences() {
+    if (sentences == Collections.EMPTY_LIST) {
+      sentences = new ChildList<>(this);
+    }
     return sentences;
   }
 
@@ -115,6 +184,37 @@ public class BioCPassage extends BioCStructureWithText {
     return sentences.iterator();
   }
 
+  /**
+   * Makes the texts of the sentences and annotations of this passage regions of the text of this
+   * passage, instead of copies of it. The annotations of a sentence share the text of the sentence
+   * if this passage has no text. Only the texts that are equal to the region at their offset are
+   * shared, so {@code getText()} returns the same strings as before, and frozen sentences and
+   * annotations are left unchanged.
+   * <p>
+   * The readers in {@code com.pengyifan.bioc.io} share the texts of every passage they read.
+   *
+   * @return the number of texts shared
+   */
+  public int shareText() {
+    String source = sharedSource();
+    int count = 0;
+    if (source != null) {
+      count += shareAnnotationText(source, getOffset());
+    }
+    for (int i = 0; i < sentences.size(); i++) {
+      BioCSentence sentence = sentences.get(i);
+      if (source != null) {
+        if (sentence.shareText(source, getOffset())) {
+          count++;
+        }
+        count += sentence.shareAnnotationText(source, getOffset());
+      } else if (sentence.sharedSource() != null) {
+        count += sentence.shareAnnotationText(sentence.sharedSource(), sentence.getOffset());
+      }
+    }
+    return count;
+  }
+
   /**
    * Sets the sentences in this passage.
    *
@@ -122,7 +222,9 @@ public class BioCPassage extends BioCStructureWithText {
    */
   public void setSentences(List<BioCSentence> sentences) {
     clearSentences();
-    this.sentences.addAll(sentences);
+    if (!sentences.isEmpty()) {
+      getSentences().addAll(sentences);
+    }
   }
 
   @Override
@@ -1,7 +1,6 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -18,18 +17,24 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Yifan Peng
  * @since 1.0.0
  */
-public class BioCRelation implements HasInfons, HasID, BioCObject {
+public class BioCRelation implements HasInfons, HasID, HasFingerprint, BioCObject,
+    FingerprintLink {
+
+  private static final long RELATION = Fingerprints.of("relation");
 
   private String id;
-  private Map<String, String> infons;
+  private InfonMap infons;
   private Set<BioCNode> nodes;
+  private volatile boolean frozen;
+  private volatile long fingerprint;
+  private FingerprintLink owner;
 
   /**
    * Constructs an empty relation.
    */
   public BioCRelation() {
-    infons = Maps.newHashMap();
-    nodes = Sets.newHashSet();
+    infons = new InfonMap(this);
+    nodes = new ChildSet<>(this);
   }
 
   /**
@@ -39,8 +44,8 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
    */
   public BioCRelation(String id) {
     this.id = id;
-    infons = Maps.newHashMap();
-    nodes = Sets.newHashSet();
+    infons = new InfonMap(this);
+    nodes = new ChildSet<>(this);
   }
 
   /**
@@ -65,6 +70,16 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
     nodes.add(node);
   }
 
+  /**
+   * Records that this relation has been added to the owner.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+    if (!frozen) {
+      this.owner = Owners.join(this.owner, owner);
+    }
+  }
+
   /**
    * Clears all nodes in this relation.
    */
@@ -82,6 +97,34 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
     return nodes.contains(node);
   }
 
+  /**
+   * Returns a deep copy of this relation. Unlike the copy constructor, the copy does not share
+   * nodes with this relation. The copy is never frozen.
+   *
+   * @return a deep copy of this relation
+   */
+  public BioCRelation deepCopy() {
+    BioCRelation copy = new BioCRelation(id);
+    copy.infons.putAll(infons);
+    if (!nodes.isEmpty()) {
+      copy.nodes = new ChildSet<>(copy, nodes.size());
+      for (BioCNode node : nodes) {
+        copy.nodes.add(new BioCNode(node));
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Records that this relation has been removed from the owner.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+    if (this.owner == owner) {
+      this.owner = null;
+    }
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -91,17 +134,74 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
       return false;
     }
     BioCRelation rhs = (BioCRelation) obj;
+    if (Fingerprints.differ(fingerprint, rhs.fingerprint)) {
+      return false;
+    }
     return Objects.equals(id, rhs.id)
         && Objects.equals(infons, rhs.infons)
         && Objects.equals(nodes, rhs.nodes);
   }
 
+  @Override
+  public long fingerprint() {
+    long h = fingerprint;
+    if (h == 0) {
+      h = Fingerprints.combine(RELATION, Fingerprints.of(id));
+      h = Fingerprints.combine(h, Fingerprints.ofMap(infons));
+      h = Fingerprints.nonZero(Fingerprints.combine(h, Fingerprints.ofSet(nodes)));
+      if (frozen || Owners.allNotify(nodes, this)) {
+        fingerprint = h;
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Clears the cached fingerprint of this relation and of its owner.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    if (fingerprint != 0) {
+      fingerprint = 0;
+      Owners.invalidate(owner);
+    }
+  }
+
+  /**
+   * Makes this relation and everything it contains unmodifiable. Afterwards every mutator throws
+   * {@link UnsupportedOperationException} and the getters return unmodifiable views.
+   *
+   * @return this relation
+   * @see BioCStructure#freeze()
+   */
+  public BioCRelation freeze() {
+    if (!frozen) {
+      infons = infons.freeze();
+      for (BioCNode node : nodes) {
+        node.freeze();
+      }
+      nodes = ImmutableSet.copyOf(nodes);
+      frozen = true;
+    }
+    return this;
+  }
+
   @Override
   public String getID() {
     checkNotNull(id, "id cannot be null");
     return id;
   }
 
+  /**
+   * Returns true if the id of this relation has been set. Unlike {@link #getID()}, it does not throw
+   * while the relation is still being built.
+   *
+   * @return true if the id of this relation has been set
+   */
+  public boolean hasID() {
+    return id != null;
+  }
+
   @Override
   public Map<String, String> getInfons() {
     return infons;
@@ -141,6 +241,16 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
     return Objects.hash(id, infons, nodes);
   }
 
+  /**
+   * Returns true if this relation has been frozen.
+   *
+   * @return true if this relation has been frozen
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
   /**
    * Returns a unmodifiable iterator over the nodes in this relation in proper sequence.
    *
@@ -150,9 +260,20 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
     return nodes.iterator();
   }
 
+  /**
+   * Returns true if a change to this relation will be told to the owner, which can then cache its
+   * fingerprint.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen || this.owner == owner && fingerprint != 0;
+  }
+
   @Override
   public void setID(String id) {
+    checkNotFrozen();
     this.id = id;
+    invalidateFingerprint();
   }
 
   /**
@@ -165,6 +286,12 @@ public class BioCRelation implements HasInfons, HasID, BioCObject {
     this.nodes.addAll(nodes);
   }
 
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException("relation is frozen");
+    }
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
@@ -33,6 +33,24 @@ public class BioCSentence extends BioCStructureWithText {
     super(sentence);
   }
 
+  /**
+   * Returns a deep copy of this sentence. Unlike the copy constructor, the copy does not share
+   * annotations or relations with this sentence. The copy is never frozen.
+   *
+   * @return a deep copy of this sentence
+   */
+  public BioCSentence deepCopy() {
+    BioCSentence copy = new BioCSentence();
+    copy.deepCopyContent(this);
+    return copy;
+  }
+
+  @Override
+  public BioCSentence freeze() {
+    super.freeze();
+    return this;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
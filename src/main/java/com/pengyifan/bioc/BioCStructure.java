@@ -1,26 +1,32 @@
 package com.pengyifan.bioc;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableList;
 
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-public abstract class BioCStructure implements HasInfons, HasAnnotations, HasRelations, BioCObject {
+public abstract class BioCStructure
+    implements HasInfons, HasAnnotations, HasRelations, HasFingerprint, BioCObject,
+    FingerprintLink {
 
-  private Map<String, String> infons;
+  private InfonMap infons;
   private List<BioCAnnotation> annotations;
   private List<BioCRelation> relations;
+  private volatile boolean frozen;
+  private volatile long fingerprint;
+  private FingerprintLink owner;
 
   /**
    * Constructs an empty structure.
+   * <p>
+   * Annotations and relations share an empty list until the first one is added.
    */
   public BioCStructure() {
-    infons = Maps.newHashMap();
-    annotations = Lists.newArrayList();
-    relations = Lists.newArrayList();
+    infons = new InfonMap(this);
+    annotations = Collections.emptyList();
+    relations = Collections.emptyList();
   }
 
   /**
@@ -31,13 +37,234 @@ public abstract class BioCStructure implements HasInfons, HasAnnotations, HasRel
   public BioCStructure(BioCStructure structure) {
     this();
     infons.putAll(structure.infons);
-    annotations.addAll(structure.annotations);
-    relations.addAll(structure.relations);
+    if (!structure.annotations.isEmpty()) {
+      annotations = new ChildList<>(this, structure.annotations.size());
+      annotations.addAll(structure.annotations);
+    }
+    if (!structure.relations.isEmpty()) {
+      relations = new ChildList<>(this, structure.relations.size());
+      relations.addAll(structure.relations);
+    }
+  }
+
+  /**
+   * Records that this structure has been added to the owner.
+   */
+  @Override
+  public void attach(FingerprintLink owner) {
+    if (!frozen) {
+      this.owner = Owners.join(this.owner, owner);
+    }
+  }
+
+  /**
+   * Returns true if every child of this structure will tell it of a change, so that it can cache
+   * its fingerprint. Subclasses that hold more children override it.
+   *
+   * @return true if every child of this structure will tell it of a change
+   */
+  boolean childrenNotify() {
+    return Owners.allNotify(annotations, this) && Owners.allNotify(relations, this);
+  }
+
+  @Override
+  public void clearAnnotations() {
+    annotations.clear();
+  }
+
+  @Override
+  public void clearRelations() {
+    relations.clear();
+  }
+
+  /**
+   * Copies infons and deep copies of the annotations and relations of the specified structure
+   * into this structure.
+   *
+   * @param structure the structure to copy from
+   */
+  void deepCopyContent(BioCStructure structure) {
+    infons.putAll(structure.infons);
+    if (!structure.annotations.isEmpty()) {
+      annotations = new ChildList<>(this, structure.annotations.size());
+      for (BioCAnnotation annotation : structure.annotations) {
+        annotations.add(annotation.deepCopy());
+      }
+    }
+    if (!structure.relations.isEmpty()) {
+      relations = new ChildList<>(this, structure.relations.size());
+      for (BioCRelation relation : structure.relations) {
+        relations.add(relation.deepCopy());
+      }
+    }
+  }
+
+  /**
+   * Records that this structure has been removed from the owner.
+   */
+  @Override
+  public void detach(FingerprintLink owner) {
+    if (this.owner == owner) {
+      this.owner = null;
+    }
+  }
+
+  @Override
+  public long fingerprint() {
+    long h = fingerprint;
+    if (h == 0) {
+      h = Fingerprints.nonZero(computeFingerprint());
+      if (frozen || childrenNotify()) {
+        fingerprint = h;
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Computes the fingerprint of this structure. Subclasses that hold more fields combine them
+   * with the fingerprint computed here.
+   *
+   * @return the fingerprint of this structure
+   */
+  long computeFingerprint() {
+    long h = Fingerprints.of(getClass().getSimpleName());
+    h = Fingerprints.combine(h, Fingerprints.ofMap(infons));
+    h = Fingerprints.combine(h, Fingerprints.ofList(annotations));
+    return Fingerprints.combine(h, Fingerprints.ofList(relations));
+  }
+
+  /**
+   * Clears the cached fingerprint of this structure and of its owner. Every mutator calls it.
+   */
+  @Override
+  public void invalidateFingerprint() {
+    if (fingerprint != 0) {
+      fingerprint = 0;
+      Owners.invalidate(owner);
+    }
+  }
+
+  /**
+   * Returns the annotation at the specified position, replacing it with a modifiable copy first
+   * if it is frozen. The copy has its own modifiable locations. Use it to modify an annotation of
+   * a structure created by copy-on-write; the other annotations stay shared.
+   *
+   * @param index annotation position in this structure
+   * @return the modifiable annotation at the specified position
+   */
+  public BioCAnnotation mutableAnnotation(int index) {
+    checkNotFrozen();
+    BioCAnnotation annotation = annotations.get(index);
+    if (annotation.isFrozen()) {
+      annotation = annotation.deepCopy();
+      annotations.set(index, annotation);
+    }
+    return annotation;
+  }
+
+  /**
+   * Returns the relation at the specified position, replacing it with a modifiable copy first if
+   * it is frozen. The copy has its own modifiable nodes.
+   *
+   * @param index relation position in this structure
+   * @return the modifiable relation at the specified position
+   * @see #mutableAnnotation(int)
+   */
+  public BioCRelation mutableRelation(int index) {
+    checkNotFrozen();
+    BioCRelation relation = relations.get(index);
+    if (relation.isFrozen()) {
+      relation = relation.deepCopy();
+      relations.set(index, relation);
+    }
+    return relation;
+  }
+
+  /**
+   * Makes this structure and everything it contains unmodifiable. Afterwards every mutator throws
+   * {@link UnsupportedOperationException} and the getters return unmodifiable views.
+   * <p>
+   * The same holds for the {@code freeze()} of every BioC object: a frozen object can be shared by
+   * any number of threads without copying or locking, provided it is published safely, e.g.,
+   * through a concurrent collection, a final or volatile field, or by having the reading thread
+   * call {@code isFrozen()} first.
+   *
+   * @return this structure
+   */
+  public BioCStructure freeze() {
+    if (!frozen) {
+      freezeContent();
+      frozen = true;
+    }
+    return this;
+  }
+
+  /**
+   * Freezes the content of this structure. Subclasses that hold more children override it.
+   */
+  void freezeContent() {
+    infons = infons.freeze();
+    for (BioCAnnotation annotation : annotations) {
+      annotation.freeze();
+    }
+    annotations = ImmutableList.copyOf(annotations);
+    for (BioCRelation relation : relations) {
+      relation.freeze();
+    }
+    relations = ImmutableList.copyOf(relations);
+  }
+
+  /**
+   * Returns true if this structure has been frozen.
+   *
+   * @return true if this structure has been frozen
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  void checkNotFrozen() {
+    if (frozen) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " is frozen");
+    }
+  }
+
+  @Override
+  public Optional<BioCAnnotation> getAnnotation(String annotationID) {
+    for (BioCAnnotation annotation : annotations) {
+      if (annotation.getID().equals(annotationID)) {
+        return Optional.of(annotation);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the annotation at the specified position in this structure.
+   *
+   * @param index annotation position in this structure
+   * @return the annotation at the specified position in this structure
+   */
+  public BioCAnnotation getAnnotation(int index) {
+    return annotations.get(index);
   }
 
+  /**
+   * Returns the number of annotations in this structure.
+   *
+   * @return the number of annotations in this structure
+   */
+  public int getAnnotationCount() {
+    return annotations.size();
+  }
 
   @Override
   public List<BioCAnnotation> getAnnotations() {
+    if (annotations == Collections.EMPTY_LIST) {
+      annotations = new ChildList<>(this);
+    }
     return annotations;
   }
 
@@ -46,11 +273,72 @@ public abstract class BioCStructure implements HasInfons, HasAnnotations, HasRel
     return infons;
   }
 
+  @Override
+  public Optional<BioCRelation> getRelation(String relationID) {
+    for (BioCRelation relation : relations) {
+      if (relation.getID().equals(relationID)) {
+        return Optional.of(relation);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the relation at the specified position in this structure.
+   *
+   * @param index relation position in this structure
+   * @return the relation at the specified position in this structure
+   */
+  public BioCRelation getRelation(int index) {
+    return relations.get(index);
+  }
+
+  /**
+   * Returns the number of relations in this structure.
+   *
+   * @return the number of relations in this structure
+   */
+  public int getRelationCount() {
+    return relations.size();
+  }
+
   @Override
   public List<BioCRelation> getRelations() {
+    if (relations == Collections.EMPTY_LIST) {
+      relations = new ChildList<>(this);
+    }
     return relations;
   }
 
+  /**
+   * Returns an iterator over the annotations in this structure in proper sequence. Unlike
+   * {@link #getAnnotations()}, it does not allocate a list for a structure without annotations.
+   *
+   * @return an iterator over the annotations in this structure in proper sequence
+   */
+  public Iterator<BioCAnnotation> annotationIterator() {
+    return annotations.iterator();
+  }
+
+  /**
+   * Returns an iterator over the relations in this structure in proper sequence. Unlike
+   * {@link #getRelations()}, it does not allocate a list for a structure without relations.
+   *
+   * @return an iterator over the relations in this structure in proper sequence
+   */
+  public Iterator<BioCRelation> relationIterator() {
+    return relations.iterator();
+  }
+
+  /**
+   * Returns true if a change to this structure will be told to the owner, which can then cache
+   * its fingerprint.
+   */
+  @Override
+  public boolean notifies(FingerprintLink owner) {
+    return frozen || this.owner == owner && fingerprint != 0;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -60,6 +348,10 @@ public abstract class BioCStructure implements HasInfons, HasAnnotations, HasRel
       return false;
     }
     BioCStructure rhs = (BioCStructure) obj;
+    if (frozen && rhs.frozen ? fingerprint() != rhs.fingerprint()
+        : Fingerprints.differ(fingerprint, rhs.fingerprint)) {
+      return false;
+    }
     return Objects.equals(infons, rhs.infons)
         && Objects.equals(annotations, rhs.annotations)
         && Objects.equals(relations, rhs.relations);
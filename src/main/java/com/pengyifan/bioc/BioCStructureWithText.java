@@ -7,7 +7,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 public abstract class BioCStructureWithText extends BioCStructure implements HasText, HasOffset {
   private int offset;
-  private String text;
+  /**
+   * A string, or a {@link TextSlice} of the text of the passage.
+   */
+  private CharSequence text;
 
   /**
    * Constructs an empty structure.
@@ -26,7 +29,21 @@ public abstract class BioCStructureWithText extends BioCStructure implements Has
   public BioCStructureWithText(BioCStructureWithText structure) {
     super(structure);
     setOffset(structure.offset);
-    setText(structure.text);
+    text = structure.text;
+  }
+
+  @Override
+  void deepCopyContent(BioCStructure structure) {
+    super.deepCopyContent(structure);
+    BioCStructureWithText rhs = (BioCStructureWithText) structure;
+    offset = rhs.offset;
+    text = rhs.text;
+  }
+
+  @Override
+  long computeFingerprint() {
+    long h = Fingerprints.combine(super.computeFingerprint(), offset);
+    return Fingerprints.combine(h, Fingerprints.of(text));
   }
 
   @Override
@@ -39,7 +56,7 @@ public abstract class BioCStructureWithText extends BioCStructure implements Has
     }
     BioCStructureWithText rhs = (BioCStructureWithText) obj;
     return super.equals(rhs)
-        && Objects.equals(text, rhs.text)
+        && TextSlice.contentEquals(text, rhs.text)
         && Objects.equals(offset, rhs.offset);
   }
 
@@ -53,8 +70,23 @@ public abstract class BioCStructureWithText extends BioCStructure implements Has
     return offset + text.length();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the text is shared with the passage, a new string is created on every call.
+   */
   @Override
   public Optional<String> getText() {
+    return text == null ? Optional.empty() : Optional.of(text.toString());
+  }
+
+  /**
+   * Returns the original text without copying it.
+   *
+   * @return the original text
+   * @see BioCPassage#shareText()
+   */
+  public Optional<CharSequence> getTextSequence() {
     return Optional.ofNullable(text);
   }
 
@@ -66,12 +98,57 @@ public abstract class BioCStructureWithText extends BioCStructure implements Has
 
   @Override
   public void setOffset(int offset) {
+    checkNotFrozen();
     this.offset = offset;
+    invalidateFingerprint();
   }
 
 
   @Override
   public void setText(String text) {
+    checkNotFrozen();
     this.text = text;
+    invalidateFingerprint();
+  }
+
+  /**
+   * Returns the text of this structure if it can be shared with its children, or null.
+   */
+  String sharedSource() {
+    return offset >= 0 && text instanceof String ? (String) text : null;
+  }
+
+  /**
+   * Replaces the texts of the annotations of this structure by the equal regions of the source,
+   * which starts at {@code sourceOffset}.
+   *
+   * @return the number of texts shared
+   */
+  int shareAnnotationText(String source, int sourceOffset) {
+    int count = 0;
+    for (int i = 0; i < getAnnotationCount(); i++) {
+      if (getAnnotation(i).shareText(source, sourceOffset)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Replaces the text of this structure by the equal region of the source, which starts at
+   * {@code sourceOffset}.
+   *
+   * @return true if the text is now shared
+   */
+  boolean shareText(String source, int sourceOffset) {
+    if (isFrozen() || text == null || offset < 0) {
+      return false;
+    }
+    TextSlice slice = TextSlice.share(source, offset - sourceOffset, text);
+    if (slice == null) {
+      return false;
+    }
+    text = slice;
+    return true;
   }
 }
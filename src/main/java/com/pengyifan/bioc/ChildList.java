@@ -0,0 +1,126 @@
+package com.pengyifan.bioc;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+
+/**
+ * Modifiable list of the passages, sentences, annotations, relations or documents of a BioC
+ * object. Every change is recorded with {@link Owners}, so that the cached fingerprint of the
+ * owner is cleared, however the list is modified: directly, through an iterator or through a
+ * sub list.
+ *
+ * @param <E> the type of the children
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class ChildList<E extends FingerprintLink> extends AbstractList<E> implements RandomAccess {
+
+  private static final FingerprintLink[] EMPTY_ELEMENTS = {};
+
+  private final FingerprintLink owner;
+  private FingerprintLink[] elements;
+  private int size;
+
+  /**
+   * Constructs an empty list.
+   *
+   * @param owner the object that contains the children
+   */
+  ChildList(FingerprintLink owner) {
+    this.owner = owner;
+    elements = EMPTY_ELEMENTS;
+  }
+
+  /**
+   * Constructs an empty list with the initial capacity.
+   *
+   * @param owner    the object that contains the children
+   * @param capacity the initial capacity
+   */
+  ChildList(FingerprintLink owner, int capacity) {
+    this.owner = owner;
+    elements = capacity == 0 ? EMPTY_ELEMENTS : new FingerprintLink[capacity];
+  }
+
+  @Override
+  public void add(int index, E element) {
+    checkPositionIndex(index, size);
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+    }
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = element;
+    size++;
+    modCount++;
+    Owners.attach(element, owner);
+    Owners.invalidate(owner);
+  }
+
+  /**
+   * Removes all children but keeps the capacity, so that the list can be refilled without
+   * allocation.
+   */
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      Owners.detach(elements[i], owner);
+    }
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+    modCount++;
+    Owners.invalidate(owner);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    checkElementIndex(index, size);
+    return (E) elements[index];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E remove(int index) {
+    checkElementIndex(index, size);
+    E old = (E) elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    elements[--size] = null;
+    modCount++;
+    detachIfAbsent(old);
+    Owners.invalidate(owner);
+    return old;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    checkElementIndex(index, size);
+    E old = (E) elements[index];
+    elements[index] = element;
+    Owners.attach(element, owner);
+    detachIfAbsent(old);
+    Owners.invalidate(owner);
+    return old;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Detaches the child unless the same object is still in this list.
+   */
+  private void detachIfAbsent(E child) {
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == child) {
+        return;
+      }
+    }
+    Owners.detach(child, owner);
+  }
+}
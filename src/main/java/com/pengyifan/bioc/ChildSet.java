@@ -0,0 +1,108 @@
+package com.pengyifan.bioc;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Modifiable set of the locations of an annotation or the nodes of a relation. Every change is
+ * recorded with {@link Owners}, so that the cached fingerprint of the owner is cleared.
+ *
+ * @param <E> the type of the children
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class ChildSet<E extends FingerprintLink> extends HashSet<E> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient FingerprintLink owner;
+
+  /**
+   * Constructs an empty set.
+   *
+   * @param owner the object that contains the children
+   */
+  ChildSet(FingerprintLink owner) {
+    this.owner = owner;
+  }
+
+  /**
+   * Constructs an empty set that holds the expected number of children without rehashing.
+   *
+   * @param owner        the object that contains the children
+   * @param expectedSize the expected number of children
+   */
+  ChildSet(FingerprintLink owner, int expectedSize) {
+    super(Math.max(expectedSize * 4 / 3 + 1, 16));
+    this.owner = owner;
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (!super.add(e)) {
+      return false;
+    }
+    Owners.attach(e, owner);
+    Owners.invalidate(owner);
+    return true;
+  }
+
+  /**
+   * Removes all children but keeps the capacity, so that the set can be refilled without
+   * reallocating its table.
+   */
+  @Override
+  public void clear() {
+    for (E e : this) {
+      Owners.detach(e, owner);
+    }
+    super.clear();
+    Owners.invalidate(owner);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    Iterator<E> itr = super.iterator();
+    return new Iterator<E>() {
+      private E last;
+
+      @Override
+      public boolean hasNext() {
+        return itr.hasNext();
+      }
+
+      @Override
+      public E next() {
+        last = itr.next();
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        itr.remove();
+        Owners.detach(last, owner);
+        Owners.invalidate(owner);
+      }
+    };
+  }
+
+  /**
+   * Removes the child equal to the object and detaches it. The child found is detached rather
+   * than the object, since an equal child may be a different instance.
+   */
+  @Override
+  public boolean remove(Object o) {
+    Iterator<E> itr = super.iterator();
+    while (itr.hasNext()) {
+      E e = itr.next();
+      if (Objects.equals(e, o)) {
+        itr.remove();
+        Owners.detach(e, owner);
+        Owners.invalidate(owner);
+        return true;
+      }
+    }
+    return false;
+  }
+}
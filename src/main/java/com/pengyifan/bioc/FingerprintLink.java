@@ -0,0 +1,42 @@
+package com.pengyifan.bioc;
+
+/**
+ * A BioC object that takes part in the links recorded by {@link Owners}: a child that remembers
+ * its owner, an owner that caches its fingerprint, or both.
+ * <p>
+ * The methods are public only because interface methods must be. They are not part of the API:
+ * the parameter type is package-private, and only the lists and sets of this package call them.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+interface FingerprintLink {
+
+  /**
+   * Records that this object has been added to the owner.
+   *
+   * @param owner the owner
+   */
+  void attach(FingerprintLink owner);
+
+  /**
+   * Records that this object has been removed from the owner.
+   *
+   * @param owner the owner
+   */
+  void detach(FingerprintLink owner);
+
+  /**
+   * Clears the cached fingerprint of this object and tells its owner.
+   */
+  void invalidateFingerprint();
+
+  /**
+   * Returns true if a change to this object will be told to the owner, which can then cache its
+   * fingerprint.
+   *
+   * @param owner the owner
+   * @return true if a change to this object will be told to the owner
+   */
+  boolean notifies(FingerprintLink owner);
+}
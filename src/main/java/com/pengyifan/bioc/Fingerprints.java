@@ -0,0 +1,129 @@
+package com.pengyifan.bioc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static helpers to compute the 64-bit content fingerprints of BioC objects.
+ * <p>
+ * The fingerprints only depend on the content, never on identity hash codes or on the iteration
+ * order of sets and maps, so they are stable across runs and JVMs.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class Fingerprints {
+
+  private static final long NULL = 0x6a09e667f3bcc909L;
+  private static final long PRIME = 0x9e3779b97f4a7c15L;
+
+  private Fingerprints() {
+  }
+
+  /**
+   * Combines a fingerprint with the next value of an ordered sequence.
+   *
+   * @param h     fingerprint so far
+   * @param value next value
+   * @return the combined fingerprint
+   */
+  static long combine(long h, long value) {
+    return mix(Long.rotateLeft(h, 23) * PRIME + value);
+  }
+
+  /**
+   * Returns true if both fingerprints have been computed and are different, so that the objects
+   * are known to be different without comparing them.
+   *
+   * @param h1 a cached fingerprint, or zero
+   * @param h2 another cached fingerprint, or zero
+   * @return true if the objects are known to be different
+   */
+  static boolean differ(long h1, long h2) {
+    return h1 != 0 && h2 != 0 && h1 != h2;
+  }
+
+  /**
+   * Returns the fingerprint of an ordered list of BioC objects.
+   *
+   * @param list the list
+   * @return the fingerprint of the list
+   */
+  static long ofList(List<? extends HasFingerprint> list) {
+    long h = list.size();
+    for (int i = 0; i < list.size(); i++) {
+      h = combine(h, list.get(i).fingerprint());
+    }
+    return mix(h);
+  }
+
+  /**
+   * Returns the fingerprint of the infons, independent of their order.
+   *
+   * @param infons the infons
+   * @return the fingerprint of the infons
+   */
+  static long ofMap(Map<String, String> infons) {
+    long h = 0;
+    for (Map.Entry<String, String> e : infons.entrySet()) {
+      h += mix(combine(of(e.getKey()), of(e.getValue())));
+    }
+    return combine(infons.size(), h);
+  }
+
+  /**
+   * Returns the fingerprint of a set of BioC objects, independent of its iteration order.
+   *
+   * @param set the set
+   * @return the fingerprint of the set
+   */
+  static long ofSet(Collection<? extends HasFingerprint> set) {
+    long h = 0;
+    for (HasFingerprint e : set) {
+      h += mix(e.fingerprint());
+    }
+    return combine(set.size(), h);
+  }
+
+  /**
+   * Returns the fingerprint of a character sequence, or of null.
+   *
+   * @param s the character sequence
+   * @return the fingerprint of the character sequence
+   */
+  static long of(CharSequence s) {
+    if (s == null) {
+      return NULL;
+    }
+    // FNV-1a over UTF-16 code units
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h ^= s.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return mix(h ^ s.length());
+  }
+
+  /**
+   * Returns a non-zero fingerprint, so that zero can mark a fingerprint that was not computed.
+   *
+   * @param h the fingerprint
+   * @return {@code h} if it is not zero, otherwise one
+   */
+  static long nonZero(long h) {
+    return h == 0 ? 1 : h;
+  }
+
+  /**
+   * Finalization mix of MurmurHash3.
+   */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,18 @@
+package com.pengyifan.bioc;
+
+public interface HasFingerprint {
+  /**
+   * Returns a 64-bit fingerprint of the content of this object. Equal objects have equal
+   * fingerprints, independent of the iteration order of their sets and maps. The fingerprint is
+   * stable across runs and JVMs, so it can be stored to detect duplicates or changes.
+   * <p>
+   * The fingerprint is computed once and cached. Any change to the object, or to an object it
+   * contains, clears the cached fingerprints of the changed object and of everything that contains
+   * it, so the next call computes again only the changed path. A modifiable object that was added
+   * to more than one object, e.g., by a shallow copy constructor, cannot tell all of them of its
+   * changes; those objects compute their fingerprints on each call while they contain it.
+   *
+   * @return a 64-bit fingerprint of the content of this object
+   */
+  long fingerprint();
+}
@@ -0,0 +1,395 @@
+package com.pengyifan.bioc;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compact map used to store infons.
+ * <p>
+ * Most structures have no more than a handful of infons. This map starts with a shared empty
+ * table, keeps up to {@link #THRESHOLD} mappings in one flat key/value array in insertion order,
+ * and only grows into a {@link HashMap} beyond that.
+ * <p>
+ * Every change is recorded with {@link Owners}, so that the cached fingerprint of the object that
+ * holds the infons is cleared.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class InfonMap extends AbstractMap<String, String> {
+
+  /**
+   * The largest number of mappings kept in the flat array.
+   */
+  static final int THRESHOLD = 8;
+
+  private static final Object[] EMPTY_TABLE = {};
+
+  /**
+   * The owner of a frozen map, which saves a flag field in every map.
+   */
+  private static final FingerprintLink FROZEN = Owners.sentinel();
+
+  /**
+   * The shared frozen empty map.
+   */
+  private static final InfonMap EMPTY = new InfonMap();
+
+  static {
+    EMPTY.owner = FROZEN;
+  }
+
+  /**
+   * Keys at even and values at odd positions. Unused when {@code map} is not null.
+   */
+  private Object[] table;
+  private int size;
+  private HashMap<String, String> map;
+  private int modCount;
+  private FingerprintLink owner;
+
+  /**
+   * Constructs an empty map that shares the empty table until the first put.
+   */
+  InfonMap() {
+    this(null);
+  }
+
+  /**
+   * Constructs an empty map held by the owner.
+   *
+   * @param owner the object that holds the infons, or null
+   */
+  InfonMap(FingerprintLink owner) {
+    this.owner = owner;
+    table = EMPTY_TABLE;
+  }
+
+  @Override
+  public void clear() {
+    checkNotFrozen();
+    if (map != null) {
+      map = null;
+      table = EMPTY_TABLE;
+    } else {
+      // keep the table so that a cleared map can be refilled without allocation
+      Arrays.fill(table, 0, size << 1, null);
+    }
+    size = 0;
+    modCount++;
+    Owners.invalidate(owner);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (map != null) {
+      return map.containsKey(key);
+    }
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    if (map != null) {
+      return new MapEntrySet();
+    }
+    return new EntrySet();
+  }
+
+  /**
+   * Makes this map unmodifiable and trims its table to the exact size.
+   *
+   * @return the shared empty map if this map is empty, otherwise this map
+   */
+  InfonMap freeze() {
+    if (owner == FROZEN) {
+      return this;
+    }
+    if (size() == 0) {
+      return EMPTY;
+    }
+    if (map == null && table.length != size << 1) {
+      table = Arrays.copyOf(table, size << 1);
+    }
+    owner = FROZEN;
+    return this;
+  }
+
+  @Override
+  public String get(Object key) {
+    if (map != null) {
+      return map.get(key);
+    }
+    int i = indexOf(key);
+    return i < 0 ? null : value(i);
+  }
+
+  @Override
+  public String put(String key, String value) {
+    checkNotFrozen();
+    Owners.invalidate(owner);
+    if (map != null) {
+      return map.put(key, value);
+    }
+    int i = indexOf(key);
+    if (i >= 0) {
+      String old = value(i);
+      table[(i << 1) + 1] = value;
+      return old;
+    }
+    if (size == THRESHOLD) {
+      inflate();
+      return map.put(key, value);
+    }
+    if (table.length == size << 1) {
+      table = Arrays.copyOf(table, Math.max(4, size << 2));
+    }
+    table[size << 1] = key;
+    table[(size << 1) + 1] = value;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  public String remove(Object key) {
+    checkNotFrozen();
+    if (map != null) {
+      if (!map.containsKey(key)) {
+        return null;
+      }
+      Owners.invalidate(owner);
+      return map.remove(key);
+    }
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    String old = value(i);
+    removeAt(i);
+    return old;
+  }
+
+  @Override
+  public int size() {
+    return map != null ? map.size() : size;
+  }
+
+  private void checkNotFrozen() {
+    if (owner == FROZEN) {
+      throw new UnsupportedOperationException("infons are frozen");
+    }
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < size; i++) {
+      if (Objects.equals(table[i << 1], key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void inflate() {
+    map = new HashMap<>(THRESHOLD << 2);
+    for (int i = 0; i < size; i++) {
+      map.put(key(i), value(i));
+    }
+    table = EMPTY_TABLE;
+    size = 0;
+    modCount++;
+  }
+
+  private String key(int i) {
+    return (String) table[i << 1];
+  }
+
+  private void removeAt(int i) {
+    checkNotFrozen();
+    int last = size - 1;
+    System.arraycopy(table, (i + 1) << 1, table, i << 1, (last - i) << 1);
+    table[last << 1] = null;
+    table[(last << 1) + 1] = null;
+    size = last;
+    modCount++;
+    Owners.invalidate(owner);
+  }
+
+  private String value(int i) {
+    return (String) table[(i << 1) + 1];
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+    @Override
+    public void clear() {
+      InfonMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Entry<String, String>> {
+
+    private int next;
+    private int last = -1;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      // a put that inflates the map empties the table, so the loop must not just end
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      return next < size;
+    }
+
+    @Override
+    public Entry<String, String> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next >= size) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return new TableEntry(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(last);
+      next = last;
+      last = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private final class TableEntry implements Entry<String, String> {
+
+    private final int index;
+
+    TableEntry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> rhs = (Entry<?, ?>) obj;
+      return Objects.equals(getKey(), rhs.getKey())
+          && Objects.equals(getValue(), rhs.getValue());
+    }
+
+    @Override
+    public String getKey() {
+      return key(index);
+    }
+
+    @Override
+    public String getValue() {
+      return value(index);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String setValue(String value) {
+      checkNotFrozen();
+      Owners.invalidate(owner);
+      String old = value(index);
+      table[(index << 1) + 1] = value;
+      return old;
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * Entries of the hash map, which record every change.
+   */
+  private final class MapEntrySet extends AbstractSet<Entry<String, String>> {
+
+    @Override
+    public void clear() {
+      InfonMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Entry<String, String>> iterator() {
+      Iterator<Entry<String, String>> itr = map.entrySet().iterator();
+      return new Iterator<Entry<String, String>>() {
+        @Override
+        public boolean hasNext() {
+          return itr.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+          return new MapEntry(itr.next());
+        }
+
+        @Override
+        public void remove() {
+          checkNotFrozen();
+          itr.remove();
+          Owners.invalidate(owner);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+  }
+
+  private final class MapEntry extends SimpleEntry<String, String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Entry<String, String> entry;
+
+    MapEntry(Entry<String, String> entry) {
+      super(entry);
+      this.entry = entry;
+    }
+
+    @Override
+    public String setValue(String value) {
+      checkNotFrozen();
+      Owners.invalidate(owner);
+      super.setValue(value);
+      return entry.setValue(value);
+    }
+  }
+}
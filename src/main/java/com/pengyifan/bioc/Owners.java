@@ -0,0 +1,126 @@
+package com.pengyifan.bioc;
+
+import java.util.Collection;
+
+/**
+ * Links modifiable BioC objects to the object that contains them, so that a change anywhere in a
+ * tree clears the cached fingerprints of the changed object and of its ancestors.
+ * <p>
+ * An object added to a structure, an annotation, a relation or a collection remembers it as its
+ * owner. A change to the object, or to its infons, lists or sets, clears the cached fingerprint of
+ * the object and tells its owner, which does the same up to the root. The walk stops at the first
+ * object that has no cached fingerprint, since an object only caches its fingerprint if its
+ * children have cached theirs.
+ * <p>
+ * An object added to two owners, e.g., by a shallow copy constructor, cannot tell both of them.
+ * It is marked {@link #SHARED}, and its owners compute their fingerprints on every call while they
+ * contain it. Frozen objects never change, so they need no owner and do not prevent caching.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class Owners {
+
+  /**
+   * The owner of an object that has been added to more than one owner.
+   */
+  static final FingerprintLink SHARED = sentinel();
+
+  private Owners() {
+  }
+
+  /**
+   * Returns true if every child either is frozen, or belongs to the owner only and has cached its
+   * fingerprint. Only then can the owner cache its own fingerprint.
+   *
+   * @param children the children of the owner
+   * @param owner    the owner
+   * @return true if the owner can cache its fingerprint
+   */
+  static boolean allNotify(Collection<? extends FingerprintLink> children, FingerprintLink owner) {
+    for (FingerprintLink child : children) {
+      if (child == null || !child.notifies(owner)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records that the child has been added to the owner.
+   *
+   * @param child the child, possibly null
+   * @param owner the owner
+   */
+  static void attach(FingerprintLink child, FingerprintLink owner) {
+    if (child != null) {
+      child.attach(owner);
+    }
+  }
+
+  /**
+   * Records that the child is no longer contained by the owner.
+   *
+   * @param child the child, possibly null
+   * @param owner the owner
+   */
+  static void detach(FingerprintLink child, FingerprintLink owner) {
+    if (child != null) {
+      child.detach(owner);
+    }
+  }
+
+  /**
+   * Clears the cached fingerprint of the owner and of its own owners.
+   *
+   * @param owner the owner, {@link #SHARED} or null
+   */
+  static void invalidate(FingerprintLink owner) {
+    if (owner != null) {
+      owner.invalidateFingerprint();
+    }
+  }
+
+  /**
+   * Returns the new owner of an object that had the previous owner and is added to the owner. If
+   * the object already belongs to another owner, that owner is told, because the object will not
+   * be able to tell it of later changes.
+   *
+   * @param previous the previous owner of the object, or null
+   * @param owner    the owner the object is added to
+   * @return the new owner of the object
+   */
+  static FingerprintLink join(FingerprintLink previous, FingerprintLink owner) {
+    if (previous == null || previous == owner) {
+      return owner;
+    }
+    invalidate(previous);
+    return SHARED;
+  }
+
+  /**
+   * Returns a new owner that ignores every call, for objects that cannot tell a single owner.
+   *
+   * @return a new owner that ignores every call
+   */
+  static FingerprintLink sentinel() {
+    return new FingerprintLink() {
+      @Override
+      public void attach(FingerprintLink owner) {
+      }
+
+      @Override
+      public void detach(FingerprintLink owner) {
+      }
+
+      @Override
+      public void invalidateFingerprint() {
+      }
+
+      @Override
+      public boolean notifies(FingerprintLink owner) {
+        return false;
+      }
+    };
+  }
+}
@@ -0,0 +1,100 @@
+package com.pengyifan.bioc;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+/**
+ * Region of a string used as the text of a sentence or an annotation, so that it shares the
+ * characters of the text of its passage instead of holding a copy.
+ * <p>
+ * A slice is immutable. Its hash code is the one of the equal string, so texts can be hashed and
+ * compared whether they are strings or slices.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class TextSlice implements CharSequence {
+
+  private final String source;
+  private final int start;
+  private final int end;
+  private int hash;
+
+  TextSlice(String source, int start, int end) {
+    checkPositionIndexes(start, end, source.length());
+    this.source = source;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns true if both texts are null or have the same characters.
+   */
+  static boolean contentEquals(CharSequence a, CharSequence b) {
+    if (a == b) {
+      return true;
+    }
+    if (a == null || b == null || a.length() != b.length()) {
+      return false;
+    }
+    if (a instanceof String) {
+      return ((String) a).contentEquals(b);
+    }
+    for (int i = 0; i < a.length(); i++) {
+      if (a.charAt(i) != b.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the region of the source at the offset if it has the same characters as the text, or
+   * null.
+   */
+  static TextSlice share(String source, int offset, CharSequence text) {
+    if (!(text instanceof String) || offset < 0 || offset + text.length() > source.length()
+        || !source.regionMatches(offset, (String) text, 0, text.length())) {
+      return null;
+    }
+    return new TextSlice(source, offset, offset + text.length());
+  }
+
+  @Override
+  public char charAt(int index) {
+    return source.charAt(start + index);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj == this
+        || obj instanceof TextSlice && contentEquals(this, (TextSlice) obj);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      for (int i = start; i < end; i++) {
+        h = 31 * h + source.charAt(i);
+      }
+      hash = h;
+    }
+    return h;
+  }
+
+  @Override
+  public int length() {
+    return end - start;
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    checkPositionIndexes(start, end, length());
+    return new TextSlice(source, this.start + start, this.start + end);
+  }
+
+  @Override
+  public String toString() {
+    return source.substring(start, end);
+  }
+}
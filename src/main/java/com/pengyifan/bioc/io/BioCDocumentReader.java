@@ -31,6 +31,19 @@ import com.pengyifan.bioc.io.BioCReader.Level;
  * }
  * reader.close();
  * </pre>
+ * <p>
+ * When documents are processed one at a time and then discarded, the reader can recycle them.
+ * With recycling enabled, a document handed back through {@link #recycle(BioCDocument)} is
+ * cleared, and its objects are refilled by the following {@link #readDocument()} calls, so
+ * steady-state parsing allocates little more than the strings it reads. For example,
+ * <p>
+ * <pre>
+ * reader.setRecycling(true);
+ * while ((doc = reader.readDocument()) != null) {
+ *   process(doc);
+ *   reader.recycle(doc);
+ * }
+ * </pre>
  * 
  * @since 1.0.0
  * @see BioCCollectionReader
@@ -122,6 +135,45 @@ public class BioCDocumentReader implements Closeable {
     reader.close();
   }
 
+  /**
+   * Returns true if this reader recycles documents handed back through
+   * {@link #recycle(BioCDocument)}.
+   *
+   * @return true if this reader recycles documents
+   */
+  public boolean isRecycling() {
+    return reader.pool != null;
+  }
+
+  /**
+   * Hands back a document that the caller no longer uses. If recycling is enabled, the document
+   * and all the passages, sentences, annotations, relations, locations and nodes it contains are
+   * cleared and reused by later {@link #readDocument()} calls, so none of them may be referenced
+   * afterwards. Otherwise, this method has no effect.
+   *
+   * @param document a document returned by {@link #readDocument()}
+   * @throws IllegalArgumentException if the document is frozen
+   */
+  public void recycle(BioCDocument document) {
+    if (reader.pool != null) {
+      reader.pool.release(document);
+    }
+  }
+
+  /**
+   * Enables or disables recycling. Recycling is disabled by default.
+   *
+   * @param recycling true to recycle documents handed back through {@link #recycle(BioCDocument)}
+   * @see #recycle(BioCDocument)
+   */
+  public void setRecycling(boolean recycling) {
+    if (!recycling) {
+      reader.pool = null;
+    } else if (reader.pool == null) {
+      reader.pool = new BioCObjectPool();
+    }
+  }
+
   /**
    * Reads the collection information: encoding, version, DTD, source, date,
    * key, infons, etc.
@@ -0,0 +1,191 @@
+package com.pengyifan.bioc.io;
+
+import com.google.common.collect.Queues;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+
+import java.util.Deque;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Pool of cleared BioC objects that a {@link BioCReader} refills instead of allocating new ones.
+ * <p>
+ * Lists, sets and infon maps of a released object are cleared but keep their capacity, so
+ * refilling a document of a similar shape does not allocate them again.
+ * <p>
+ * Each kind of object is pooled up to a capacity, so that one unusually large document does not
+ * pin its objects for the rest of the stream. Objects released beyond the capacity are cleared
+ * and left to the garbage collector.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+class BioCObjectPool {
+
+  /**
+   * The default number of objects of each kind kept, enough for the annotations of a typical
+   * full-text article.
+   */
+  static final int DEFAULT_CAPACITY = 4096;
+
+  private final int capacity;
+  private final Deque<BioCDocument> documents = Queues.newArrayDeque();
+  private final Deque<BioCPassage> passages = Queues.newArrayDeque();
+  private final Deque<BioCSentence> sentences = Queues.newArrayDeque();
+  private final Deque<BioCAnnotation> annotations = Queues.newArrayDeque();
+  private final Deque<BioCRelation> relations = Queues.newArrayDeque();
+  private final Deque<BioCLocation> locations = Queues.newArrayDeque();
+  private final Deque<BioCNode> nodes = Queues.newArrayDeque();
+
+  /**
+   * Constructs a pool that keeps up to {@link #DEFAULT_CAPACITY} objects of each kind.
+   */
+  BioCObjectPool() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a pool that keeps up to the specified number of objects of each kind.
+   *
+   * @param capacity the largest number of objects of each kind kept
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  BioCObjectPool(int capacity) {
+    checkArgument(capacity >= 0, "Capacity must be non-negative: %s", capacity);
+    this.capacity = capacity;
+  }
+
+  BioCDocument document() {
+    BioCDocument document = documents.pollFirst();
+    return document != null ? document : new BioCDocument();
+  }
+
+  BioCPassage passage() {
+    BioCPassage passage = passages.pollFirst();
+    return passage != null ? passage : new BioCPassage();
+  }
+
+  BioCSentence sentence() {
+    BioCSentence sentence = sentences.pollFirst();
+    return sentence != null ? sentence : new BioCSentence();
+  }
+
+  BioCAnnotation annotation() {
+    BioCAnnotation annotation = annotations.pollFirst();
+    return annotation != null ? annotation : new BioCAnnotation();
+  }
+
+  BioCRelation relation() {
+    BioCRelation relation = relations.pollFirst();
+    return relation != null ? relation : new BioCRelation();
+  }
+
+  BioCLocation location(int offset, int length) {
+    BioCLocation location = locations.pollFirst();
+    if (location == null) {
+      return new BioCLocation(offset, length);
+    }
+    location.setOffset(offset);
+    location.setLength(length);
+    return location;
+  }
+
+  BioCNode node(String refid, String role) {
+    BioCNode node = nodes.pollFirst();
+    if (node == null) {
+      return new BioCNode(refid, role);
+    }
+    node.setRefid(refid);
+    node.setRole(role);
+    return node;
+  }
+
+  /**
+   * Clears the document and returns it, and every object it contains, to this pool. Frozen
+   * children, e.g., those shared with another document by copy-on-write, are left untouched and
+   * are not pooled.
+   *
+   * @param document the document that is no longer used
+   */
+  void release(BioCDocument document) {
+    checkArgument(!document.isFrozen(), "Cannot recycle a frozen document");
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      if (!passage.isFrozen()) {
+        release(passage);
+      }
+    }
+    document.clearPassages();
+    releaseChildren(document);
+    document.setID(null);
+    offer(documents, document);
+  }
+
+  private <T> void offer(Deque<T> deque, T object) {
+    if (deque.size() < capacity) {
+      deque.addFirst(object);
+    }
+  }
+
+  private void release(BioCPassage passage) {
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      BioCSentence sentence = passage.getSentence(i);
+      if (sentence.isFrozen()) {
+        continue;
+      }
+      releaseChildren(sentence);
+      sentence.setOffset(-1);
+      sentence.setText(null);
+      offer(sentences, sentence);
+    }
+    passage.clearSentences();
+    releaseChildren(passage);
+    passage.setOffset(-1);
+    passage.setText(null);
+    offer(passages, passage);
+  }
+
+  private void releaseChildren(BioCStructure structure) {
+    structure.clearInfons();
+    for (int i = 0; i < structure.getAnnotationCount(); i++) {
+      BioCAnnotation annotation = structure.getAnnotation(i);
+      if (annotation.isFrozen()) {
+        continue;
+      }
+      for (BioCLocation location : annotation.getLocations()) {
+        if (!location.isFrozen()) {
+          offer(locations, location);
+        }
+      }
+      annotation.clearLocations();
+      annotation.clearInfons();
+      annotation.setID(null);
+      annotation.setText(null);
+      offer(annotations, annotation);
+    }
+    structure.clearAnnotations();
+    for (int i = 0; i < structure.getRelationCount(); i++) {
+      BioCRelation relation = structure.getRelation(i);
+      if (relation.isFrozen()) {
+        continue;
+      }
+      for (BioCNode node : relation.getNodes()) {
+        if (!node.isFrozen()) {
+          offer(nodes, node);
+        }
+      }
+      relation.clearNodes();
+      relation.clearInfons();
+      relation.setID(null);
+      offer(relations, relation);
+    }
+    structure.clearRelations();
+  }
+}
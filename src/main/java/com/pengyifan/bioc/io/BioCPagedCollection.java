@@ -0,0 +1,473 @@
+package com.pengyifan.bioc.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.io.BioCReader.Level;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Read-only collection whose documents are paged in from a BioC file on demand.
+ * <p>
+ * When the collection is opened, the file is scanned once to record the byte range of every
+ * document. {@link #getDocument(int)}, {@link #documentIterator()} and {@link #getDocuments()}
+ * then parse a document only when it is requested, and keep at most a fixed number of parsed
+ * documents in a least-recently-used cache. Collection-level code can therefore run on corpora
+ * that do not fit in the heap. For example,
+ * <p>
+ * <pre>
+ * try (BioCPagedCollection collection = new BioCPagedCollection(path, 1000)) {
+ *   BioCAnnotationIterator itr = new BioCAnnotationIterator(collection);
+ *   ...
+ * }
+ * </pre>
+ * <p>
+ * The collection is frozen: its documents cannot be added or removed, and the paged documents
+ * are frozen as well. Because a document may be evicted and paged in again, the same document
+ * position may return equal but different instances over time. Methods that look at all
+ * documents, such as {@link #equals(Object)}, {@link #hashCode()} and {@link #deepCopy()}, page
+ * in every document.
+ * <p>
+ * The file must be in an encoding in which the markup is ASCII, e.g., UTF-8 or ISO-8859-1.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCPagedCollection extends BioCCollection implements Closeable {
+
+  private static final byte[] DOCUMENT = "document".getBytes(StandardCharsets.US_ASCII);
+  private static final Pattern ENCODING = Pattern.compile(
+      "encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+
+  private final FileChannel channel;
+  private final Charset charset;
+  private final long[] starts;
+  private final long[] ends;
+  private final LoadingCache<Integer, BioCDocument> cache;
+
+  /**
+   * Opens a paged collection, given the File to read from.
+   *
+   * @param file        the File to read from
+   * @param maximumSize the maximum number of documents kept in memory
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if the collection information cannot be parsed
+   */
+  public BioCPagedCollection(File file, long maximumSize)
+      throws IOException, XMLStreamException {
+    this(file.toPath(), maximumSize);
+  }
+
+  /**
+   * Opens a paged collection, given the Path to read from.
+   *
+   * @param path        the file path to read from
+   * @param maximumSize the maximum number of documents kept in memory
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if the collection information cannot be parsed
+   */
+  public BioCPagedCollection(Path path, long maximumSize)
+      throws IOException, XMLStreamException {
+    checkArgument(maximumSize > 0, "maximumSize must be positive: %s", maximumSize);
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      DocumentScanner scanner = new DocumentScanner(
+          new BufferedInputStream(Channels.newInputStream(channel)));
+      scanner.scan();
+      String encoding = scanner.encoding == null ? "UTF-8" : scanner.encoding;
+      charset = Charset.forName(encoding);
+      checkArgument(Arrays.equals(DOCUMENT, "document".getBytes(charset)),
+          "Unsupported encoding: %s", encoding);
+      starts = Arrays.copyOf(scanner.starts, scanner.count);
+      ends = Arrays.copyOf(scanner.ends, scanner.count);
+      readCollectionInfo(scanner.count == 0 ? channel.size() : starts[0], encoding);
+    } catch (IOException | XMLStreamException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    // a single segment keeps the eviction order strictly least-recently-used
+    cache = CacheBuilder.newBuilder()
+        .concurrencyLevel(1)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build(new CacheLoader<Integer, BioCDocument>() {
+          @Override
+          public BioCDocument load(Integer index)
+              throws IOException, XMLStreamException {
+            return readDocument(index);
+          }
+        });
+    freeze();
+  }
+
+  /**
+   * Returns the statistics of the document cache, including the number of hits, misses and
+   * evictions.
+   *
+   * @return the statistics of the document cache
+   */
+  public CacheStats cacheStats() {
+    return cache.stats();
+  }
+
+  /**
+   * Returns the number of documents currently kept in memory.
+   *
+   * @return the number of documents currently kept in memory
+   */
+  public long cachedDocumentCount() {
+    return cache.size();
+  }
+
+  /**
+   * Closes the underlying file. Documents that are already cached remain available, but paging
+   * in another document throws an {@link UncheckedIOException}.
+   */
+  @Override
+  public void close()
+      throws IOException {
+    channel.close();
+  }
+
+  @Override
+  public Iterator<BioCDocument> documentIterator() {
+    return getDocuments().iterator();
+  }
+
+  @Override
+  public int getDocmentCount() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the document at the specified position, paging it in from the file if it is not
+   * cached.
+   *
+   * @param index document position in this collection
+   * @return the frozen document at the specified position
+   * @throws UncheckedIOException if the document cannot be read from the file
+   */
+  @Override
+  public BioCDocument getDocument(int index) {
+    checkElementIndex(index, starts.length);
+    try {
+      return cache.getUnchecked(index);
+    } catch (UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw new UncheckedIOException((IOException) cause);
+      }
+      if (cause instanceof XMLStreamException) {
+        throw new UncheckedIOException(new IOException(cause.getMessage(), cause));
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns an unmodifiable view of the documents. The documents are paged in when they are
+   * accessed.
+   *
+   * @return an unmodifiable view of the documents
+   */
+  @Override
+  public List<BioCDocument> getDocuments() {
+    return new PagedList();
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+        .append("source", getSource())
+        .append("date", getDate())
+        .append("key", getKey())
+        .append("infons", getInfons())
+        .append("documents", getDocmentCount())
+        .toString();
+  }
+
+  private String decode(long start, long end)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, start + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of file at " + (start + buffer.position()));
+      }
+    }
+    buffer.flip();
+    return charset.decode(buffer).toString();
+  }
+
+  private void readCollectionInfo(long end, String encoding)
+      throws IOException, XMLStreamException {
+    String header = decode(0, end);
+    if (end != channel.size()) {
+      header += "</collection>";
+    }
+    BioCReader reader = new BioCReader(new StringReader(header), Level.DOCUMENT_LEVEL);
+    try {
+      BioCCollection info = (BioCCollection) reader.read();
+      setEncoding(encoding);
+      setVersion(info.getVersion());
+      setStandalone(info.isStandalone());
+      setSource(info.getSource());
+      setDate(info.getDate());
+      setKey(info.getKey());
+      setInfons(info.getInfons());
+    } finally {
+      reader.close();
+    }
+  }
+
+  private BioCDocument readDocument(int index)
+      throws IOException, XMLStreamException {
+    String xml = "<collection>" + decode(starts[index], ends[index]) + "</collection>";
+    BioCReader reader = new BioCReader(new StringReader(xml), Level.DOCUMENT_LEVEL);
+    try {
+      reader.read();
+      if (reader.document == null) {
+        throw new XMLStreamException("Cannot read document " + index + " at " + starts[index]);
+      }
+      return reader.document.freeze();
+    } finally {
+      reader.close();
+    }
+  }
+
+  private final class PagedList extends AbstractList<BioCDocument> implements RandomAccess {
+
+    @Override
+    public BioCDocument get(int index) {
+      return getDocument(index);
+    }
+
+    @Override
+    public int size() {
+      return getDocmentCount();
+    }
+  }
+
+  /**
+   * Finds the byte range of every document element in one pass, skipping comments, CDATA
+   * sections, processing instructions and the DOCTYPE declaration. Character data cannot contain
+   * a literal {@code <} elsewhere in well-formed XML, so every other {@code <document} is a tag.
+   */
+  private static final class DocumentScanner {
+
+    private final InputStream in;
+    private long position;
+    private int pushback = -1;
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private int count;
+    private long open = -1;
+    private String encoding;
+
+    DocumentScanner(InputStream in) {
+      this.in = in;
+    }
+
+    void scan()
+        throws IOException {
+      int b;
+      while ((b = read()) >= 0) {
+        if (b != '<') {
+          continue;
+        }
+        long tag = position - 1;
+        b = read();
+        if (b == '?') {
+          StringBuilder declaration = tag == 0 ? new StringBuilder() : null;
+          skipUntil("?>", declaration);
+          if (declaration != null && declaration.indexOf("xml") == 0) {
+            Matcher m = ENCODING.matcher(declaration);
+            if (m.find()) {
+              encoding = m.group(1);
+            }
+          }
+        } else if (b == '!') {
+          skipDeclaration();
+        } else if (b == '/') {
+          if (matchName() && skipSpaces() == '>') {
+            if (open < 0) {
+              throw new IOException("Unexpected </document> at " + tag);
+            }
+            add(open, position);
+            open = -1;
+          }
+        } else if (b >= 0) {
+          unread(b);
+          if (matchName()) {
+            b = read();
+            if (b == '>' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+              if (open >= 0) {
+                throw new IOException("Nested <document> at " + tag);
+              }
+              open = tag;
+              if (b != '>' && skipUntil(">") == '/') {
+                add(open, position);
+                open = -1;
+              }
+            } else if (b == '/' && read() == '>') {
+              add(tag, position);
+            }
+          }
+        }
+      }
+      if (open >= 0) {
+        throw new IOException("Unclosed <document> at " + open);
+      }
+    }
+
+    private void add(long start, long end) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count << 1);
+        ends = Arrays.copyOf(ends, count << 1);
+      }
+      starts[count] = start;
+      ends[count] = end;
+      count++;
+    }
+
+    /**
+     * Matches the element name "document" followed by a character that cannot continue a name.
+     * The following character is left unread.
+     */
+    private boolean matchName()
+        throws IOException {
+      for (byte expected : DOCUMENT) {
+        int b = read();
+        if (b != expected) {
+          unread(b);
+          return false;
+        }
+      }
+      int b = read();
+      unread(b);
+      return !(Character.isLetterOrDigit(b) || b == '-' || b == '_' || b == '.' || b == ':');
+    }
+
+    private int read()
+        throws IOException {
+      int b;
+      if (pushback >= 0) {
+        b = pushback;
+        pushback = -1;
+      } else {
+        b = in.read();
+      }
+      if (b >= 0) {
+        position++;
+      }
+      return b;
+    }
+
+    /**
+     * Skips a comment, a CDATA section or a markup declaration such as DOCTYPE, which may have an
+     * internal subset in brackets.
+     */
+    private void skipDeclaration()
+        throws IOException {
+      int b = read();
+      if (b == '-') {
+        skipUntil("-->");
+      } else if (b == '[') {
+        skipUntil("]]>");
+      } else {
+        int depth = 0;
+        while (b >= 0 && !(b == '>' && depth == 0)) {
+          if (b == '[') {
+            depth++;
+          } else if (b == ']') {
+            depth--;
+          }
+          b = read();
+        }
+      }
+    }
+
+    private int skipSpaces()
+        throws IOException {
+      int b = read();
+      while (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+        b = read();
+      }
+      return b;
+    }
+
+    private int skipUntil(String terminator)
+        throws IOException {
+      return skipUntil(terminator, null);
+    }
+
+    /**
+     * Skips past the terminator.
+     *
+     * @param terminator the ASCII terminator
+     * @param skipped    if not null, receives the skipped bytes, including the terminator
+     * @return the last byte before the terminator, or -1 if there is none
+     */
+    private int skipUntil(String terminator, StringBuilder skipped)
+        throws IOException {
+      int n = terminator.length();
+      int[] window = new int[n + 1];
+      Arrays.fill(window, -1);
+      int b;
+      while ((b = read()) >= 0) {
+        System.arraycopy(window, 1, window, 0, n);
+        window[n] = b;
+        if (skipped != null) {
+          skipped.append((char) b);
+        }
+        boolean matched = true;
+        for (int i = 0; i < n && matched; i++) {
+          matched = window[i + 1] == terminator.charAt(i);
+        }
+        if (matched) {
+          return window[0];
+        }
+      }
+      return -1;
+    }
+
+    private void unread(int b) {
+      if (b >= 0) {
+        pushback = b;
+        position--;
+      }
+    }
+  }
+}
@@ -34,11 +34,22 @@ class BioCReader implements Closeable {
     COLLECTION_LEVEL, DOCUMENT_LEVEL, PASSAGE_LEVEL, SENTENCE_LEVEL
   }
 
+  private static final QName ID = new QName("id");
+  private static final QName KEY = new QName("key");
+  private static final QName LENGTH = new QName("length");
+  private static final QName OFFSET = new QName("offset");
+  private static final QName REFID = new QName("refid");
+  private static final QName ROLE = new QName("role");
+
   BioCCollection collection;
   BioCDocument document;
   BioCPassage passage;
   BioCSentence sentence;
   XMLEventReader2 reader;
+  /**
+   * Pool of recycled objects, or null if recycling is disabled.
+   */
+  BioCObjectPool pool;
   private int state;
 
   Level level;
@@ -67,8 +78,8 @@ class BioCReader implements Closeable {
     }
   }
 
-  private String getAttribute(StartElement startElement, String key) {
-    return startElement.getAttributeByName(new QName(key)).getValue();
+  private String getAttribute(StartElement startElement, QName key) {
+    return startElement.getAttributeByName(key).getValue();
   }
 
   private String getText()
@@ -118,11 +129,11 @@ class BioCReader implements Closeable {
             collection.setKey(getText());
           } else if (localName.equals("infon")) {
             collection.putInfon(
-                getAttribute(startElement, "key"),
+                getAttribute(startElement, KEY),
                 getText());
           } else if (localName.equals("document")) {
             // read document
-            document = new BioCDocument();
+            document = pool != null ? pool.document() : new BioCDocument();
             state = 2;
           } else {
             // blank
@@ -149,11 +160,11 @@ class BioCReader implements Closeable {
             document.setID(getText());
           } else if (localName.equals("infon")) {
             document.putInfon(
-                getAttribute(startElement, "key"),
+                getAttribute(startElement, KEY),
                 getText());
           } else if (localName.equals("passage")) {
             // read passage
-            passage = new BioCPassage();
+            passage = pool != null ? pool.passage() : new BioCPassage();
             state = 3;
           } else if (localName.equals("annotation")) {
             // read annotation
@@ -189,7 +200,7 @@ class BioCReader implements Closeable {
             passage.setText(getText());
           } else if (localName.equals("infon")) {
             passage.putInfon(
-                getAttribute(startElement, "key"),
+                getAttribute(startElement, KEY),
                 getText());
           } else if (localName.equals("annotation")) {
             passage.addAnnotation(readAnnotation(startElement));
@@ -197,7 +208,7 @@ class BioCReader implements Closeable {
             passage.addRelation(readRelation(startElement));
           } else if (localName.equals("sentence")) {
             // read sentence
-            sentence = new BioCSentence();
+            sentence = pool != null ? pool.sentence() : new BioCSentence();
             state = 4;
           } else {
             // blank
@@ -208,6 +219,9 @@ class BioCReader implements Closeable {
           localName = endElement.getName().getLocalPart();
           if (localName.equals("passage")) {
             state = 2;
+            if (passage != null) {
+              passage.shareText();
+            }
             if (level == Level.PASSAGE_LEVEL) {
               return passage;
             } else if (passage != null) {
@@ -227,7 +241,7 @@ class BioCReader implements Closeable {
             sentence.setText(getText());
           } else if (localName.equals("infon")) {
             sentence.putInfon(
-                getAttribute(startElement, "key"),
+                getAttribute(startElement, KEY),
                 getText());
           } else if (localName.equals("annotation")) {
             sentence.addAnnotation(readAnnotation(startElement));
@@ -257,8 +271,8 @@ class BioCReader implements Closeable {
 
   private BioCAnnotation readAnnotation(StartElement annotationEvent)
       throws XMLStreamException {
-    BioCAnnotation ann = new BioCAnnotation();
-    ann.setID(getAttribute(annotationEvent, "id"));
+    BioCAnnotation ann = pool != null ? pool.annotation() : new BioCAnnotation();
+    ann.setID(getAttribute(annotationEvent, ID));
 
     String localName = null;
 
@@ -271,12 +285,14 @@ class BioCReader implements Closeable {
           ann.setText(getText());
         } else if (localName.equals("infon")) {
           ann.putInfon(
-              startElement.getAttributeByName(new QName("key")).getValue(),
+              getAttribute(startElement, KEY),
               getText());
         } else if (localName.equals("location")) {
-          ann.addLocation(new BioCLocation(
-              Integer.parseInt(getAttribute(startElement, "offset")),
-              Integer.parseInt(getAttribute(startElement, "length"))));
+          int offset = Integer.parseInt(getAttribute(startElement, OFFSET));
+          int length = Integer.parseInt(getAttribute(startElement, LENGTH));
+          ann.addLocation(pool != null
+              ? pool.location(offset, length)
+              : new BioCLocation(offset, length));
         }
       }
       else if (event.isEndElement()) {
@@ -293,8 +309,8 @@ class BioCReader implements Closeable {
 
   private BioCRelation readRelation(StartElement relationEvent)
       throws XMLStreamException {
-    BioCRelation rel = new BioCRelation();
-    rel.setID(getAttribute(relationEvent, "id"));
+    BioCRelation rel = pool != null ? pool.relation() : new BioCRelation();
+    rel.setID(getAttribute(relationEvent, ID));
 
     String localName = null;
 
@@ -305,11 +321,12 @@ class BioCReader implements Closeable {
         localName = startElement.getName().getLocalPart();
         if (localName.equals("infon")) {
           rel.putInfon(
-              getAttribute(startElement, "key"),
+              getAttribute(startElement, KEY),
               getText());
         } else if (localName.equals("node")) {
-          BioCNode node = new BioCNode(getAttribute(startElement, "refid"),
-              getAttribute(startElement, "role"));
+          String refid = getAttribute(startElement, REFID);
+          String role = getAttribute(startElement, ROLE);
+          BioCNode node = pool != null ? pool.node(refid, role) : new BioCNode(refid, role);
           rel.addNode(node);
         }
       }
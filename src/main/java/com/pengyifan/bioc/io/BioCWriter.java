@@ -1,5 +1,6 @@
 package com.pengyifan.bioc.io;
 
+import com.ctc.wstx.stax.WstxOutputFactory;
 import com.pengyifan.bioc.BioCAnnotation;
 import com.pengyifan.bioc.BioCCollection;
 import com.pengyifan.bioc.BioCDocument;
@@ -17,19 +18,34 @@ import javanet.staxutils.IndentingXMLEventWriter;
 import javax.xml.namespace.QName;
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Characters;
+import org.codehaus.stax2.XMLOutputFactory2;
 import org.codehaus.stax2.evt.XMLEventFactory2;
 
 class BioCWriter implements Closeable {
 
+  /**
+   * The number of chars of a text copied and written at a time.
+   */
+  private static final int CHUNK_SIZE = 4096;
+
   XMLEventWriter writer;
   XMLEventFactory2 eventFactory = (XMLEventFactory2) XMLEventFactory2.newInstance();
+  /**
+   * The stream writer under {@link #writer}, to which texts are written in chunks.
+   */
+  private final XMLStreamWriter streamWriter;
+  private final char[] chunk = new char[CHUNK_SIZE];
+  private final Characters noCharacters = eventFactory.createCharacters("");
 
   protected BioCWriter(Writer writer)
       throws FactoryConfigurationError, XMLStreamException {
-    XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
-    this.writer = new IndentingXMLEventWriter(xmlOutputFactory.createXMLEventWriter(writer));
+    // the stream writer is wrapped in an event writer, which needs the Stax2 API of Woodstox
+    XMLOutputFactory2 xmlOutputFactory = new WstxOutputFactory();
+    streamWriter = xmlOutputFactory.createXMLStreamWriter(writer);
+    this.writer = new IndentingXMLEventWriter(xmlOutputFactory.createXMLEventWriter(streamWriter));
   }
 
   @Override
@@ -59,8 +75,8 @@ class BioCWriter implements Closeable {
       write(loc);
     }
     // text
-    if (annotation.getText().isPresent()) {
-      write(annotation.getText().get());
+    if (annotation.getTextSequence().isPresent()) {
+      write(annotation.getTextSequence().get());
     }
     //
     writeEndElement("annotation");
@@ -77,16 +93,16 @@ class BioCWriter implements Closeable {
         // infon
         .write(document.getInfons());
     // passages
-    for (BioCPassage passage : document.getPassages()) {
-      write(passage);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      write(document.getPassage(i));
     }
     // annotation
-    for (BioCAnnotation annotation : document.getAnnotations()) {
-      write(annotation);
+    for (int i = 0; i < document.getAnnotationCount(); i++) {
+      write(document.getAnnotation(i));
     }
     // ie
-    for (BioCRelation rel : document.getRelations()) {
-      write(rel);
+    for (int i = 0; i < document.getRelationCount(); i++) {
+      write(document.getRelation(i));
     }
     writeEndElement("document");
     return this;
@@ -118,20 +134,20 @@ class BioCWriter implements Closeable {
         .writeCharacters(Integer.toString(passage.getOffset()))
         .writeEndElement("offset");
     // text
-    if (passage.getText().isPresent()) {
-      write(passage.getText().get());
+    if (passage.getTextSequence().isPresent()) {
+      write(passage.getTextSequence().get());
     }
     // sen
-    for (BioCSentence sen : passage.getSentences()) {
-      write(sen);
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      write(passage.getSentence(i));
     }
     // ann
-    for (BioCAnnotation ann : passage.getAnnotations()) {
-      write(ann);
+    for (int i = 0; i < passage.getAnnotationCount(); i++) {
+      write(passage.getAnnotation(i));
     }
     // rel
-    for (BioCRelation rel : passage.getRelations()) {
-      write(rel);
+    for (int i = 0; i < passage.getRelationCount(); i++) {
+      write(passage.getRelation(i));
     }
 
     writeEndElement("passage");
@@ -164,16 +180,16 @@ class BioCWriter implements Closeable {
         .writeEndElement("offset");
 
     // text
-    if (sentence.getText().isPresent()) {
-      write(sentence.getText().get());
+    if (sentence.getTextSequence().isPresent()) {
+      write(sentence.getTextSequence().get());
     }
     // ann
-    for (BioCAnnotation ann : sentence.getAnnotations()) {
-      write(ann);
+    for (int i = 0; i < sentence.getAnnotationCount(); i++) {
+      write(sentence.getAnnotation(i));
     }
     // rel
-    for (BioCRelation rel : sentence.getRelations()) {
-      write(rel);
+    for (int i = 0; i < sentence.getRelationCount(); i++) {
+      write(sentence.getRelation(i));
     }
     writeEndElement("sentence");
     return this;
@@ -190,11 +206,38 @@ class BioCWriter implements Closeable {
     return this;
   }
 
-  protected final BioCWriter write(String text)
+  /**
+   * Writes the text. A string is written as it is, and any other text, e.g., a text shared with
+   * the passage, through a reused chunk buffer, so that it is not copied into a string of its own.
+   */
+  protected final BioCWriter write(CharSequence text)
+      throws XMLStreamException {
+    writeStartElement("text");
+    if (text instanceof String) {
+      streamWriter.writeCharacters((String) text);
+    } else {
+      writeChunks(text);
+    }
+    // tell the indenting writer that the element has content, as a characters event would
+    writer.add(noCharacters);
+    return writeEndElement("text");
+  }
+
+  private void writeChunks(CharSequence text)
       throws XMLStreamException {
-    return writeStartElement("text")
-        .writeCharacters(text)
-        .writeEndElement("text");
+    int length = text.length();
+    for (int start = 0; start < length; ) {
+      int end = Math.min(length, start + CHUNK_SIZE);
+      if (end < length && Character.isHighSurrogate(text.charAt(end - 1))) {
+        // keep a surrogate pair in one chunk
+        end--;
+      }
+      for (int i = start; i < end; i++) {
+        chunk[i - start] = text.charAt(i);
+      }
+      streamWriter.writeCharacters(chunk, 0, end - start);
+      start = end;
+    }
   }
 
   private BioCWriter writeAttribute(String key, int value)
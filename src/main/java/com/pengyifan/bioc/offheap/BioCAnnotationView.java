@@ -0,0 +1,131 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.HasID;
+import com.pengyifan.bioc.HasInfons;
+import com.pengyifan.bioc.HasText;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Read-only view of an annotation in a {@link BioCOffHeapStore}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCAnnotationView implements HasID, HasInfons, HasText {
+
+  private final BioCOffHeapStore store;
+  private final ByteBuffer buffer;
+  private final int position;
+
+  BioCAnnotationView(BioCOffHeapStore store, ByteBuffer buffer, int position) {
+    this.store = store;
+    this.buffer = buffer;
+    this.position = position;
+  }
+
+  /**
+   * Returns the id used to identify the annotation.
+   *
+   * @return the id used to identify the annotation
+   */
+  @Override
+  public String getID() {
+    return store.string(buffer.getInt(position));
+  }
+
+  /**
+   * Returns the value of the infon with the key.
+   *
+   * @param key the infon key
+   * @return the value of the infon, or empty if there is none
+   */
+  @Override
+  public Optional<String> getInfon(String key) {
+    return Infons.get(store, buffer, position + 8, key);
+  }
+
+  /**
+   * Returns an unmodifiable copy of the infons.
+   *
+   * @return an unmodifiable copy of the infons
+   */
+  @Override
+  public Map<String, String> getInfons() {
+    return Infons.get(store, buffer, position + 8);
+  }
+
+  /**
+   * Returns the location at the specified position.
+   *
+   * @param index location position
+   * @return a new location with the offset and length at the specified position
+   */
+  public BioCLocation getLocation(int index) {
+    int locations = Infons.skip(buffer, position + 8);
+    checkElementIndex(index, buffer.getInt(locations));
+    int location = locations + 4 + (index << 3);
+    return new BioCLocation(buffer.getInt(location), buffer.getInt(location + 4));
+  }
+
+  /**
+   * Returns the number of locations.
+   *
+   * @return the number of locations
+   */
+  public int getLocationCount() {
+    return buffer.getInt(Infons.skip(buffer, position + 8));
+  }
+
+  /**
+   * Returns the annotated text.
+   *
+   * @return the annotated text, or empty if there is none
+   */
+  @Override
+  public Optional<String> getText() {
+    return Optional.ofNullable(store.string(buffer.getInt(position + 4)));
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the annotation view is read-only.
+   */
+  @Override
+  public void setID(String id) {
+    throw new UnsupportedOperationException("annotation view is read-only");
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the annotation view is read-only.
+   */
+  @Override
+  public void setText(String text) {
+    throw new UnsupportedOperationException("annotation view is read-only");
+  }
+
+  /**
+   * Returns a new annotation with the content of this view.
+   *
+   * @return a new annotation with the content of this view
+   */
+  public BioCAnnotation toBioC() {
+    BioCAnnotation copy = new BioCAnnotation(getID());
+    copy.setText(getText().orElse(null));
+    copy.putAllInfons(getInfons());
+    for (int i = 0; i < getLocationCount(); i++) {
+      copy.addLocation(getLocation(i));
+    }
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return "BioCAnnotationView[id=" + getID() + ",text=" + getText().orElse(null) + "]";
+  }
+}
@@ -0,0 +1,75 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.HasID;
+
+/**
+ * Read-only view of a document in a {@link BioCOffHeapStore}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCDocumentView extends BioCStructureView implements HasID {
+
+  BioCDocumentView(BioCOffHeapStore store, ByteBuffer buffer, int position) {
+    super(store, buffer, position, position + 4, 1);
+  }
+
+  /**
+   * Returns the id used to identify the document.
+   *
+   * @return the id used to identify the document
+   */
+  @Override
+  public String getID() {
+    return store.string(buffer.getInt(document));
+  }
+
+  /**
+   * Returns the passage at the specified position.
+   *
+   * @param index passage position
+   * @return the passage at the specified position
+   */
+  public BioCPassageView getPassage(int index) {
+    return new BioCPassageView(store, buffer, document, child(tables(), index));
+  }
+
+  /**
+   * Returns the number of passages.
+   *
+   * @return the number of passages
+   */
+  public int getPassageCount() {
+    return buffer.getInt(tables());
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the document view is read-only.
+   */
+  @Override
+  public void setID(String id) {
+    throw new UnsupportedOperationException("document view is read-only");
+  }
+
+  /**
+   * Returns a new document with the content of this view.
+   *
+   * @return a new document with the content of this view
+   */
+  public BioCDocument toBioC() {
+    BioCDocument copy = new BioCDocument(getID());
+    copyTo(copy);
+    for (int i = 0; i < getPassageCount(); i++) {
+      copy.addPassage(getPassage(i).toBioC());
+    }
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return "BioCDocumentView[id=" + getID() + ",passages=" + getPassageCount() + "]";
+  }
+}
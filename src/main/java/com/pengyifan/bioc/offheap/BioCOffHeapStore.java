@@ -0,0 +1,303 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+import com.pengyifan.bioc.io.BioCDocumentReader;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Append-only store that keeps documents outside the Java heap.
+ * <p>
+ * Every document is encoded as one record of ints in a direct byte buffer. Strings are numbered by
+ * a {@link StringDictionary}, so ids, infons and annotation text that repeat across the corpus are
+ * stored once. The heap only holds one address per document and one per distinct string, so a
+ * very large corpus can stay resident without a large heap or long garbage collection pauses.
+ * <p>
+ * Documents are read through views such as {@link BioCDocumentView}, which decode fields on
+ * demand and can be copied back into regular BioC objects. For example,
+ * <p>
+ * <pre>
+ * BioCOffHeapStore store = new BioCOffHeapStore();
+ * store.addAll(new BioCDocumentReader(&quot;foo.xml&quot;));
+ * for (int i = 0; i &lt; store.getDocumentCount(); i++) {
+ *   BioCDocumentView doc = store.getDocument(i);
+ *   ...
+ * }
+ * </pre>
+ * <p>
+ * Adding documents is not thread-safe. Once loading is finished and the store is published
+ * safely, any number of threads may read it.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCOffHeapStore {
+
+  private final OffHeapMemory memory;
+  private final StringDictionary strings;
+  private long[] documents;
+  private int size;
+  private ByteBuffer buffer;
+
+  /**
+   * Constructs an empty store.
+   */
+  public BioCOffHeapStore() {
+    this(OffHeapMemory.SEGMENT_SIZE);
+  }
+
+  /**
+   * Constructs an empty store that allocates direct memory in segments of the specified size.
+   * Documents larger than a segment are stored in a segment of their own.
+   *
+   * @param segmentSize the number of bytes allocated at a time
+   */
+  public BioCOffHeapStore(int segmentSize) {
+    checkArgument(segmentSize > 0, "segmentSize must be positive: %s", segmentSize);
+    memory = new OffHeapMemory(segmentSize);
+    strings = new StringDictionary(segmentSize);
+    documents = new long[16];
+    buffer = ByteBuffer.allocate(4096).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Reads all the remaining documents from the reader into this store. If the reader is recycling,
+   * every document is handed back to it once it is stored.
+   *
+   * @param reader the document reader
+   * @return the number of documents added
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public int addAll(BioCDocumentReader reader)
+      throws XMLStreamException {
+    int count = 0;
+    BioCDocument document;
+    while ((document = reader.readDocument()) != null) {
+      addDocument(document);
+      reader.recycle(document);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Copies the document into this store.
+   *
+   * @param document the document
+   * @return the position of the document in this store
+   */
+  public int addDocument(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    buffer.clear();
+    writeDocument(document);
+    buffer.flip();
+    if (size == documents.length) {
+      documents = Arrays.copyOf(documents, size << 1);
+    }
+    documents[size] = memory.append(buffer);
+    return size++;
+  }
+
+  /**
+   * Returns an iterator over the documents in this store in proper sequence.
+   *
+   * @return an iterator over the documents in this store in proper sequence
+   */
+  public Iterator<BioCDocumentView> documentIterator() {
+    return new Iterator<BioCDocumentView>() {
+
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public BioCDocumentView next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return getDocument(next++);
+      }
+    };
+  }
+
+  /**
+   * Returns a view of the document at the specified position in this store.
+   *
+   * @param index document position in this store
+   * @return a view of the document at the specified position
+   */
+  public BioCDocumentView getDocument(int index) {
+    checkElementIndex(index, size);
+    long address = documents[index];
+    return new BioCDocumentView(this, memory.segment(address), OffHeapMemory.position(address));
+  }
+
+  /**
+   * Returns the number of documents in this store.
+   *
+   * @return the number of documents in this store
+   */
+  public int getDocumentCount() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes allocated outside the heap, including unused space at the end of
+   * the last segments.
+   *
+   * @return the number of bytes allocated outside the heap
+   */
+  public long getOffHeapSize() {
+    return memory.allocated() + strings.allocated();
+  }
+
+  /**
+   * Returns the number of strings in the dictionary of this store.
+   *
+   * @return the number of strings in the dictionary
+   */
+  public int getStringCount() {
+    return strings.size();
+  }
+
+  int find(String s) {
+    return strings.find(s);
+  }
+
+  String string(int id) {
+    return strings.get(id);
+  }
+
+  private void ensure(int bytes) {
+    if (buffer.remaining() < bytes) {
+      int capacity = Math.max(buffer.capacity() << 1, buffer.position() + bytes);
+      ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.nativeOrder());
+      buffer.flip();
+      larger.put(buffer);
+      buffer = larger;
+    }
+  }
+
+  private void putInt(int value) {
+    ensure(4);
+    buffer.putInt(value);
+  }
+
+  private void putString(String s) {
+    putInt(strings.add(s));
+  }
+
+  /**
+   * Reserves a table of {@code count} child positions, preceded by the count.
+   *
+   * @return the position of the first slot
+   */
+  private int reserveTable(int count) {
+    putInt(count);
+    ensure(count << 2);
+    int table = buffer.position();
+    buffer.position(table + (count << 2));
+    return table;
+  }
+
+  private void writeAnnotation(BioCAnnotation annotation) {
+    putString(annotation.getID());
+    putString(annotation.getText().orElse(null));
+    writeInfons(annotation.getInfons());
+    putInt(annotation.getLocationCount());
+    Iterator<BioCLocation> itr = annotation.locationIterator();
+    while (itr.hasNext()) {
+      BioCLocation location = itr.next();
+      putInt(location.getOffset());
+      putInt(location.getLength());
+    }
+  }
+
+  private void writeDocument(BioCDocument document) {
+    putString(document.getID());
+    writeInfons(document.getInfons());
+    int passages = reserveTable(document.getPassageCount());
+    writeChildren(document);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      buffer.putInt(passages + (i << 2), buffer.position());
+      writePassage(document.getPassage(i));
+    }
+  }
+
+  /**
+   * Writes the annotation and relation tables of the structure, followed by the annotations and
+   * relations themselves.
+   */
+  private void writeChildren(BioCStructure structure) {
+    int annotations = reserveTable(structure.getAnnotationCount());
+    int relations = reserveTable(structure.getRelationCount());
+    for (int i = 0; i < structure.getAnnotationCount(); i++) {
+      buffer.putInt(annotations + (i << 2), buffer.position());
+      writeAnnotation(structure.getAnnotation(i));
+    }
+    for (int i = 0; i < structure.getRelationCount(); i++) {
+      buffer.putInt(relations + (i << 2), buffer.position());
+      writeRelation(structure.getRelation(i));
+    }
+  }
+
+  private void writeInfons(Map<String, String> infons) {
+    putInt(infons.size());
+    for (Map.Entry<String, String> e : infons.entrySet()) {
+      putString(e.getKey());
+      putString(e.getValue());
+    }
+  }
+
+  private void writePassage(BioCPassage passage) {
+    putInt(passage.getOffset());
+    putString(passage.getText().orElse(null));
+    writeInfons(passage.getInfons());
+    int sentences = reserveTable(passage.getSentenceCount());
+    writeChildren(passage);
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      buffer.putInt(sentences + (i << 2), buffer.position());
+      writeSentence(passage.getSentence(i));
+    }
+  }
+
+  private void writeRelation(BioCRelation relation) {
+    putString(relation.getID());
+    writeInfons(relation.getInfons());
+    putInt(relation.getNodeCount());
+    Iterator<BioCNode> itr = relation.nodeIterator();
+    while (itr.hasNext()) {
+      BioCNode node = itr.next();
+      putString(node.getRefid());
+      putString(node.getRole());
+    }
+  }
+
+  private void writeSentence(BioCSentence sentence) {
+    putInt(sentence.getOffset());
+    putString(sentence.getText().orElse(null));
+    writeInfons(sentence.getInfons());
+    writeChildren(sentence);
+  }
+}
@@ -0,0 +1,100 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.HasOffset;
+import com.pengyifan.bioc.HasText;
+
+/**
+ * Read-only view of a passage in a {@link BioCOffHeapStore}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCPassageView extends BioCStructureView implements HasOffset, HasText {
+
+  private final int position;
+
+  BioCPassageView(BioCOffHeapStore store, ByteBuffer buffer, int document, int position) {
+    super(store, buffer, document, position + 8, 1);
+    this.position = position;
+  }
+
+  /**
+   * Returns the offset of the passage in the document.
+   *
+   * @return the offset of the passage in the document
+   */
+  @Override
+  public int getOffset() {
+    return buffer.getInt(position);
+  }
+
+  /**
+   * Returns the sentence at the specified position.
+   *
+   * @param index sentence position
+   * @return the sentence at the specified position
+   */
+  public BioCSentenceView getSentence(int index) {
+    return new BioCSentenceView(store, buffer, document, child(tables(), index));
+  }
+
+  /**
+   * Returns the number of sentences.
+   *
+   * @return the number of sentences
+   */
+  public int getSentenceCount() {
+    return buffer.getInt(tables());
+  }
+
+  /**
+   * Returns the text of the passage.
+   *
+   * @return the text of the passage, or empty if there is none
+   */
+  @Override
+  public Optional<String> getText() {
+    return Optional.ofNullable(store.string(buffer.getInt(position + 4)));
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the passage view is read-only.
+   */
+  @Override
+  public void setOffset(int offset) {
+    throw new UnsupportedOperationException("passage view is read-only");
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the passage view is read-only.
+   */
+  @Override
+  public void setText(String text) {
+    throw new UnsupportedOperationException("passage view is read-only");
+  }
+
+  /**
+   * Returns a new passage with the content of this view.
+   *
+   * @return a new passage with the content of this view
+   */
+  public BioCPassage toBioC() {
+    BioCPassage copy = new BioCPassage();
+    copy.setOffset(getOffset());
+    copy.setText(getText().orElse(null));
+    copyTo(copy);
+    for (int i = 0; i < getSentenceCount(); i++) {
+      copy.addSentence(getSentence(i).toBioC());
+    }
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return "BioCPassageView[offset=" + getOffset() + ",sentences=" + getSentenceCount() + "]";
+  }
+}
@@ -0,0 +1,111 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.HasID;
+import com.pengyifan.bioc.HasInfons;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Read-only view of a relation in a {@link BioCOffHeapStore}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCRelationView implements HasID, HasInfons {
+
+  private final BioCOffHeapStore store;
+  private final ByteBuffer buffer;
+  private final int position;
+
+  BioCRelationView(BioCOffHeapStore store, ByteBuffer buffer, int position) {
+    this.store = store;
+    this.buffer = buffer;
+    this.position = position;
+  }
+
+  /**
+   * Returns the id used to identify the relation.
+   *
+   * @return the id used to identify the relation
+   */
+  @Override
+  public String getID() {
+    return store.string(buffer.getInt(position));
+  }
+
+  /**
+   * Returns the value of the infon with the key.
+   *
+   * @param key the infon key
+   * @return the value of the infon, or empty if there is none
+   */
+  @Override
+  public Optional<String> getInfon(String key) {
+    return Infons.get(store, buffer, position + 4, key);
+  }
+
+  /**
+   * Returns an unmodifiable copy of the infons.
+   *
+   * @return an unmodifiable copy of the infons
+   */
+  @Override
+  public Map<String, String> getInfons() {
+    return Infons.get(store, buffer, position + 4);
+  }
+
+  /**
+   * Returns the node at the specified position.
+   *
+   * @param index node position
+   * @return a new node with the refid and role at the specified position
+   */
+  public BioCNode getNode(int index) {
+    int nodes = Infons.skip(buffer, position + 4);
+    checkElementIndex(index, buffer.getInt(nodes));
+    int node = nodes + 4 + (index << 3);
+    return new BioCNode(store.string(buffer.getInt(node)), store.string(buffer.getInt(node + 4)));
+  }
+
+  /**
+   * Returns the number of nodes.
+   *
+   * @return the number of nodes
+   */
+  public int getNodeCount() {
+    return buffer.getInt(Infons.skip(buffer, position + 4));
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the relation view is read-only.
+   */
+  @Override
+  public void setID(String id) {
+    throw new UnsupportedOperationException("relation view is read-only");
+  }
+
+  /**
+   * Returns a new relation with the content of this view.
+   *
+   * @return a new relation with the content of this view
+   */
+  public BioCRelation toBioC() {
+    BioCRelation copy = new BioCRelation(getID());
+    copy.putAllInfons(getInfons());
+    for (int i = 0; i < getNodeCount(); i++) {
+      copy.addNode(getNode(i));
+    }
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return "BioCRelationView[id=" + getID() + ",nodes=" + getNodeCount() + "]";
+  }
+}
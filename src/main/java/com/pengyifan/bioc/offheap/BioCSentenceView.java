@@ -0,0 +1,78 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.HasOffset;
+import com.pengyifan.bioc.HasText;
+
+/**
+ * Read-only view of a sentence in a {@link BioCOffHeapStore}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCSentenceView extends BioCStructureView implements HasOffset, HasText {
+
+  private final int position;
+
+  BioCSentenceView(BioCOffHeapStore store, ByteBuffer buffer, int document, int position) {
+    super(store, buffer, document, position + 8, 0);
+    this.position = position;
+  }
+
+  /**
+   * Returns the offset of the sentence in the document.
+   *
+   * @return the offset of the sentence in the document
+   */
+  @Override
+  public int getOffset() {
+    return buffer.getInt(position);
+  }
+
+  /**
+   * Returns the text of the sentence.
+   *
+   * @return the text of the sentence, or empty if there is none
+   */
+  @Override
+  public Optional<String> getText() {
+    return Optional.ofNullable(store.string(buffer.getInt(position + 4)));
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the sentence view is read-only.
+   */
+  @Override
+  public void setOffset(int offset) {
+    throw new UnsupportedOperationException("sentence view is read-only");
+  }
+
+  /**
+   * Throws {@link UnsupportedOperationException}, since the sentence view is read-only.
+   */
+  @Override
+  public void setText(String text) {
+    throw new UnsupportedOperationException("sentence view is read-only");
+  }
+
+  /**
+   * Returns a new sentence with the content of this view.
+   *
+   * @return a new sentence with the content of this view
+   */
+  public BioCSentence toBioC() {
+    BioCSentence copy = new BioCSentence();
+    copy.setOffset(getOffset());
+    copy.setText(getText().orElse(null));
+    copyTo(copy);
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return "BioCSentenceView[offset=" + getOffset() + "]";
+  }
+}
@@ -0,0 +1,208 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCStructure;
+import com.pengyifan.bioc.HasAnnotations;
+import com.pengyifan.bioc.HasInfons;
+import com.pengyifan.bioc.HasRelations;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Read-only view of a document, passage or sentence in a {@link BioCOffHeapStore}.
+ * <p>
+ * A view can be passed wherever the BioC read interfaces are expected. The methods that would
+ * modify it throw {@link UnsupportedOperationException}. The annotations and relations returned
+ * through those interfaces are decoded into new frozen objects on each access; the view methods
+ * that take an index read single fields without decoding the rest.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public abstract class BioCStructureView implements HasInfons, HasAnnotations, HasRelations {
+
+  final BioCOffHeapStore store;
+  final ByteBuffer buffer;
+  /**
+   * Position of the enclosing document record, to which child positions are relative.
+   */
+  final int document;
+  private final int infons;
+  private final int annotations;
+  private final int relations;
+
+  /**
+   * Constructs a view of a record whose infons start at the specified position and are followed
+   * by {@code tables} tables of children before the annotation table.
+   */
+  BioCStructureView(BioCOffHeapStore store, ByteBuffer buffer, int document, int infons,
+      int tables) {
+    this.store = store;
+    this.buffer = buffer;
+    this.document = document;
+    this.infons = infons;
+    int position = Infons.skip(buffer, infons);
+    for (int i = 0; i < tables; i++) {
+      position += 4 + (buffer.getInt(position) << 2);
+    }
+    annotations = position;
+    relations = annotations + 4 + (buffer.getInt(annotations) << 2);
+  }
+
+  /**
+   * Copies the infons, annotations and relations of this view into the structure.
+   */
+  void copyTo(BioCStructure structure) {
+    structure.putAllInfons(getInfons());
+    for (int i = 0; i < getAnnotationCount(); i++) {
+      structure.addAnnotation(getAnnotation(i).toBioC());
+    }
+    for (int i = 0; i < getRelationCount(); i++) {
+      structure.addRelation(getRelation(i).toBioC());
+    }
+  }
+
+  /**
+   * Returns the position of the first child table after the infons.
+   */
+  int tables() {
+    return Infons.skip(buffer, infons);
+  }
+
+  /**
+   * Returns the position of the child at the specified index of the table.
+   */
+  int child(int table, int index) {
+    checkElementIndex(index, buffer.getInt(table));
+    return document + buffer.getInt(table + 4 + (index << 2));
+  }
+
+  /**
+   * Returns the annotation at the specified position.
+   *
+   * @param index annotation position
+   * @return the annotation at the specified position
+   */
+  public BioCAnnotationView getAnnotation(int index) {
+    return new BioCAnnotationView(store, buffer, child(annotations, index));
+  }
+
+  @Override
+  public Optional<BioCAnnotation> getAnnotation(String annotationID) {
+    for (int i = 0; i < getAnnotationCount(); i++) {
+      BioCAnnotationView annotation = getAnnotation(i);
+      if (Objects.equals(annotationID, annotation.getID())) {
+        return Optional.of(annotation.toBioC().freeze());
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an unmodifiable list of the annotations, each decoded when it is accessed.
+   *
+   * @return an unmodifiable list of the annotations
+   */
+  @Override
+  public List<BioCAnnotation> getAnnotations() {
+    return new AbstractList<BioCAnnotation>() {
+      @Override
+      public BioCAnnotation get(int index) {
+        return getAnnotation(index).toBioC().freeze();
+      }
+
+      @Override
+      public int size() {
+        return getAnnotationCount();
+      }
+    };
+  }
+
+  /**
+   * Returns the number of annotations.
+   *
+   * @return the number of annotations
+   */
+  public int getAnnotationCount() {
+    return buffer.getInt(annotations);
+  }
+
+  /**
+   * Returns the value of the infon with the key.
+   *
+   * @param key the infon key
+   * @return the value of the infon, or empty if there is none
+   */
+  @Override
+  public Optional<String> getInfon(String key) {
+    return Infons.get(store, buffer, infons, key);
+  }
+
+  /**
+   * Returns an unmodifiable copy of the infons.
+   *
+   * @return an unmodifiable copy of the infons
+   */
+  @Override
+  public Map<String, String> getInfons() {
+    return Infons.get(store, buffer, infons);
+  }
+
+  /**
+   * Returns the relation at the specified position.
+   *
+   * @param index relation position
+   * @return the relation at the specified position
+   */
+  public BioCRelationView getRelation(int index) {
+    return new BioCRelationView(store, buffer, child(relations, index));
+  }
+
+  @Override
+  public Optional<BioCRelation> getRelation(String relationID) {
+    for (int i = 0; i < getRelationCount(); i++) {
+      BioCRelationView relation = getRelation(i);
+      if (Objects.equals(relationID, relation.getID())) {
+        return Optional.of(relation.toBioC().freeze());
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an unmodifiable list of the relations, each decoded when it is accessed.
+   *
+   * @return an unmodifiable list of the relations
+   */
+  @Override
+  public List<BioCRelation> getRelations() {
+    return new AbstractList<BioCRelation>() {
+      @Override
+      public BioCRelation get(int index) {
+        return getRelation(index).toBioC().freeze();
+      }
+
+      @Override
+      public int size() {
+        return getRelationCount();
+      }
+    };
+  }
+
+  /**
+   * Returns the number of relations.
+   *
+   * @return the number of relations
+   */
+  public int getRelationCount() {
+    return buffer.getInt(relations);
+  }
+}
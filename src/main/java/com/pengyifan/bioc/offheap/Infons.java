@@ -0,0 +1,70 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Decodes the infons of a record: a count followed by key and value string ids.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class Infons {
+
+  private Infons() {
+  }
+
+  /**
+   * Returns the value of the infon with the key, without decoding other infons when the key is
+   * short enough to be in the dictionary.
+   */
+  static Optional<String> get(BioCOffHeapStore store, ByteBuffer buffer, int position,
+      String key) {
+    int count = buffer.getInt(position);
+    if (key == null) {
+      return Optional.empty();
+    }
+    if (key.length() <= StringDictionary.MAX_SHARED_LENGTH) {
+      int id = store.find(key);
+      for (int i = 0; i < count && id != StringDictionary.ABSENT; i++) {
+        if (buffer.getInt(position + 4 + (i << 3)) == id) {
+          return Optional.ofNullable(store.string(buffer.getInt(position + 8 + (i << 3))));
+        }
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        if (key.equals(store.string(buffer.getInt(position + 4 + (i << 3))))) {
+          return Optional.ofNullable(store.string(buffer.getInt(position + 8 + (i << 3))));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an unmodifiable copy of the infons, in insertion order.
+   */
+  static Map<String, String> get(BioCOffHeapStore store, ByteBuffer buffer, int position) {
+    int count = buffer.getInt(position);
+    if (count == 0) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> infons = Maps.newLinkedHashMap();
+    for (int i = 0; i < count; i++) {
+      infons.put(store.string(buffer.getInt(position + 4 + (i << 3))),
+          store.string(buffer.getInt(position + 8 + (i << 3))));
+    }
+    return Collections.unmodifiableMap(infons);
+  }
+
+  /**
+   * Returns the position right after the infons.
+   */
+  static int skip(ByteBuffer buffer, int position) {
+    return position + 4 + (buffer.getInt(position) << 3);
+  }
+}
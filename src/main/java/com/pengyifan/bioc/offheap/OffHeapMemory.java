@@ -0,0 +1,82 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Append-only memory made of direct byte buffers.
+ * <p>
+ * A record never crosses a segment boundary, so it can be read with absolute gets on one buffer.
+ * An address holds the segment index in its upper and the position in its lower 32 bits.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class OffHeapMemory {
+
+  /**
+   * The default size of a segment.
+   */
+  static final int SEGMENT_SIZE = 1 << 26;
+
+  private final int segmentSize;
+  private final List<ByteBuffer> segments;
+  private ByteBuffer current;
+  private long allocated;
+
+  OffHeapMemory(int segmentSize) {
+    this.segmentSize = segmentSize;
+    segments = Lists.newArrayList();
+  }
+
+  /**
+   * Copies the remaining bytes of the source buffer into this memory.
+   *
+   * @param src the source buffer
+   * @return the address of the copied bytes
+   */
+  long append(ByteBuffer src) {
+    int length = src.remaining();
+    if (current == null || current.remaining() < length) {
+      current = ByteBuffer.allocateDirect(Math.max(segmentSize, length))
+          .order(ByteOrder.nativeOrder());
+      segments.add(current);
+      allocated += current.capacity();
+    }
+    long address = ((long) (segments.size() - 1) << 32) | current.position();
+    current.put(src);
+    return address;
+  }
+
+  /**
+   * Returns the number of bytes allocated outside the heap.
+   *
+   * @return the number of bytes allocated outside the heap
+   */
+  long allocated() {
+    return allocated;
+  }
+
+  /**
+   * Returns the segment that contains the address.
+   *
+   * @param address an address returned by {@link #append(ByteBuffer)}
+   * @return the segment that contains the address
+   */
+  ByteBuffer segment(long address) {
+    return segments.get((int) (address >>> 32));
+  }
+
+  /**
+   * Returns the position of the address in its segment.
+   *
+   * @param address an address returned by {@link #append(ByteBuffer)}
+   * @return the position of the address in its segment
+   */
+  static int position(long address) {
+    return (int) address;
+  }
+}
@@ -0,0 +1,295 @@
+package com.pengyifan.bioc.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Numbers strings and stores their UTF-8 bytes outside the heap.
+ * <p>
+ * Short strings, such as ids, infon keys and values, roles and annotation text, repeat across a
+ * corpus and are stored once. Longer strings, typically passage and sentence text, are stored
+ * without looking them up, so that the heap does not hold the corpus text.
+ * <p>
+ * The lookup table is an open-addressing hash table in direct memory. Each slot holds the hash
+ * of the UTF-8 bytes of a string and its id, and a probe compares the bytes stored for the id, so
+ * the dictionary keeps no string on the heap. The addresses of the strings are kept in direct
+ * blocks indexed by id.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class StringDictionary {
+
+  /**
+   * The id of null.
+   */
+  static final int NULL = -1;
+
+  /**
+   * The id returned by {@link #find(String)} if a string is not in this dictionary.
+   */
+  static final int ABSENT = -2;
+
+  /**
+   * The longest string that is deduplicated.
+   */
+  static final int MAX_SHARED_LENGTH = 64;
+
+  /**
+   * The number of addresses in a block, a power of two.
+   */
+  private static final int BLOCK_SIZE = 1 << 13;
+
+  /**
+   * The initial number of slots of the hash table, a power of two.
+   */
+  private static final int INITIAL_SLOTS = 1 << 10;
+
+  /**
+   * A buffer per thread into which strings are encoded before they are looked up, large enough
+   * for any string of {@link #MAX_SHARED_LENGTH} chars.
+   */
+  private static final ThreadLocal<byte[]> SCRATCH =
+      ThreadLocal.withInitial(() -> new byte[MAX_SHARED_LENGTH * 3]);
+
+  private final OffHeapMemory memory;
+  private final List<ByteBuffer> addresses;
+  /**
+   * Slots of 8 bytes: the hash of a string, then its id plus one, or 0 if the slot is empty.
+   */
+  private ByteBuffer table;
+  private int mask;
+  private int shared;
+  private int size;
+  private long allocated;
+  private ByteBuffer buffer;
+
+  StringDictionary(int segmentSize) {
+    memory = new OffHeapMemory(segmentSize);
+    addresses = Lists.newArrayList();
+    table = allocate(INITIAL_SLOTS << 3);
+    mask = INITIAL_SLOTS - 1;
+    buffer = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Returns the id of the string, adding it if needed.
+   *
+   * @param s the string, or null
+   * @return the id of the string
+   */
+  int add(String s) {
+    if (s == null) {
+      return NULL;
+    }
+    if (s.length() > MAX_SHARED_LENGTH) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      return append(bytes, bytes.length);
+    }
+    byte[] bytes = SCRATCH.get();
+    int length = encode(s, bytes);
+    int hash = hash(bytes, length);
+    int slot = probe(bytes, length, hash);
+    int id = table.getInt(slot + 4) - 1;
+    if (id != -1) {
+      return id;
+    }
+    id = append(bytes, length);
+    table.putInt(slot, hash);
+    table.putInt(slot + 4, id + 1);
+    // keep the load factor at most one half, so that probes stay short
+    if (++shared << 1 > mask + 1) {
+      rehash();
+    }
+    return id;
+  }
+
+  /**
+   * Returns the number of bytes allocated outside the heap.
+   *
+   * @return the number of bytes allocated outside the heap
+   */
+  long allocated() {
+    return memory.allocated() + allocated;
+  }
+
+  /**
+   * Returns the id of a string that is not longer than {@link #MAX_SHARED_LENGTH}.
+   *
+   * @param s the string
+   * @return the id of the string, or {@link #ABSENT} if it is not in this dictionary
+   */
+  int find(String s) {
+    if (s.length() > MAX_SHARED_LENGTH) {
+      return ABSENT;
+    }
+    byte[] bytes = SCRATCH.get();
+    int length = encode(s, bytes);
+    int id = table.getInt(probe(bytes, length, hash(bytes, length)) + 4) - 1;
+    return id == -1 ? ABSENT : id;
+  }
+
+  /**
+   * Returns the string with the id.
+   *
+   * @param id the id returned by {@link #add(String)}
+   * @return the string, or null if the id is {@link #NULL}
+   */
+  String get(int id) {
+    if (id == NULL) {
+      return null;
+    }
+    long address = address(id);
+    ByteBuffer segment = memory.segment(address);
+    int position = OffHeapMemory.position(address);
+    byte[] bytes = new byte[segment.getInt(position)];
+    // a duplicate keeps concurrent readers from sharing the position
+    ByteBuffer duplicate = segment.duplicate();
+    duplicate.position(position + 4);
+    duplicate.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the number of strings.
+   *
+   * @return the number of strings
+   */
+  int size() {
+    return size;
+  }
+
+  private long address(int id) {
+    return addresses.get(id / BLOCK_SIZE).getLong((id % BLOCK_SIZE) << 3);
+  }
+
+  private ByteBuffer allocate(int bytes) {
+    allocated += bytes;
+    return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Stores the bytes, preceded by their length, and returns their new id.
+   */
+  private int append(byte[] bytes, int length) {
+    if (buffer.capacity() < length + 4) {
+      buffer = ByteBuffer.allocate(length + 4).order(ByteOrder.nativeOrder());
+    }
+    buffer.clear();
+    buffer.putInt(length).put(bytes, 0, length).flip();
+    if (size % BLOCK_SIZE == 0) {
+      addresses.add(allocate(BLOCK_SIZE << 3));
+    }
+    addresses.get(size / BLOCK_SIZE).putLong((size % BLOCK_SIZE) << 3, memory.append(buffer));
+    return size++;
+  }
+
+  /**
+   * Returns true if the string with the id has the bytes.
+   */
+  private boolean equals(int id, byte[] bytes, int length) {
+    long address = address(id);
+    ByteBuffer segment = memory.segment(address);
+    int position = OffHeapMemory.position(address);
+    if (segment.getInt(position) != length) {
+      return false;
+    }
+    position += 4;
+    for (int i = 0; i < length; i++) {
+      if (segment.get(position + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the position of the slot that holds the bytes, or of the empty slot where they would
+   * be added.
+   */
+  private int probe(byte[] bytes, int length, int hash) {
+    for (int i = hash & mask; ; i = (i + 1) & mask) {
+      int slot = i << 3;
+      int id = table.getInt(slot + 4) - 1;
+      if (id == -1 || table.getInt(slot) == hash && equals(id, bytes, length)) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Doubles the hash table, reusing the stored hashes.
+   */
+  private void rehash() {
+    ByteBuffer old = table;
+    int slots = (mask + 1) << 1;
+    table = allocate(slots << 3);
+    mask = slots - 1;
+    allocated -= old.capacity();
+    for (int slot = 0; slot < old.capacity(); slot += 8) {
+      int id = old.getInt(slot + 4);
+      if (id != 0) {
+        int hash = old.getInt(slot);
+        int i = hash & mask;
+        while (table.getInt((i << 3) + 4) != 0) {
+          i = (i + 1) & mask;
+        }
+        table.putInt(i << 3, hash);
+        table.putInt((i << 3) + 4, id);
+      }
+    }
+  }
+
+  /**
+   * Encodes the string in UTF-8 like {@link String#getBytes(java.nio.charset.Charset)}, which
+   * replaces unpaired surrogates with '?'.
+   *
+   * @return the number of bytes
+   */
+  private static int encode(String s, byte[] bytes) {
+    int length = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        bytes[length++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[length++] = (byte) (0xC0 | c >> 6);
+        bytes[length++] = (byte) (0x80 | c & 0x3F);
+      } else if (!Character.isSurrogate(c)) {
+        bytes[length++] = (byte) (0xE0 | c >> 12);
+        bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[length++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        bytes[length++] = (byte) (0xF0 | cp >> 18);
+        bytes[length++] = (byte) (0x80 | cp >> 12 & 0x3F);
+        bytes[length++] = (byte) (0x80 | cp >> 6 & 0x3F);
+        bytes[length++] = (byte) (0x80 | cp & 0x3F);
+      } else {
+        bytes[length++] = '?';
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Returns the hash of the bytes, with the bits mixed so that the low bits index the table well.
+   */
+  private static int hash(byte[] bytes, int length) {
+    int h = 0;
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + bytes[i];
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * Stores BioC documents outside the Java heap and reads them through lightweight views.
+ */
+package com.pengyifan.bioc.offheap;
@@ -87,23 +87,19 @@ public class BioCAnnotationIterator implements BioCIterator<BioCAnnotation> {
 
   @Override
   public boolean hasNext() {
-    if (annotationItr.hasNext()) {
-      return true;
-    } else if (documentItr.hasNext()) {
-      BioCDocument doc = documentItr.next();
-      annotationItr = doc.getAnnotations().iterator();
-      return hasNext();
-    } else if (passageItr.hasNext()) {
-      BioCPassage passage = passageItr.next();
-      annotationItr = passage.getAnnotations().iterator();
-      return hasNext();
-    } else if (sentenceItr.hasNext()) {
-      BioCSentence sentence = sentenceItr.next();
-      annotationItr = sentence.getAnnotations().iterator();
-      return hasNext();
-    } else {
-      return false;
+    // loop rather than recurse, so long runs of structures without annotations cannot overflow
+    while (!annotationItr.hasNext()) {
+      if (documentItr.hasNext()) {
+        annotationItr = documentItr.next().annotationIterator();
+      } else if (passageItr.hasNext()) {
+        annotationItr = passageItr.next().annotationIterator();
+      } else if (sentenceItr.hasNext()) {
+        annotationItr = sentenceItr.next().annotationIterator();
+      } else {
+        return false;
+      }
     }
+    return true;
   }
 
   @Override
@@ -0,0 +1,253 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Cursor over the annotations, or the relations, of a collection or a document, that also tells
+ * the document, passage and sentence of every element.
+ * <p>
+ * The cursor walks the tree in document order: the elements of a document come first, then for
+ * every passage the elements of the passage followed by the elements of its sentences. It keeps
+ * positions instead of nested iterators, so advancing is a loop that allocates nothing. For
+ * example,
+ * <p>
+ * <pre>
+ * BioCCursor cursor = BioCCursor.annotations(collection);
+ * while (cursor.next()) {
+ *   BioCAnnotation annotation = cursor.getAnnotation();
+ *   BioCSentence sentence = cursor.getSentence();
+ *   ...
+ * }
+ * </pre>
+ * <p>
+ * Adding or removing elements of the structure that the cursor is in has undefined results. This
+ * class is not thread-safe.
+ *
+ * @author Yifan Peng
+ * @see BioCAnnotationIterator
+ * @see BioCRelationIterator
+ * @since 1.0.4
+ */
+public final class BioCCursor {
+
+  private final BioCCollection collection;
+  private final BioCDocument singleDocument;
+  private final boolean relations;
+
+  private int documentIndex;
+  private int passageIndex;
+  private int sentenceIndex;
+  private int index;
+  private BioCDocument document;
+  private BioCPassage passage;
+  private BioCSentence sentence;
+  private BioCStructure structure;
+
+  private BioCCursor(BioCCollection collection, BioCDocument document, boolean relations) {
+    this.collection = collection;
+    this.singleDocument = document;
+    this.relations = relations;
+    reset();
+  }
+
+  /**
+   * Returns a cursor over the annotations of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a cursor over the annotations, positioned before the first one
+   */
+  public static BioCCursor annotations(BioCCollection collection) {
+    return new BioCCursor(checkNotNull(collection, "collection cannot be null"), null, false);
+  }
+
+  /**
+   * Returns a cursor over the annotations of the document.
+   *
+   * @param document the BioC document
+   * @return a cursor over the annotations, positioned before the first one
+   */
+  public static BioCCursor annotations(BioCDocument document) {
+    return new BioCCursor(null, checkNotNull(document, "document cannot be null"), false);
+  }
+
+  /**
+   * Returns a cursor over the relations of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a cursor over the relations, positioned before the first one
+   */
+  public static BioCCursor relations(BioCCollection collection) {
+    return new BioCCursor(checkNotNull(collection, "collection cannot be null"), null, true);
+  }
+
+  /**
+   * Returns a cursor over the relations of the document.
+   *
+   * @param document the BioC document
+   * @return a cursor over the relations, positioned before the first one
+   */
+  public static BioCCursor relations(BioCDocument document) {
+    return new BioCCursor(null, checkNotNull(document, "document cannot be null"), true);
+  }
+
+  /**
+   * Returns the current annotation.
+   *
+   * @return the current annotation
+   * @throws IllegalStateException if the cursor is not on an annotation
+   */
+  public BioCAnnotation getAnnotation() {
+    checkState(!relations && structure != null, "cursor is not on an annotation");
+    return structure.getAnnotation(index);
+  }
+
+  /**
+   * Returns the document of the current element.
+   *
+   * @return the document of the current element
+   * @throws IllegalStateException if the cursor is not on an element
+   */
+  public BioCDocument getDocument() {
+    checkState(structure != null, "cursor is not on an element");
+    return document;
+  }
+
+  /**
+   * Returns the position of the current element in its structure.
+   *
+   * @return the position of the current element in its structure
+   * @throws IllegalStateException if the cursor is not on an element
+   */
+  public int getIndex() {
+    checkState(structure != null, "cursor is not on an element");
+    return index;
+  }
+
+  /**
+   * Returns the passage of the current element.
+   *
+   * @return the passage of the current element, or null if the element is in the document itself
+   * @throws IllegalStateException if the cursor is not on an element
+   */
+  public BioCPassage getPassage() {
+    checkState(structure != null, "cursor is not on an element");
+    return passage;
+  }
+
+  /**
+   * Returns the current relation.
+   *
+   * @return the current relation
+   * @throws IllegalStateException if the cursor is not on a relation
+   */
+  public BioCRelation getRelation() {
+    checkState(relations && structure != null, "cursor is not on a relation");
+    return structure.getRelation(index);
+  }
+
+  /**
+   * Returns the sentence of the current element.
+   *
+   * @return the sentence of the current element, or null if the element is not in a sentence
+   * @throws IllegalStateException if the cursor is not on an element
+   */
+  public BioCSentence getSentence() {
+    checkState(structure != null, "cursor is not on an element");
+    return sentence;
+  }
+
+  /**
+   * Returns the document, passage or sentence that contains the current element.
+   *
+   * @return the structure that contains the current element
+   * @throws IllegalStateException if the cursor is not on an element
+   */
+  public BioCStructure getStructure() {
+    checkState(structure != null, "cursor is not on an element");
+    return structure;
+  }
+
+  /**
+   * Moves the cursor to the next element.
+   *
+   * @return true if the cursor is on an element, false if there are no more elements
+   */
+  public boolean next() {
+    index++;
+    while (structure == null || index >= size(structure)) {
+      if (!nextStructure()) {
+        return false;
+      }
+      index = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Moves the cursor back before the first element.
+   */
+  public void reset() {
+    documentIndex = -1;
+    index = -1;
+    document = null;
+    passage = null;
+    sentence = null;
+    structure = null;
+  }
+
+  private int documentCount() {
+    return singleDocument != null ? 1 : collection.getDocmentCount();
+  }
+
+  /**
+   * Moves to the next document, passage or sentence in document order.
+   *
+   * @return false if there are no more structures
+   */
+  private boolean nextStructure() {
+    if (document != null) {
+      if (passage == null) {
+        passageIndex = 0;
+      } else if (sentenceIndex + 1 < passage.getSentenceCount()) {
+        sentenceIndex++;
+        sentence = passage.getSentence(sentenceIndex);
+        structure = sentence;
+        return true;
+      } else {
+        passageIndex++;
+      }
+      if (passageIndex < document.getPassageCount()) {
+        passage = document.getPassage(passageIndex);
+        sentenceIndex = -1;
+        sentence = null;
+        structure = passage;
+        return true;
+      }
+    }
+    passage = null;
+    sentence = null;
+    if (documentIndex + 1 >= documentCount()) {
+      documentIndex = documentCount();
+      document = null;
+      structure = null;
+      return false;
+    }
+    documentIndex++;
+    document = singleDocument != null ? singleDocument : collection.getDocument(documentIndex);
+    structure = document;
+    return true;
+  }
+
+  private int size(BioCStructure structure) {
+    return relations ? structure.getRelationCount() : structure.getAnnotationCount();
+  }
+}
@@ -0,0 +1,450 @@
+package com.pengyifan.bioc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCStructureWithText;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Annotates the passage and sentence texts of documents with the terms of a dictionary.
+ * <p>
+ * Every term of the dictionary has the infons of its entry, typically a type and an identifier.
+ * The terms are compiled into an Aho-Corasick automaton that finds all of them in one pass over a
+ * text. A term is matched only as whole words, that is, not preceded or followed by a letter or a
+ * digit. Of overlapping matches, the leftmost and then the longest one is kept. For example,
+ * <p>
+ * <pre>
+ * Map&lt;String, Map&lt;String, String&gt;&gt; dictionary = ImmutableMap.of(
+ *     "aspirin", ImmutableMap.of("type", "Chemical", "identifier", "MESH:D001241"));
+ * BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(dictionary, true);
+ * annotator.annotate(collection);
+ * </pre>
+ * <p>
+ * The text of a passage is annotated, or the texts of its sentences if the passage has no text.
+ * Every match becomes an annotation of the passage or the sentence with the infons of the entry,
+ * the matched text, its location, and an id "T" followed by a number that is unique in the
+ * document.
+ * <p>
+ * The automaton is stored in a few arrays: the states are numbered breadth first, so the children
+ * of a state are consecutive states sorted by label, found by binary search. It can be written to
+ * a file and read back without rebuilding. The annotator is immutable, and documents may be
+ * annotated concurrently.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCDictionaryAnnotator {
+
+  private static final int MAGIC = 0x42694443;
+  private static final int VERSION = 1;
+  private static final String ID_PREFIX = "T";
+
+  private final boolean ignoreCase;
+  /**
+   * Label of the transition into every state but the root.
+   */
+  private final char[] labels;
+  /**
+   * The children of state s are the states from childStarts[s] to childStarts[s + 1].
+   */
+  private final int[] childStarts;
+  private final int[] failures;
+  /**
+   * The nearest state on the failure chain, including the state itself, that ends a term; or -1.
+   */
+  private final int[] outputs;
+  /**
+   * The entry that ends at every state, or -1.
+   */
+  private final int[] entries;
+  private final int[] entryLengths;
+  private final int[] entryInfons;
+  private final List<Map<String, String>> infons;
+
+  private BioCDictionaryAnnotator(boolean ignoreCase, char[] labels, int[] childStarts,
+      int[] failures, int[] outputs, int[] entries, int[] entryLengths, int[] entryInfons,
+      List<Map<String, String>> infons) {
+    this.ignoreCase = ignoreCase;
+    this.labels = labels;
+    this.childStarts = childStarts;
+    this.failures = failures;
+    this.outputs = outputs;
+    this.entries = entries;
+    this.entryLengths = entryLengths;
+    this.entryInfons = entryInfons;
+    this.infons = infons;
+  }
+
+  /**
+   * Creates a case-sensitive annotator.
+   *
+   * @param dictionary the terms and the infons of their entries
+   */
+  public BioCDictionaryAnnotator(Map<String, ? extends Map<String, String>> dictionary) {
+    this(dictionary, false);
+  }
+
+  /**
+   * Creates an annotator. If two terms are the same when ignoring case, the first one in the
+   * iteration order of the dictionary is kept.
+   *
+   * @param dictionary the terms and the infons of their entries
+   * @param ignoreCase whether to match terms regardless of case
+   */
+  public BioCDictionaryAnnotator(Map<String, ? extends Map<String, String>> dictionary,
+      boolean ignoreCase) {
+    checkNotNull(dictionary, "dictionary cannot be null");
+    this.ignoreCase = ignoreCase;
+
+    // share equal infons between entries
+    Map<Map<String, String>, Integer> infonIndex = Maps.newHashMap();
+    infons = Lists.newArrayList();
+    List<String> terms = Lists.newArrayListWithCapacity(dictionary.size());
+    List<Integer> termInfons = Lists.newArrayListWithCapacity(dictionary.size());
+    for (Map.Entry<String, ? extends Map<String, String>> e : dictionary.entrySet()) {
+      checkNotNull(e.getKey(), "term cannot be null");
+      checkArgument(!e.getKey().isEmpty(), "term cannot be empty");
+      checkNotNull(e.getValue(), "infons of %s cannot be null", e.getKey());
+      terms.add(fold(e.getKey()));
+      termInfons.add(infonIndex.computeIfAbsent(e.getValue(), m -> {
+        infons.add(ImmutableMap.copyOf(m));
+        return infons.size() - 1;
+      }));
+    }
+    // a stable sort keeps the first of equal terms first
+    Integer[] order = new Integer[terms.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparing(terms::get));
+
+    // build the trie from sorted terms, so every new child comes after its siblings
+    int capacity = 1;
+    for (String term : terms) {
+      capacity += term.length();
+    }
+    char[] trieLabels = new char[capacity];
+    int[] firstChild = new int[capacity];
+    int[] lastChild = new int[capacity];
+    int[] nextSibling = new int[capacity];
+    int[] trieEntries = new int[capacity];
+    Arrays.fill(firstChild, -1);
+    Arrays.fill(lastChild, -1);
+    Arrays.fill(nextSibling, -1);
+    Arrays.fill(trieEntries, -1);
+    int nodes = 1;
+    int[] lengths = new int[terms.size()];
+    int[] termEntryInfons = new int[terms.size()];
+    int entryCount = 0;
+    for (int i : order) {
+      String term = terms.get(i);
+      int node = 0;
+      for (int j = 0; j < term.length(); j++) {
+        char c = term.charAt(j);
+        int child = lastChild[node];
+        if (child == -1 || trieLabels[child] != c) {
+          child = nodes++;
+          trieLabels[child] = c;
+          if (lastChild[node] == -1) {
+            firstChild[node] = child;
+          } else {
+            nextSibling[lastChild[node]] = child;
+          }
+          lastChild[node] = child;
+        }
+        node = child;
+      }
+      if (trieEntries[node] == -1) {
+        trieEntries[node] = entryCount;
+        lengths[entryCount] = term.length();
+        termEntryInfons[entryCount] = termInfons.get(i);
+        entryCount++;
+      }
+    }
+
+    entryLengths = Arrays.copyOf(lengths, entryCount);
+    entryInfons = Arrays.copyOf(termEntryInfons, entryCount);
+
+    // renumber the states breadth first
+    int[] queue = new int[nodes];
+    int[] parents = new int[nodes];
+    labels = new char[nodes];
+    childStarts = new int[nodes + 1];
+    entries = new int[nodes];
+    int tail = 1;
+    for (int head = 0; head < nodes; head++) {
+      int node = queue[head];
+      entries[head] = trieEntries[node];
+      childStarts[head] = tail;
+      for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+        labels[tail] = trieLabels[child];
+        parents[tail] = head;
+        queue[tail++] = child;
+      }
+    }
+    childStarts[nodes] = tail;
+
+    // failure and output links, in breadth-first order
+    failures = new int[nodes];
+    outputs = new int[nodes];
+    outputs[0] = -1;
+    for (int state = 1; state < nodes; state++) {
+      int parent = parents[state];
+      int failure = 0;
+      if (parent != 0) {
+        failure = failures[parent];
+        int next;
+        while ((next = child(failure, labels[state])) == -1 && failure != 0) {
+          failure = failures[failure];
+        }
+        failure = Math.max(next, 0);
+      }
+      failures[state] = failure;
+      outputs[state] = entries[state] != -1 ? state : outputs[failure];
+    }
+  }
+
+  /**
+   * Reads an annotator written by {@link #write(Path)}.
+   *
+   * @param path the file to read from
+   * @return the annotator
+   * @throws IOException if an I/O exception of some sort has occurred, or if the file is not an
+   *                     annotator
+   */
+  public static BioCDictionaryAnnotator read(Path path)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a dictionary annotator: " + path);
+      }
+      boolean ignoreCase = in.readBoolean();
+      char[] labels = IndexIO.readChars(in);
+      int[] childStarts = IndexIO.readInts(in);
+      int[] failures = IndexIO.readInts(in);
+      int[] outputs = IndexIO.readInts(in);
+      int[] entries = IndexIO.readInts(in);
+      int[] entryLengths = IndexIO.readInts(in);
+      int[] entryInfons = IndexIO.readInts(in);
+      int n = in.readInt();
+      List<Map<String, String>> infons = Lists.newArrayListWithCapacity(n);
+      for (int i = 0; i < n; i++) {
+        ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+        for (int j = in.readInt(); j > 0; j--) {
+          builder.put(IndexIO.readString(in), IndexIO.readString(in));
+        }
+        infons.add(builder.build());
+      }
+      return new BioCDictionaryAnnotator(ignoreCase, labels, childStarts, failures, outputs,
+          entries, entryLengths, entryInfons, infons);
+    }
+  }
+
+  /**
+   * Annotates the documents of the collection in parallel.
+   *
+   * @param collection the BioC collection
+   * @return the number of annotations added
+   */
+  public int annotate(BioCCollection collection) {
+    checkNotNull(collection, "collection cannot be null");
+    return IntStream.range(0, collection.getDocmentCount())
+        .parallel()
+        .map(i -> annotate(collection.getDocument(i)))
+        .sum();
+  }
+
+  /**
+   * Annotates the passages and sentences of the document.
+   *
+   * @param document the BioC document
+   * @return the number of annotations added
+   */
+  public int annotate(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    Set<String> ids = BioCStreams.annotations(document)
+        .map(BioCAnnotation::getID)
+        .collect(Collectors.toSet());
+    int[] next = new int[1];
+    int count = 0;
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      if (passage.getTextSequence().isPresent()) {
+        count += annotate(passage, ids, next);
+      } else {
+        for (int j = 0; j < passage.getSentenceCount(); j++) {
+          count += annotate(passage.getSentence(j), ids, next);
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of terms in the dictionary.
+   *
+   * @return the number of terms in the dictionary
+   */
+  public int size() {
+    return entryLengths.length;
+  }
+
+  /**
+   * Writes this annotator to a file.
+   *
+   * @param path the file to write to
+   * @throws IOException if an I/O exception of some sort has occurred
+   */
+  public void write(Path path)
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeBoolean(ignoreCase);
+      IndexIO.writeChars(out, labels);
+      IndexIO.writeInts(out, childStarts);
+      IndexIO.writeInts(out, failures);
+      IndexIO.writeInts(out, outputs);
+      IndexIO.writeInts(out, entries);
+      IndexIO.writeInts(out, entryLengths);
+      IndexIO.writeInts(out, entryInfons);
+      out.writeInt(infons.size());
+      for (Map<String, String> m : infons) {
+        out.writeInt(m.size());
+        for (Map.Entry<String, String> e : m.entrySet()) {
+          IndexIO.writeString(out, e.getKey());
+          IndexIO.writeString(out, e.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds an annotation for every match in the text of the structure.
+   *
+   * @param ids  the annotation ids used in the document
+   * @param next the next number to try for an annotation id
+   * @return the number of annotations added
+   */
+  private int annotate(BioCStructureWithText structure, Set<String> ids, int[] next) {
+    Optional<CharSequence> text = structure.getTextSequence();
+    if (!text.isPresent()) {
+      return 0;
+    }
+    List<int[]> matches = match(text.get());
+    for (int[] match : matches) {
+      String id;
+      do {
+        id = ID_PREFIX + next[0]++;
+      } while (!ids.add(id));
+      BioCAnnotation annotation = new BioCAnnotation(id);
+      annotation.setInfons(infons.get(entryInfons[match[2]]));
+      annotation.setText(text.get().subSequence(match[0], match[1]).toString());
+      annotation.addLocation(
+          new BioCLocation(structure.getOffset() + match[0], match[1] - match[0]));
+      structure.addAnnotation(annotation);
+    }
+    return matches.size();
+  }
+
+  /**
+   * Returns the state reached from the state by the character, or -1.
+   */
+  private int child(int state, char c) {
+    int lo = childStarts[state];
+    int hi = childStarts[state + 1] - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (labels[mid] < c) {
+        lo = mid + 1;
+      } else if (labels[mid] > c) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private String fold(String term) {
+    if (!ignoreCase) {
+      return term;
+    }
+    char[] chars = term.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  private static boolean isWordChar(CharSequence text, int i) {
+    return i >= 0 && i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+  }
+
+  /**
+   * Returns the whole-word matches in the text as {start, end, entry}, leftmost longest and not
+   * overlapping, sorted by start.
+   */
+  List<int[]> match(CharSequence text) {
+    List<int[]> matches = Lists.newArrayList();
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = ignoreCase ? Character.toLowerCase(text.charAt(i)) : text.charAt(i);
+      int next;
+      while ((next = child(state, c)) == -1 && state != 0) {
+        state = failures[state];
+      }
+      state = Math.max(next, 0);
+      if (isWordChar(text, i + 1)) {
+        continue;
+      }
+      for (int s = outputs[state]; s != -1; s = outputs[failures[s]]) {
+        int entry = entries[s];
+        int start = i + 1 - entryLengths[entry];
+        if (!isWordChar(text, start - 1)) {
+          matches.add(new int[] {start, i + 1, entry});
+        }
+      }
+    }
+    if (matches.isEmpty()) {
+      return Collections.emptyList();
+    }
+    matches.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> -m[1]));
+    List<int[]> selected = Lists.newArrayList();
+    int end = 0;
+    for (int[] match : matches) {
+      if (match[0] >= end) {
+        selected.add(match);
+        end = match[1];
+      }
+    }
+    return selected;
+  }
+}
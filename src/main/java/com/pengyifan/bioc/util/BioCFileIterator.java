@@ -0,0 +1,312 @@
+package com.pengyifan.bioc.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.io.BioCDocumentReader;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * An iterator over the documents, passages, sentences, annotations or relations of a BioC file,
+ * that reads the file one document at a time.
+ * <p>
+ * Unlike the other iterators in this package, it does not need a {@link BioCCollection} in memory:
+ * only the current document is held, so a file of any size can be iterated in bounded memory.
+ * Elements are returned in document order, and {@link #getDocument()}, {@link #getPassage()} and
+ * {@link #getSentence()} tell where the current element is. For example,
+ * <p>
+ * <pre>
+ * try (BioCFileIterator&lt;BioCSentence&gt; itr = BioCFileIterator.sentences(path)) {
+ *   while (itr.hasNext()) {
+ *     BioCSentence sentence = itr.next();
+ *     BioCPassage passage = itr.getPassage();
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * <p>
+ * The file is closed when the iteration is finished, or by {@link #close()}. Errors reading the
+ * file are thrown as {@link UncheckedIOException}s.
+ *
+ * @param <T> the type of elements returned by this iterator
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCFileIterator<T> implements BioCIterator<T>, Closeable {
+
+  private enum Kind {
+    DOCUMENT, PASSAGE, SENTENCE, ANNOTATION, RELATION
+  }
+
+  private final BioCDocumentReader reader;
+  private final BioCCollection collectionInfo;
+  private final Kind kind;
+
+  private boolean closed;
+  private boolean pending;
+  private BioCDocument document;
+  private int passageIndex;
+  private int sentenceIndex;
+  private BioCCursor cursor;
+  private Object next;
+  private BioCPassage nextPassage;
+  private BioCSentence nextSentence;
+
+  private T current;
+  private BioCDocument currentDocument;
+  private BioCPassage currentPassage;
+  private BioCSentence currentSentence;
+
+  private BioCFileIterator(Path path, Kind kind)
+      throws IOException, XMLStreamException {
+    this.reader = new BioCDocumentReader(path);
+    this.collectionInfo = reader.readCollectionInfo();
+    this.kind = kind;
+  }
+
+  /**
+   * Returns an iterator over the annotations of the file.
+   *
+   * @param path the BioC file
+   * @return an iterator over the annotations of the file
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCFileIterator<BioCAnnotation> annotations(Path path)
+      throws IOException, XMLStreamException {
+    return new BioCFileIterator<>(path, Kind.ANNOTATION);
+  }
+
+  /**
+   * Returns an iterator over the documents of the file.
+   *
+   * @param path the BioC file
+   * @return an iterator over the documents of the file
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCFileIterator<BioCDocument> documents(Path path)
+      throws IOException, XMLStreamException {
+    return new BioCFileIterator<>(path, Kind.DOCUMENT);
+  }
+
+  /**
+   * Returns an iterator over the passages of the file.
+   *
+   * @param path the BioC file
+   * @return an iterator over the passages of the file
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCFileIterator<BioCPassage> passages(Path path)
+      throws IOException, XMLStreamException {
+    return new BioCFileIterator<>(path, Kind.PASSAGE);
+  }
+
+  /**
+   * Returns an iterator over the relations of the file.
+   *
+   * @param path the BioC file
+   * @return an iterator over the relations of the file
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCFileIterator<BioCRelation> relations(Path path)
+      throws IOException, XMLStreamException {
+    return new BioCFileIterator<>(path, Kind.RELATION);
+  }
+
+  /**
+   * Returns an iterator over the sentences of the file.
+   *
+   * @param path the BioC file
+   * @return an iterator over the sentences of the file
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCFileIterator<BioCSentence> sentences(Path path)
+      throws IOException, XMLStreamException {
+    return new BioCFileIterator<>(path, Kind.SENTENCE);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    if (!closed) {
+      closed = true;
+      document = null;
+      reader.close();
+    }
+  }
+
+  @Override
+  public T current() {
+    checkState(current != null, "next() has not been called");
+    return current;
+  }
+
+  /**
+   * Returns the collection information of the file, without documents.
+   *
+   * @return the collection information of the file
+   */
+  public BioCCollection getCollectionInfo() {
+    return collectionInfo;
+  }
+
+  /**
+   * Returns the document of the current element, or the current document.
+   *
+   * @return the document of the current element
+   */
+  public BioCDocument getDocument() {
+    checkState(current != null, "next() has not been called");
+    return currentDocument;
+  }
+
+  /**
+   * Returns the passage of the current element.
+   *
+   * @return the passage of the current element, or null if the element is not in a passage
+   */
+  public BioCPassage getPassage() {
+    checkState(current != null, "next() has not been called");
+    return currentPassage;
+  }
+
+  /**
+   * Returns the sentence of the current element.
+   *
+   * @return the sentence of the current element, or null if the element is not in a sentence
+   */
+  public BioCSentence getSentence() {
+    checkState(current != null, "next() has not been called");
+    return currentSentence;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (pending) {
+      return true;
+    }
+    if (closed) {
+      return false;
+    }
+    try {
+      while (document == null || !advance()) {
+        document = reader.readDocument();
+        if (document == null) {
+          close();
+          return false;
+        }
+        passageIndex = -1;
+        sentenceIndex = -1;
+        if (kind == Kind.ANNOTATION) {
+          cursor = BioCCursor.annotations(document);
+        } else if (kind == Kind.RELATION) {
+          cursor = BioCCursor.relations(document);
+        } else if (kind == Kind.DOCUMENT) {
+          next = document;
+          nextPassage = null;
+          nextSentence = null;
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (XMLStreamException e) {
+      throw new UncheckedIOException(new IOException(e.getMessage(), e));
+    }
+    pending = true;
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    pending = false;
+    current = (T) next;
+    currentDocument = document;
+    currentPassage = nextPassage;
+    currentSentence = nextSentence;
+    return current;
+  }
+
+  /**
+   * Returns a sequential stream over the remaining elements. Closing the stream closes this
+   * iterator.
+   *
+   * @return a stream over the remaining elements
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+        false)
+        .onClose(() -> {
+          try {
+            close();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  /**
+   * Moves to the next element in the current document.
+   *
+   * @return false if there are no more elements in the current document
+   */
+  private boolean advance() {
+    switch (kind) {
+    case DOCUMENT:
+      return false;
+    case PASSAGE:
+      if (passageIndex + 1 >= document.getPassageCount()) {
+        return false;
+      }
+      nextPassage = document.getPassage(++passageIndex);
+      nextSentence = null;
+      next = nextPassage;
+      return true;
+    case SENTENCE:
+      while (nextPassage == null || passageIndex < 0
+          || sentenceIndex + 1 >= nextPassage.getSentenceCount()) {
+        if (passageIndex + 1 >= document.getPassageCount()) {
+          return false;
+        }
+        nextPassage = document.getPassage(++passageIndex);
+        sentenceIndex = -1;
+      }
+      nextSentence = nextPassage.getSentence(++sentenceIndex);
+      next = nextSentence;
+      return true;
+    default:
+      if (!cursor.next()) {
+        return false;
+      }
+      next = kind == Kind.ANNOTATION ? cursor.getAnnotation() : cursor.getRelation();
+      nextPassage = cursor.getPassage();
+      nextSentence = cursor.getSentence();
+      return true;
+    }
+  }
+}
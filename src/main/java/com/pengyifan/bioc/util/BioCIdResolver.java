@@ -0,0 +1,265 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCObject;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCStructure;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Resolves the ids of the annotations and relations of a document, at the document, passage and
+ * sentence levels, in constant time.
+ * <p>
+ * Unlike {@link com.pengyifan.bioc.HasAnnotations#getAnnotation(String)}, which scans one level,
+ * the resolver finds an annotation wherever it is in the document, together with the structure
+ * that contains it. For example, to follow a document-level relation to annotations in sentences,
+ * <p>
+ * <pre>
+ * BioCIdResolver resolver = new BioCIdResolver(document);
+ * BioCAnnotation chemical = resolver.getAnnotation(relation, &quot;Chemical&quot;).get();
+ * BioCStructure sentence = resolver.getStructure(chemical.getID()).get();
+ * </pre>
+ * <p>
+ * After the document is edited, {@link #refresh()} brings the resolver up to date. It compares
+ * the annotations and relations of every structure with the ones last indexed, by identity, and
+ * re-indexes only the structures that changed. Ids are assumed to be unique within the document.
+ * This class is not thread-safe.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCIdResolver {
+
+  private final BioCDocument document;
+  private final Map<String, Entry> annotations;
+  private final Map<String, Entry> relations;
+  /**
+   * Annotations and relations of every indexed structure, as last indexed.
+   */
+  private final Map<BioCStructure, Snapshot> snapshots;
+
+  /**
+   * Creates a resolver over the annotations and relations of the document, its passages and their
+   * sentences.
+   *
+   * @param document the BioC document
+   */
+  public BioCIdResolver(BioCDocument document) {
+    this.document = checkNotNull(document, "document cannot be null");
+    annotations = Maps.newHashMap();
+    relations = Maps.newHashMap();
+    snapshots = Maps.newIdentityHashMap();
+    refresh();
+  }
+
+  /**
+   * Returns the annotation with the id.
+   *
+   * @param id the annotation id
+   * @return the annotation with the id, or empty if there is none
+   */
+  public Optional<BioCAnnotation> getAnnotation(String id) {
+    Entry entry = annotations.get(id);
+    return entry == null ? Optional.empty() : Optional.of((BioCAnnotation) entry.element);
+  }
+
+  /**
+   * Returns the annotation referred to by the node of the specified role of the relation.
+   *
+   * @param relation the relation
+   * @param role     the role of the node in the relation
+   * @return the annotation referred to by the node, or empty if there is none
+   * @throws NoSuchElementException if there is no role in the relation
+   */
+  public Optional<BioCAnnotation> getAnnotation(BioCRelation relation, String role) {
+    return getAnnotation(relation.getNode(role)
+        .orElseThrow(() -> new NoSuchElementException(
+            String.format("Cannot find %s in relation [%s]", role, relation)))
+        .getRefid());
+  }
+
+  /**
+   * Returns the document of this resolver.
+   *
+   * @return the document of this resolver
+   */
+  public BioCDocument getDocument() {
+    return document;
+  }
+
+  /**
+   * Returns the relation with the id.
+   *
+   * @param id the relation id
+   * @return the relation with the id, or empty if there is none
+   */
+  public Optional<BioCRelation> getRelation(String id) {
+    Entry entry = relations.get(id);
+    return entry == null ? Optional.empty() : Optional.of((BioCRelation) entry.element);
+  }
+
+  /**
+   * Returns the document, passage or sentence that contains the annotation or, if there is no
+   * such annotation, the relation with the id.
+   *
+   * @param id the annotation or relation id
+   * @return the structure that contains the annotation or relation, or empty if there is none
+   */
+  public Optional<BioCStructure> getStructure(String id) {
+    Entry entry = annotations.get(id);
+    if (entry == null) {
+      entry = relations.get(id);
+    }
+    return entry == null ? Optional.empty() : Optional.of(entry.structure);
+  }
+
+  /**
+   * Re-indexes the structures of the document whose annotations or relations were added, removed,
+   * replaced or renamed since they were last indexed.
+   *
+   * @return the number of structures re-indexed
+   */
+  public int refresh() {
+    Set<BioCStructure> current = Sets.newIdentityHashSet();
+    int count = refresh(document, current);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      count += refresh(passage, current);
+      for (int j = 0; j < passage.getSentenceCount(); j++) {
+        count += refresh(passage.getSentence(j), current);
+      }
+    }
+    Iterator<Map.Entry<BioCStructure, Snapshot>> itr = snapshots.entrySet().iterator();
+    while (itr.hasNext()) {
+      Map.Entry<BioCStructure, Snapshot> e = itr.next();
+      if (!current.contains(e.getKey())) {
+        unindex(e.getKey(), e.getValue());
+        itr.remove();
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private int refresh(BioCStructure structure, Set<BioCStructure> current) {
+    current.add(structure);
+    Snapshot snapshot = snapshots.get(structure);
+    if (snapshot != null) {
+      if (snapshot.matches(structure)) {
+        return 0;
+      }
+      unindex(structure, snapshot);
+    }
+    snapshot = new Snapshot(structure);
+    snapshots.put(structure, snapshot);
+    for (int i = 0; i < snapshot.annotations.length; i++) {
+      put(annotations, snapshot.annotationIds[i], structure, snapshot.annotations[i]);
+    }
+    for (int i = 0; i < snapshot.relations.length; i++) {
+      put(relations, snapshot.relationIds[i], structure, snapshot.relations[i]);
+    }
+    return 1;
+  }
+
+  private static void put(Map<String, Entry> map, String id, BioCStructure structure,
+      BioCObject element) {
+    if (id != null) {
+      map.put(id, new Entry(structure, element));
+    }
+  }
+
+  private static void remove(Map<String, Entry> map, String id, BioCStructure structure) {
+    Entry entry = map.get(id);
+    if (entry != null && entry.structure == structure) {
+      map.remove(id);
+    }
+  }
+
+  private void unindex(BioCStructure structure, Snapshot snapshot) {
+    for (String id : snapshot.annotationIds) {
+      remove(annotations, id, structure);
+    }
+    for (String id : snapshot.relationIds) {
+      remove(relations, id, structure);
+    }
+  }
+
+  private static final class Entry {
+
+    private final BioCStructure structure;
+    private final BioCObject element;
+
+    Entry(BioCStructure structure, BioCObject element) {
+      this.structure = structure;
+      this.element = element;
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final BioCAnnotation[] annotations;
+    private final String[] annotationIds;
+    private final BioCRelation[] relations;
+    private final String[] relationIds;
+
+    Snapshot(BioCStructure structure) {
+      annotations = new BioCAnnotation[structure.getAnnotationCount()];
+      annotationIds = new String[annotations.length];
+      for (int i = 0; i < annotations.length; i++) {
+        annotations[i] = structure.getAnnotation(i);
+        annotationIds[i] = id(annotations[i]);
+      }
+      relations = new BioCRelation[structure.getRelationCount()];
+      relationIds = new String[relations.length];
+      for (int i = 0; i < relations.length; i++) {
+        relations[i] = structure.getRelation(i);
+        relationIds[i] = id(relations[i]);
+      }
+    }
+
+    boolean matches(BioCStructure structure) {
+      if (annotations.length != structure.getAnnotationCount()
+          || relations.length != structure.getRelationCount()) {
+        return false;
+      }
+      for (int i = 0; i < annotations.length; i++) {
+        if (annotations[i] != structure.getAnnotation(i)
+            || annotationIds[i] != id(annotations[i])) {
+          return false;
+        }
+      }
+      for (int i = 0; i < relations.length; i++) {
+        if (relations[i] != structure.getRelation(i)
+            || relationIds[i] != id(relations[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the id of the annotation, or null if it has not been set yet.
+     */
+    private static String id(BioCAnnotation annotation) {
+      return annotation.hasID() ? annotation.getID() : null;
+    }
+
+    /**
+     * Returns the id of the relation, or null if it has not been set yet.
+     */
+    private static String id(BioCRelation relation) {
+      return relation.hasID() ? relation.getID() : null;
+    }
+  }
+}
@@ -0,0 +1,524 @@
+package com.pengyifan.bioc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.google.common.collect.Maps;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.io.BioCDocumentReader;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Inverted index from an infon key and value to the annotations, and documents, that have it.
+ * <p>
+ * Annotations are numbered in the order of the documents, and within a document in the order of
+ * {@link BioCAnnotationIterator}. A posting list is the sorted annotation numbers of one infon,
+ * stored as variable-length deltas. Queries return sorted int arrays that can be combined with
+ * {@link #and(int[]...)} and {@link #or(int[]...)}. For example, to find the documents that
+ * mention a chemical with a given identifier,
+ * <p>
+ * <pre>
+ * BioCInfonIndex index = BioCInfonIndex.build(collection);
+ * int[] annotations = BioCInfonIndex.and(
+ *     index.getAnnotations("type", "Chemical"),
+ *     index.getAnnotations("identifier", "MESH:D000068877"));
+ * int[] documents = index.getDocuments(annotations);
+ * </pre>
+ * <p>
+ * The index only records numbers and document ids, so it can be written to a file, read back
+ * after a restart, and resolved against the collection with {@link #getAnnotation(BioCDocument,
+ * int)}. Adding documents is not thread-safe; queries on an index that is no longer modified may
+ * run concurrently.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCInfonIndex {
+
+  private static final int MAGIC = 0x42694978;
+  private static final int VERSION = 1;
+  private static final int[] EMPTY = new int[0];
+  private static final int CHUNK_SIZE = 256;
+
+  private final Map<Term, Postings> postings;
+  private String[] documentIds;
+  /**
+   * Number of the first annotation of each document, followed by the number of annotations.
+   */
+  private int[] firstAnnotations;
+  private int documentCount;
+
+  /**
+   * Creates an empty index.
+   */
+  public BioCInfonIndex() {
+    postings = Maps.newHashMap();
+    documentIds = new String[16];
+    firstAnnotations = new int[17];
+  }
+
+  /**
+   * Builds the index of all the documents of the collection, indexing ranges of documents in
+   * parallel.
+   *
+   * @param collection the BioC collection
+   * @return the index
+   */
+  public static BioCInfonIndex build(BioCCollection collection) {
+    int n = collection.getDocmentCount();
+    // every chunk numbers its annotations from 0 and fetches each of its documents once
+    List<BioCInfonIndex> chunks = IntStream.range(0, (n + CHUNK_SIZE - 1) / CHUNK_SIZE)
+        .parallel()
+        .mapToObj(chunk -> {
+          BioCInfonIndex local = new BioCInfonIndex();
+          for (int i = chunk * CHUNK_SIZE; i < Math.min(n, (chunk + 1) * CHUNK_SIZE); i++) {
+            local.add(collection.getDocument(i));
+          }
+          return local;
+        })
+        .collect(Collectors.toList());
+
+    BioCInfonIndex index = new BioCInfonIndex();
+    for (BioCInfonIndex chunk : chunks) {
+      index.append(chunk);
+    }
+    index.trim();
+    return index;
+  }
+
+  /**
+   * Builds the index of all the remaining documents of the reader, one document at a time. If the
+   * reader is recycling, every document is handed back to it once it is indexed.
+   *
+   * @param reader the document reader
+   * @return the index
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public static BioCInfonIndex build(BioCDocumentReader reader)
+      throws XMLStreamException {
+    BioCInfonIndex index = new BioCInfonIndex();
+    BioCDocument document;
+    while ((document = reader.readDocument()) != null) {
+      index.add(document);
+      reader.recycle(document);
+    }
+    index.trim();
+    return index;
+  }
+
+  /**
+   * Reads an index written by {@link #write(Path)}.
+   *
+   * @param path the file to read from
+   * @return the index
+   * @throws IOException if an I/O exception of some sort has occurred, or if the file is not an
+   *                     index
+   */
+  public static BioCInfonIndex read(Path path)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not an infon index: " + path);
+      }
+      BioCInfonIndex index = new BioCInfonIndex();
+      index.documentCount = in.readInt();
+      index.documentIds = new String[Math.max(index.documentCount, 1)];
+      index.firstAnnotations = new int[index.documentIds.length + 1];
+      for (int i = 0; i < index.documentCount; i++) {
+        index.documentIds[i] = IndexIO.readString(in);
+        index.firstAnnotations[i + 1] = in.readInt();
+      }
+      int terms = in.readInt();
+      for (int i = 0; i < terms; i++) {
+        Term term = new Term(IndexIO.readString(in), IndexIO.readString(in));
+        Postings p = new Postings();
+        p.count = in.readInt();
+        p.last = in.readInt();
+        p.data = new byte[in.readInt()];
+        p.length = p.data.length;
+        in.readFully(p.data);
+        index.postings.put(term, p);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Returns the intersection of sorted arrays of distinct numbers.
+   *
+   * @param arrays sorted arrays of distinct numbers
+   * @return the numbers that are in all the arrays, sorted
+   */
+  public static int[] and(int[]... arrays) {
+    if (arrays.length == 0) {
+      return EMPTY;
+    }
+    int[] result = arrays[0];
+    for (int k = 1; k < arrays.length && result.length != 0; k++) {
+      int[] other = arrays[k];
+      int[] merged = new int[Math.min(result.length, other.length)];
+      int n = 0;
+      for (int i = 0, j = 0; i < result.length && j < other.length; ) {
+        if (result[i] < other[j]) {
+          i++;
+        } else if (result[i] > other[j]) {
+          j++;
+        } else {
+          merged[n++] = result[i];
+          i++;
+          j++;
+        }
+      }
+      result = Arrays.copyOf(merged, n);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the union of sorted arrays of distinct numbers.
+   *
+   * @param arrays sorted arrays of distinct numbers
+   * @return the numbers that are in any of the arrays, sorted
+   */
+  public static int[] or(int[]... arrays) {
+    int[] result = EMPTY;
+    for (int[] other : arrays) {
+      int[] merged = new int[result.length + other.length];
+      int n = 0;
+      int i = 0;
+      int j = 0;
+      while (i < result.length && j < other.length) {
+        if (result[i] < other[j]) {
+          merged[n++] = result[i++];
+        } else if (result[i] > other[j]) {
+          merged[n++] = other[j++];
+        } else {
+          merged[n++] = result[i++];
+          j++;
+        }
+      }
+      while (i < result.length) {
+        merged[n++] = result[i++];
+      }
+      while (j < other.length) {
+        merged[n++] = other[j++];
+      }
+      result = Arrays.copyOf(merged, n);
+    }
+    return result;
+  }
+
+  /**
+   * Adds the annotations of the document to this index.
+   *
+   * @param document the BioC document
+   */
+  public void add(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    if (documentCount == documentIds.length) {
+      documentIds = Arrays.copyOf(documentIds, documentCount << 1);
+      firstAnnotations = Arrays.copyOf(firstAnnotations, (documentCount << 1) + 1);
+    }
+    int first = firstAnnotations[documentCount];
+    documentIds[documentCount] = document.getID();
+    firstAnnotations[documentCount + 1] = first + indexDocument(postings, document, first);
+    documentCount++;
+  }
+
+  /**
+   * Returns the annotation with the number in the document. The document must be the one indexed
+   * under {@link #getDocument(int)} of the annotation, in the same state.
+   *
+   * @param document   the BioC document
+   * @param annotation the annotation number
+   * @return the annotation
+   */
+  public BioCAnnotation getAnnotation(BioCDocument document, int annotation) {
+    int position = annotation - firstAnnotations[getDocument(annotation)];
+    BioCAnnotationIterator itr = new BioCAnnotationIterator(document);
+    for (int i = 0; itr.hasNext(); i++) {
+      BioCAnnotation next = itr.next();
+      if (i == position) {
+        return next;
+      }
+    }
+    throw new IllegalArgumentException("document does not have annotation " + annotation);
+  }
+
+  /**
+   * Returns the number of annotations in this index.
+   *
+   * @return the number of annotations in this index
+   */
+  public int getAnnotationCount() {
+    return firstAnnotations[documentCount];
+  }
+
+  /**
+   * Returns the sorted numbers of the annotations that have the infon.
+   *
+   * @param key   the infon key
+   * @param value the infon value
+   * @return the sorted numbers of the annotations that have the infon
+   */
+  public int[] getAnnotations(String key, String value) {
+    Postings p = postings.get(new Term(key, value));
+    return p == null ? EMPTY : p.decode();
+  }
+
+  /**
+   * Returns the number of the document that contains the annotation.
+   *
+   * @param annotation the annotation number
+   * @return the document number
+   */
+  public int getDocument(int annotation) {
+    checkElementIndex(annotation, getAnnotationCount());
+    // the last document whose first annotation is not after the annotation
+    int lo = 0;
+    int hi = documentCount;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (firstAnnotations[mid + 1] <= annotation) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Returns the number of documents in this index.
+   *
+   * @return the number of documents in this index
+   */
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  /**
+   * Returns the id of the document.
+   *
+   * @param document the document number
+   * @return the id of the document
+   */
+  public String getDocumentID(int document) {
+    checkElementIndex(document, documentCount);
+    return documentIds[document];
+  }
+
+  /**
+   * Returns the sorted numbers of the documents that contain the annotations.
+   *
+   * @param annotations sorted annotation numbers
+   * @return the sorted numbers of the documents that contain the annotations
+   */
+  public int[] getDocuments(int[] annotations) {
+    int[] documents = new int[annotations.length];
+    int n = 0;
+    for (int annotation : annotations) {
+      int document = getDocument(annotation);
+      if (n == 0 || documents[n - 1] != document) {
+        documents[n++] = document;
+      }
+    }
+    return Arrays.copyOf(documents, n);
+  }
+
+  /**
+   * Returns the number of distinct infons in this index.
+   *
+   * @return the number of distinct infons in this index
+   */
+  public int getTermCount() {
+    return postings.size();
+  }
+
+  /**
+   * Writes this index to a file.
+   *
+   * @param path the file to write to
+   * @throws IOException if an I/O exception of some sort has occurred
+   */
+  public void write(Path path)
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(documentCount);
+      for (int i = 0; i < documentCount; i++) {
+        IndexIO.writeString(out, documentIds[i]);
+        out.writeInt(firstAnnotations[i + 1]);
+      }
+      out.writeInt(postings.size());
+      for (Map.Entry<Term, Postings> e : postings.entrySet()) {
+        IndexIO.writeString(out, e.getKey().key);
+        IndexIO.writeString(out, e.getKey().value);
+        Postings p = e.getValue();
+        out.writeInt(p.count);
+        out.writeInt(p.last);
+        out.writeInt(p.length);
+        out.write(p.data, 0, p.length);
+      }
+    }
+  }
+
+  /**
+   * Appends the documents of the other index, renumbering its annotations after the annotations
+   * of this index. The other index must not be used afterwards.
+   */
+  private void append(BioCInfonIndex other) {
+    int offset = firstAnnotations[documentCount];
+    int n = documentCount + other.documentCount;
+    if (n > documentIds.length) {
+      documentIds = Arrays.copyOf(documentIds, Math.max(n, documentIds.length << 1));
+      firstAnnotations = Arrays.copyOf(firstAnnotations, documentIds.length + 1);
+    }
+    for (int i = 0; i < other.documentCount; i++) {
+      documentIds[documentCount + i] = other.documentIds[i];
+      firstAnnotations[documentCount + i + 1] = offset + other.firstAnnotations[i + 1];
+    }
+    documentCount = n;
+    // the other documents come after the documents of this index, so every posting list stays
+    // sorted
+    for (Map.Entry<Term, Postings> e : other.postings.entrySet()) {
+      Postings p = postings.get(e.getKey());
+      if (p == null && offset == 0) {
+        postings.put(e.getKey(), e.getValue());
+      } else {
+        if (p == null) {
+          p = new Postings();
+          postings.put(e.getKey(), p);
+        }
+        p.addAll(e.getValue(), offset);
+      }
+    }
+  }
+
+  /**
+   * Adds the infons of the annotations of the document, numbered from {@code first}.
+   *
+   * @return the number of annotations in the document
+   */
+  private static int indexDocument(Map<Term, Postings> postings, BioCDocument document,
+      int first) {
+    BioCAnnotationIterator itr = new BioCAnnotationIterator(document);
+    int annotation = first;
+    while (itr.hasNext()) {
+      for (Map.Entry<String, String> e : itr.next().getInfons().entrySet()) {
+        postings.computeIfAbsent(new Term(e.getKey(), e.getValue()), t -> new Postings())
+            .add(annotation);
+      }
+      annotation++;
+    }
+    return annotation - first;
+  }
+
+  private void trim() {
+    for (Postings p : postings.values()) {
+      p.trim();
+    }
+  }
+
+  private static final class Term {
+
+    private final String key;
+    private final String value;
+
+    Term(String key, String value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Term)) {
+        return false;
+      }
+      Term rhs = (Term) obj;
+      return Objects.equals(key, rhs.key) && Objects.equals(value, rhs.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(key) * 31 + Objects.hashCode(value);
+    }
+  }
+
+  /**
+   * Sorted distinct numbers stored as variable-length deltas, seven bits per byte.
+   */
+  private static final class Postings {
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int count;
+    private int last = -1;
+
+    void add(int number) {
+      checkArgument(number > last, "postings must be added in order: %s after %s", number, last);
+      int delta = count == 0 ? number : number - last;
+      if (length + 5 > data.length) {
+        data = Arrays.copyOf(data, Math.max(data.length << 1, length + 5));
+      }
+      while ((delta & ~0x7F) != 0) {
+        data[length++] = (byte) (delta & 0x7F | 0x80);
+        delta >>>= 7;
+      }
+      data[length++] = (byte) delta;
+      last = number;
+      count++;
+    }
+
+    void addAll(Postings other, int offset) {
+      for (int number : other.decode()) {
+        add(number + offset);
+      }
+    }
+
+    int[] decode() {
+      int[] numbers = new int[count];
+      int value = 0;
+      for (int i = 0, pos = 0; i < count; i++) {
+        int delta = 0;
+        int shift = 0;
+        byte b;
+        do {
+          b = data[pos++];
+          delta |= (b & 0x7F) << shift;
+          shift += 7;
+        } while (b < 0);
+        value = i == 0 ? delta : value + delta;
+        numbers[i] = value;
+      }
+      return numbers;
+    }
+
+    void trim() {
+      if (data.length != length) {
+        data = Arrays.copyOf(data, length);
+      }
+    }
+  }
+}
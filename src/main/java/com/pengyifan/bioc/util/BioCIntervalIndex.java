@@ -0,0 +1,395 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Interval index over the annotations of a document, a passage or a sentence, including the
+ * annotations of its passages and sentences.
+ * <p>
+ * Every location of an annotation is an interval {@code [offset, offset + length)}, so an
+ * annotation with several locations matches a query if any of its locations matches. The
+ * intervals are kept sorted by start in an implicit binary tree whose nodes record the largest end
+ * in their subtree. The index is built in O(n log n); overlap, containment and enclosing queries
+ * take O(log n + k) for k matching intervals, and nearest-neighbor queries take O(log n).
+ * <p>
+ * Annotations added to the indexed structure afterwards must also be passed to
+ * {@link #add(BioCAnnotation)}. Additions are batched and the index is rebuilt on the next query.
+ * Changing the locations of an indexed annotation invalidates the index. This class is not
+ * thread-safe.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCIntervalIndex {
+
+  /**
+   * Subtrees of at most 2^(LINEAR_LEVEL + 1) - 1 intervals are scanned linearly.
+   */
+  private static final int LINEAR_LEVEL = 3;
+
+  private int size;
+  private int[] starts;
+  private int[] ends;
+  /**
+   * Largest end in the subtree rooted at each node of the implicit tree.
+   */
+  private int[] maxEnds;
+  /**
+   * Position of the largest end among the first i + 1 intervals.
+   */
+  private int[] prefixMax;
+  private BioCAnnotation[] annotations;
+  private int rootLevel;
+  private boolean multiSpan;
+  private final List<BioCAnnotation> pending;
+
+  /**
+   * Creates an empty index.
+   */
+  public BioCIntervalIndex() {
+    starts = new int[0];
+    ends = starts;
+    maxEnds = starts;
+    prefixMax = starts;
+    annotations = new BioCAnnotation[0];
+    pending = Lists.newArrayList();
+  }
+
+  /**
+   * Creates an index over the annotations of the document, its passages and their sentences.
+   *
+   * @param document the BioC document
+   */
+  public BioCIntervalIndex(BioCDocument document) {
+    this();
+    addAll(new BioCAnnotationIterator(document));
+  }
+
+  /**
+   * Creates an index over the annotations of the passage and its sentences.
+   *
+   * @param passage the BioC passage
+   */
+  public BioCIntervalIndex(BioCPassage passage) {
+    this();
+    addAll(new BioCAnnotationIterator(passage));
+  }
+
+  /**
+   * Creates an index over the annotations of the sentence.
+   *
+   * @param sentence the BioC sentence
+   */
+  public BioCIntervalIndex(BioCSentence sentence) {
+    this();
+    addAll(new BioCAnnotationIterator(sentence));
+  }
+
+  /**
+   * Adds the annotation to this index.
+   *
+   * @param annotation the annotation
+   */
+  public void add(BioCAnnotation annotation) {
+    checkNotNull(annotation, "annotation cannot be null");
+    pending.add(annotation);
+  }
+
+  /**
+   * Returns the annotations that have a location containing the offset.
+   *
+   * @param offset the offset
+   * @return the annotations that contain the offset, ordered by location start
+   */
+  public List<BioCAnnotation> getContaining(int offset) {
+    return query(offset, offset + 1);
+  }
+
+  /**
+   * Returns the annotations that have a location within the span {@code [start, end)}.
+   * <p>
+   * This query scans the intervals starting within the span, so it takes O(log n + m) for m such
+   * intervals.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the annotations enclosed by the span, ordered by location start
+   */
+  public List<BioCAnnotation> getEnclosedBy(int start, int end) {
+    checkArgument(start <= end, "start %s is after end %s", start, end);
+    build();
+    List<BioCAnnotation> result = Lists.newArrayList();
+    for (int i = lowerBound(start); i < size && starts[i] <= end; i++) {
+      if (ends[i] <= end) {
+        result.add(annotations[i]);
+      }
+    }
+    return distinct(result);
+  }
+
+  /**
+   * Returns the annotations that have a location enclosing the span {@code [start, end)}.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the annotations enclosing the span, ordered by location start
+   */
+  public List<BioCAnnotation> getEnclosing(int start, int end) {
+    checkArgument(start <= end, "start %s is after end %s", start, end);
+    // s <= start and e >= end is s < start + 1 and e > end - 1
+    return query(end - 1, start + 1);
+  }
+
+  /**
+   * Returns the annotation whose location is nearest to the offset. The distance is zero if a
+   * location contains the offset, otherwise it is the distance to its closest end point. Ties are
+   * broken in favor of the location before the offset.
+   *
+   * @param offset the offset
+   * @return the nearest annotation, or empty if this index is empty
+   */
+  public Optional<BioCAnnotation> getNearest(int offset) {
+    build();
+    if (size == 0) {
+      return Optional.empty();
+    }
+    // intervals before i start at or before the offset
+    int i = upperBound(offset);
+    long left = Long.MAX_VALUE;
+    if (i > 0) {
+      int j = prefixMax[i - 1];
+      left = ends[j] > offset ? 0 : (long) offset - ends[j] + 1;
+      if (left == 0) {
+        return Optional.of(annotations[j]);
+      }
+    }
+    long right = i < size ? (long) starts[i] - offset : Long.MAX_VALUE;
+    return Optional.of(left <= right ? annotations[prefixMax[i - 1]] : annotations[i]);
+  }
+
+  /**
+   * Returns the annotations that have a location overlapping the span {@code [start, end)}.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the annotations overlapping the span, ordered by location start
+   */
+  public List<BioCAnnotation> getOverlapping(int start, int end) {
+    checkArgument(start <= end, "start %s is after end %s", start, end);
+    return query(start, end);
+  }
+
+  /**
+   * Returns the number of locations in this index.
+   *
+   * @return the number of locations in this index
+   */
+  public int size() {
+    build();
+    return size;
+  }
+
+  private void addAll(Iterator<BioCAnnotation> itr) {
+    while (itr.hasNext()) {
+      pending.add(itr.next());
+    }
+    build();
+  }
+
+  /**
+   * Sorts the indexed and the pending locations by start and recomputes the tree.
+   */
+  private void build() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    int n = size;
+    for (BioCAnnotation annotation : pending) {
+      n += annotation.getLocationCount();
+    }
+    int[] newStarts = new int[n];
+    int[] newEnds = new int[n];
+    BioCAnnotation[] newAnnotations = new BioCAnnotation[n];
+    System.arraycopy(starts, 0, newStarts, 0, size);
+    System.arraycopy(ends, 0, newEnds, 0, size);
+    System.arraycopy(annotations, 0, newAnnotations, 0, size);
+    int i = size;
+    for (BioCAnnotation annotation : pending) {
+      multiSpan |= annotation.getLocationCount() > 1;
+      Iterator<BioCLocation> itr = annotation.locationIterator();
+      while (itr.hasNext()) {
+        BioCLocation location = itr.next();
+        newStarts[i] = location.getOffset();
+        newEnds[i] = location.getOffset() + location.getLength();
+        newAnnotations[i] = annotation;
+        i++;
+      }
+    }
+    pending.clear();
+
+    // sort by start, then by insertion order, on primitive keys
+    long[] keys = new long[n];
+    for (i = 0; i < n; i++) {
+      keys[i] = (long) newStarts[i] << 32 | i;
+    }
+    Arrays.sort(keys);
+    size = n;
+    starts = new int[n];
+    ends = new int[n];
+    annotations = new BioCAnnotation[n];
+    for (i = 0; i < n; i++) {
+      int j = (int) keys[i];
+      starts[i] = newStarts[j];
+      ends[i] = newEnds[j];
+      annotations[i] = newAnnotations[j];
+    }
+
+    prefixMax = new int[n];
+    for (i = 0; i < n; i++) {
+      prefixMax[i] = i > 0 && ends[prefixMax[i - 1]] >= ends[i] ? prefixMax[i - 1] : i;
+    }
+    buildTree();
+  }
+
+  /**
+   * Computes the largest end of every subtree of the implicit tree. Leaves are at even positions,
+   * and a node at level k has its children k - 1 levels down at i - 2^(k-1) and i + 2^(k-1).
+   */
+  private void buildTree() {
+    maxEnds = new int[size];
+    if (size == 0) {
+      rootLevel = 0;
+      return;
+    }
+    int lastIndex = 0;
+    int last = 0;
+    for (int i = 0; i < size; i += 2) {
+      lastIndex = i;
+      last = maxEnds[i] = ends[i];
+    }
+    int k;
+    for (k = 1; 1L << k <= size; k++) {
+      int x = 1 << (k - 1);
+      int i0 = (x << 1) - 1;
+      int step = x << 2;
+      for (int i = i0; i < size; i += step) {
+        int left = maxEnds[i - x];
+        int right = i + x < size ? maxEnds[i + x] : last;
+        maxEnds[i] = Math.max(ends[i], Math.max(left, right));
+      }
+      lastIndex = (lastIndex >> k & 1) != 0 ? lastIndex - x : lastIndex + x;
+      if (lastIndex < size && maxEnds[lastIndex] > last) {
+        last = maxEnds[lastIndex];
+      }
+    }
+    rootLevel = k - 1;
+  }
+
+  private List<BioCAnnotation> distinct(List<BioCAnnotation> result) {
+    if (!multiSpan || result.size() < 2) {
+      return result;
+    }
+    Set<BioCAnnotation> seen = Sets.newIdentityHashSet();
+    result.removeIf(annotation -> !seen.add(annotation));
+    return result;
+  }
+
+  /**
+   * Returns the first position whose start is not less than the offset.
+   */
+  private int lowerBound(int offset) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] < offset) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Returns the annotations of the intervals with start &lt; en and end &gt; st, in start order.
+   */
+  private List<BioCAnnotation> query(int st, int en) {
+    build();
+    if (size == 0) {
+      return Collections.emptyList();
+    }
+    List<BioCAnnotation> result = Lists.newArrayList();
+    // a node is (level, position, whether its left child has been visited)
+    int[] levels = new int[64];
+    int[] positions = new int[64];
+    boolean[] visited = new boolean[64];
+    int t = 0;
+    levels[t] = rootLevel;
+    positions[t] = (1 << rootLevel) - 1;
+    visited[t++] = false;
+    while (t > 0) {
+      t--;
+      int k = levels[t];
+      int x = positions[t];
+      if (k <= LINEAR_LEVEL) {
+        int i0 = x >> k << k;
+        int i1 = Math.min(i0 + (1 << (k + 1)) - 1, size);
+        for (int i = i0; i < i1 && starts[i] < en; i++) {
+          if (st < ends[i]) {
+            result.add(annotations[i]);
+          }
+        }
+      } else if (!visited[t]) {
+        int y = x - (1 << (k - 1));
+        visited[t++] = true;
+        if (y >= size || maxEnds[y] > st) {
+          levels[t] = k - 1;
+          positions[t] = y;
+          visited[t++] = false;
+        }
+      } else if (x < size && starts[x] < en) {
+        if (st < ends[x]) {
+          result.add(annotations[x]);
+        }
+        levels[t] = k - 1;
+        positions[t] = x + (1 << (k - 1));
+        visited[t++] = false;
+      }
+    }
+    return distinct(result);
+  }
+
+  /**
+   * Returns the first position whose start is greater than the offset.
+   */
+  private int upperBound(int offset) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] <= offset) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
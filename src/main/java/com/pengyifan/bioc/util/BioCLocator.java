@@ -0,0 +1,268 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.Maps;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds the passage and the sentence that contain a character offset of a document.
+ * <p>
+ * For every document, the locator keeps the starts and ends of its passages and sentences in
+ * sorted int arrays, and answers queries by binary search. A passage or sentence spans its text;
+ * a passage without text spans its sentences, and a sentence without text contains no offset.
+ * Passages, and sentences, of one document are assumed not to overlap.
+ * <p>
+ * If several documents have the same id, their passages and sentences are located together, as if
+ * they were one document. Of the sentences that start at the same offset, the one added last is
+ * found by {@link BioCSearch}.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCLocator {
+
+  private final Map<String, DocumentEntry> documents;
+
+  /**
+   * Creates an empty locator.
+   */
+  public BioCLocator() {
+    documents = Maps.newHashMap();
+  }
+
+  /**
+   * Creates a locator over all the documents of the collection.
+   *
+   * @param collection the BioC collection
+   */
+  public BioCLocator(BioCCollection collection) {
+    this();
+    for (int i = 0; i < collection.getDocmentCount(); i++) {
+      add(collection.getDocument(i));
+    }
+  }
+
+  /**
+   * Adds the passages and sentences of the document to this locator. Passages and sentences added
+   * to the document afterwards are not seen until the document is added again.
+   *
+   * @param document the BioC document
+   */
+  public void add(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    DocumentEntry entry = documents.get(document.getID());
+    if (entry == null) {
+      documents.put(document.getID(), new DocumentEntry(new BioCDocument[] {document}));
+      return;
+    }
+    // merge with the documents of the same id, replacing the document if it is added again
+    BioCDocument[] merged = entry.documents;
+    int i = 0;
+    while (i < merged.length && merged[i] != document) {
+      i++;
+    }
+    if (i == merged.length) {
+      merged = Arrays.copyOf(merged, merged.length + 1);
+      merged[i] = document;
+    }
+    documents.put(document.getID(), new DocumentEntry(merged));
+  }
+
+  /**
+   * Returns the passage of the document that contains the offset.
+   *
+   * @param docId  the document id
+   * @param offset the character offset in the document
+   * @return the passage that contains the offset, or empty if there is none
+   */
+  public Optional<BioCPassage> getPassage(String docId, int offset) {
+    DocumentEntry entry = documents.get(docId);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    int i = entry.passages.containing(offset);
+    return i < 0 ? Optional.empty() : Optional.of(entry.passageArray[i]);
+  }
+
+  /**
+   * Returns the sentence of the document that contains the offset.
+   *
+   * @param docId  the document id
+   * @param offset the character offset in the document
+   * @return the sentence that contains the offset, or empty if there is none
+   */
+  public Optional<BioCSentence> getSentence(String docId, int offset) {
+    DocumentEntry entry = documents.get(docId);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    int i = entry.sentences.containing(offset);
+    return i < 0 ? Optional.empty() : Optional.of(entry.sentenceArray[i]);
+  }
+
+  /**
+   * Returns the sentence of the document that starts exactly at the offset.
+   *
+   * @param docId          the document id
+   * @param sentenceOffset the offset of the sentence in the document
+   * @return the sentence, or empty if there is none
+   */
+  Optional<BioCSentence> getSentenceAt(String docId, int sentenceOffset) {
+    DocumentEntry entry = documents.get(docId);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    int i = entry.sentences.startingAt(sentenceOffset);
+    return i < 0 ? Optional.empty() : Optional.of(entry.sentenceArray[i]);
+  }
+
+  /**
+   * The passages and sentences of the documents with one id, in the order the documents were
+   * added.
+   */
+  private static final class DocumentEntry {
+
+    private final BioCDocument[] documents;
+    private final Spans passages;
+    private final BioCPassage[] passageArray;
+    private final Spans sentences;
+    private final BioCSentence[] sentenceArray;
+
+    DocumentEntry(BioCDocument[] documents) {
+      this.documents = documents;
+      int passageCount = 0;
+      for (BioCDocument document : documents) {
+        passageCount += document.getPassageCount();
+      }
+      BioCPassage[] unsortedPassages = new BioCPassage[passageCount];
+      int p = 0;
+      for (BioCDocument document : documents) {
+        for (int i = 0; i < document.getPassageCount(); i++) {
+          unsortedPassages[p++] = document.getPassage(i);
+        }
+      }
+      int sentenceCount = 0;
+      for (BioCPassage passage : unsortedPassages) {
+        sentenceCount += passage.getSentenceCount();
+      }
+      passages = new Spans(passageCount);
+      sentences = new Spans(sentenceCount);
+      for (BioCPassage passage : unsortedPassages) {
+        int end = passage.getOffset();
+        for (int j = 0; j < passage.getSentenceCount(); j++) {
+          BioCSentence sentence = passage.getSentence(j);
+          int sentenceEnd = sentence.getTextSequence().isPresent()
+              ? sentence.getEnd()
+              : sentence.getOffset();
+          sentences.add(sentence.getOffset(), sentenceEnd);
+          end = Math.max(end, sentenceEnd);
+        }
+        passages.add(passage.getOffset(),
+            passage.getTextSequence().isPresent() ? passage.getEnd() : end);
+      }
+      int[] passageOrder = passages.sort();
+      passageArray = new BioCPassage[passageCount];
+      for (int i = 0; i < passageCount; i++) {
+        passageArray[i] = unsortedPassages[passageOrder[i]];
+      }
+      int[] sentenceOrder = sentences.sort();
+      BioCSentence[] unsortedSentences = new BioCSentence[sentenceCount];
+      int k = 0;
+      for (BioCPassage passage : unsortedPassages) {
+        for (int j = 0; j < passage.getSentenceCount(); j++) {
+          unsortedSentences[k++] = passage.getSentence(j);
+        }
+      }
+      sentenceArray = new BioCSentence[sentenceCount];
+      for (int i = 0; i < sentenceCount; i++) {
+        sentenceArray[i] = unsortedSentences[sentenceOrder[i]];
+      }
+    }
+  }
+
+  /**
+   * Starts and ends of non-overlapping spans, sorted by start.
+   */
+  private static final class Spans {
+
+    private int size;
+    private int[] starts;
+    private int[] ends;
+
+    Spans(int capacity) {
+      starts = new int[capacity];
+      ends = new int[capacity];
+    }
+
+    void add(int start, int end) {
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+
+    /**
+     * Returns the position of the span that contains the offset, or -1.
+     */
+    int containing(int offset) {
+      int i = upperBound(offset) - 1;
+      return i >= 0 && offset < ends[i] ? i : -1;
+    }
+
+    /**
+     * Sorts the spans by start, keeping the order of spans with the same start.
+     *
+     * @return the original position of each sorted span
+     */
+    int[] sort() {
+      long[] keys = new long[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = (long) starts[i] << 32 | i;
+      }
+      Arrays.sort(keys);
+      int[] order = new int[size];
+      int[] sortedStarts = new int[size];
+      int[] sortedEnds = new int[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = (int) keys[i];
+        sortedStarts[i] = starts[order[i]];
+        sortedEnds[i] = ends[order[i]];
+      }
+      starts = sortedStarts;
+      ends = sortedEnds;
+      return order;
+    }
+
+    /**
+     * Returns the position of the last span that starts at the offset, or -1.
+     */
+    int startingAt(int offset) {
+      int i = upperBound(offset) - 1;
+      return i >= 0 && starts[i] == offset ? i : -1;
+    }
+
+    /**
+     * Returns the first position whose start is greater than the offset.
+     */
+    private int upperBound(int offset) {
+      int lo = 0;
+      int hi = size;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (starts[mid] <= offset) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Translates offsets in a text between UTF-16 code units, code points and UTF-8 bytes.
+ * <p>
+ * The map records the three offsets of every {@value #STEP}th code point of the text, so a
+ * translation is a binary search over these checkpoints followed by a scan of fewer than
+ * {@value #STEP} code points, instead of a scan from the start of the text. Texts that only contain
+ * ASCII characters, or no supplementary characters, are translated without any scan.
+ * <p>
+ * {@link #convert(BioCDocument, Unit, Unit)} translates the offsets of all the passages,
+ * sentences and annotations of a document at once. For example, to read a document whose offsets
+ * are in UTF-8 bytes,
+ * <p>
+ * <pre>
+ * BioCOffsetMap.convert(document, BioCOffsetMap.Unit.UTF8, BioCOffsetMap.Unit.UTF16);
+ * </pre>
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCOffsetMap {
+
+  /**
+   * Unit of an offset.
+   */
+  public enum Unit {
+    /**
+     * UTF-16 code units, as in {@link String#length()}.
+     */
+    UTF16,
+    /**
+     * Unicode code points.
+     */
+    CODE_POINT,
+    /**
+     * UTF-8 bytes.
+     */
+    UTF8
+  }
+
+  private static final int STEP = 64;
+
+  private final CharSequence text;
+  /**
+   * Offsets of every STEP-th code point, indexed by unit ordinal.
+   */
+  private final int[][] checkpoints;
+  private final int[] lengths;
+
+  /**
+   * Creates the offset map of the text.
+   *
+   * @param text the text
+   */
+  public BioCOffsetMap(CharSequence text) {
+    this.text = checkNotNull(text, "text cannot be null");
+    int capacity = text.length() / STEP + 2;
+    int[] utf16 = new int[capacity];
+    int[] codePoints = new int[capacity];
+    int[] utf8 = new int[capacity];
+    int n = 1;
+    int cp = 0;
+    int bytes = 0;
+    for (int i = 0; i < text.length(); ) {
+      int c = Character.codePointAt(text, i);
+      i += Character.charCount(c);
+      cp++;
+      bytes += utf8Length(c);
+      if (cp % STEP == 0) {
+        utf16[n] = i;
+        codePoints[n] = cp;
+        utf8[n] = bytes;
+        n++;
+      }
+    }
+    checkpoints = new int[][] {
+        Arrays.copyOf(utf16, n), Arrays.copyOf(codePoints, n), Arrays.copyOf(utf8, n)};
+    lengths = new int[] {text.length(), cp, bytes};
+  }
+
+  /**
+   * Translates the offsets of the passages, sentences and annotations of the document from one
+   * unit to the other, in time linear in the length of the text.
+   * <p>
+   * The texts of the passages, or of the sentences of passages without text, are assumed not to
+   * overlap. Offsets between them, such as the offset of a passage without any text, are assumed to
+   * be separated from the preceding text by ASCII characters.
+   *
+   * @param document the document
+   * @param from     the unit of the offsets of the document
+   * @param to       the unit to translate the offsets to
+   * @throws IllegalArgumentException if the texts overlap, or if an offset is inside a character
+   */
+  public static void convert(BioCDocument document, Unit from, Unit to) {
+    checkNotNull(document, "document cannot be null");
+    checkNotNull(from, "from cannot be null");
+    checkNotNull(to, "to cannot be null");
+    if (from == to) {
+      return;
+    }
+    Segments segments = new Segments(document, from, to);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      passage.setOffset(segments.convert(passage.getOffset()));
+      for (int j = 0; j < passage.getSentenceCount(); j++) {
+        BioCSentence sentence = passage.getSentence(j);
+        sentence.setOffset(segments.convert(sentence.getOffset()));
+      }
+    }
+    BioCAnnotationIterator itr = new BioCAnnotationIterator(document);
+    List<BioCLocation> locations = Lists.newArrayList();
+    while (itr.hasNext()) {
+      BioCAnnotation annotation = itr.next();
+      locations.clear();
+      Iterator<BioCLocation> locationItr = annotation.locationIterator();
+      while (locationItr.hasNext()) {
+        BioCLocation location = locationItr.next();
+        int start = segments.convert(location.getOffset());
+        int end = segments.convert(location.getOffset() + location.getLength());
+        locations.add(new BioCLocation(start, end - start));
+      }
+      annotation.clearLocations();
+      for (BioCLocation location : locations) {
+        annotation.addLocation(location);
+      }
+    }
+  }
+
+  /**
+   * Translates an offset in the text from one unit to the other.
+   *
+   * @param offset the offset in the text, in unit {@code from}
+   * @param from   the unit of the offset
+   * @param to     the unit to translate the offset to
+   * @return the offset in unit {@code to}
+   * @throws IllegalArgumentException if the offset is negative, beyond the end of the text or
+   *                                  inside a character
+   */
+  public int convert(int offset, Unit from, Unit to) {
+    checkArgument(offset >= 0 && offset <= lengths[from.ordinal()],
+        "offset %s is out of [0, %s]", offset, lengths[from.ordinal()]);
+    if (from == to || lengths[Unit.UTF16.ordinal()] == lengths[Unit.UTF8.ordinal()]) {
+      // all characters are ASCII
+      return offset;
+    }
+    if (lengths[Unit.UTF16.ordinal()] == lengths[Unit.CODE_POINT.ordinal()]
+        && from != Unit.UTF8 && to != Unit.UTF8) {
+      // no supplementary characters
+      return offset;
+    }
+    int[] fromCheckpoints = checkpoints[from.ordinal()];
+    int k = Arrays.binarySearch(fromCheckpoints, offset);
+    if (k < 0) {
+      k = -k - 2;
+    }
+    int utf16 = checkpoints[0][k];
+    int cp = checkpoints[1][k];
+    int bytes = checkpoints[2][k];
+    int current = fromCheckpoints[k];
+    while (current < offset) {
+      int c = Character.codePointAt(text, utf16);
+      utf16 += Character.charCount(c);
+      cp++;
+      bytes += utf8Length(c);
+      current = from == Unit.UTF16 ? utf16 : from == Unit.CODE_POINT ? cp : bytes;
+    }
+    checkArgument(current == offset, "offset %s is inside a character", offset);
+    return to == Unit.UTF16 ? utf16 : to == Unit.CODE_POINT ? cp : bytes;
+  }
+
+  /**
+   * Returns the length of the text in the unit.
+   *
+   * @param unit the unit
+   * @return the length of the text
+   */
+  public int length(Unit unit) {
+    return lengths[unit.ordinal()];
+  }
+
+  private static int utf8Length(int c) {
+    if (c < 0x80) {
+      return 1;
+    } else if (c < 0x800) {
+      return 2;
+    } else if (c < 0x10000) {
+      return 3;
+    } else {
+      return 4;
+    }
+  }
+
+  /**
+   * Offset maps of the texts of a document, sorted by the offset of the text.
+   */
+  private static final class Segments {
+
+    private final Unit from;
+    private final Unit to;
+    private final int[] sourceStarts;
+    private final int[] targetStarts;
+    private final BioCOffsetMap[] maps;
+
+    Segments(BioCDocument document, Unit from, Unit to) {
+      this.from = from;
+      this.to = to;
+      List<Integer> starts = Lists.newArrayList();
+      List<BioCOffsetMap> mapList = Lists.newArrayList();
+      for (int i = 0; i < document.getPassageCount(); i++) {
+        BioCPassage passage = document.getPassage(i);
+        if (passage.getTextSequence().isPresent()) {
+          starts.add(passage.getOffset());
+          mapList.add(new BioCOffsetMap(passage.getTextSequence().get()));
+          continue;
+        }
+        for (int j = 0; j < passage.getSentenceCount(); j++) {
+          BioCSentence sentence = passage.getSentence(j);
+          if (sentence.getTextSequence().isPresent()) {
+            starts.add(sentence.getOffset());
+            mapList.add(new BioCOffsetMap(sentence.getTextSequence().get()));
+          }
+        }
+      }
+      int n = starts.size();
+      long[] keys = new long[n];
+      for (int i = 0; i < n; i++) {
+        keys[i] = (long) starts.get(i) << 32 | i;
+      }
+      Arrays.sort(keys);
+      sourceStarts = new int[n];
+      targetStarts = new int[n];
+      maps = new BioCOffsetMap[n];
+      int sourceEnd = 0;
+      int targetEnd = 0;
+      for (int i = 0; i < n; i++) {
+        int j = (int) keys[i];
+        sourceStarts[i] = starts.get(j);
+        maps[i] = mapList.get(j);
+        checkArgument(sourceStarts[i] >= sourceEnd,
+            "text at offset %s overlaps the previous text", sourceStarts[i]);
+        targetStarts[i] = targetEnd + sourceStarts[i] - sourceEnd;
+        sourceEnd = sourceStarts[i] + maps[i].length(from);
+        targetEnd = targetStarts[i] + maps[i].length(to);
+      }
+    }
+
+    int convert(int offset) {
+      int k = Arrays.binarySearch(sourceStarts, offset);
+      if (k < 0) {
+        k = -k - 2;
+      }
+      if (k < 0) {
+        return offset;
+      }
+      BioCOffsetMap map = maps[k];
+      int relative = offset - sourceStarts[k];
+      if (relative <= map.length(from)) {
+        return targetStarts[k] + map.convert(relative, from, to);
+      }
+      return targetStarts[k] + map.length(to) + relative - map.length(from);
+    }
+  }
+}
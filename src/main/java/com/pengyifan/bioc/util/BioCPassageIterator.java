@@ -39,7 +39,7 @@ public class BioCPassageIterator implements Iterator<BioCPassage>, BioCIterator<
     this.documentItr = documentItr;
     if (documentItr.hasNext()) {
       currentDocument = documentItr.next();
-      passageItr = currentDocument.getPassages().iterator();
+      passageItr = currentDocument.passageIterator();
     } else {
       currentDocument = null;
       passageItr = Collections.emptyIterator();
@@ -86,15 +86,14 @@ public class BioCPassageIterator implements Iterator<BioCPassage>, BioCIterator<
 
   @Override
   public boolean hasNext() {
-    if (passageItr.hasNext()) {
-      return true;
-    } else if (documentItr.hasNext()) {
+    while (!passageItr.hasNext()) {
+      if (!documentItr.hasNext()) {
+        return false;
+      }
       currentDocument = documentItr.next();
-      passageItr = currentDocument.getPassages().iterator();
-      return hasNext();
-    } else {
-      return false;
+      passageItr = currentDocument.passageIterator();
     }
+    return true;
   }
 
   @Override
@@ -0,0 +1,451 @@
+package com.pengyifan.bioc.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+import com.pengyifan.bioc.BioCStructureWithText;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Query for the annotations of a collection that satisfy conditions on their document, passage,
+ * sentence and on themselves. All the conditions must hold. For example, to find the chemicals in
+ * the methods sections of some documents,
+ * <p>
+ * <pre>
+ * List&lt;BioCAnnotation&gt; chemicals = new BioCQuery()
+ *     .inDocuments(ids)
+ *     .wherePassageInfon(&quot;section_type&quot;, &quot;METHODS&quot;)
+ *     .whereInfon(&quot;type&quot;, &quot;Chemical&quot;)
+ *     .run(collection);
+ * </pre>
+ * <p>
+ * Conditions are checked from the top down, so a document or a passage that fails its conditions
+ * is skipped with all its annotations. If there is a passage condition, annotations of the document
+ * itself never match; if there is a sentence condition, only annotations of sentences can match.
+ * Passages and sentences with text that do not overlap the offset range are also skipped. With a
+ * {@link BioCInfonIndex}, only the documents that have annotations with all the required infons are
+ * visited. With a {@link BioCIntervalIndex} of a document, only the annotations that the index
+ * finds for the offset range are tested.
+ * <p>
+ * Documents are searched in parallel; results are in document order. The conditions must be
+ * thread-safe.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCQuery {
+
+  private Set<String> documentIds;
+  private final List<Predicate<BioCDocument>> documentFilters;
+  private final List<Predicate<BioCPassage>> passageFilters;
+  private final List<Predicate<BioCSentence>> sentenceFilters;
+  private final Map<String, String> infons;
+  private final List<Predicate<BioCAnnotation>> annotationFilters;
+  private int start;
+  private int end;
+
+  /**
+   * Creates a query that matches all the annotations.
+   */
+  public BioCQuery() {
+    documentFilters = Lists.newArrayList();
+    passageFilters = Lists.newArrayList();
+    sentenceFilters = Lists.newArrayList();
+    infons = Maps.newLinkedHashMap();
+    annotationFilters = Lists.newArrayList();
+    start = Integer.MIN_VALUE;
+    end = Integer.MAX_VALUE;
+  }
+
+  /**
+   * Restricts this query to the documents with the ids.
+   *
+   * @param ids the document ids
+   * @return this query
+   */
+  public BioCQuery inDocuments(Collection<String> ids) {
+    checkNotNull(ids, "ids cannot be null");
+    documentIds = ImmutableSet.copyOf(ids);
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations with a location overlapping the span
+   * {@code [start, end)}. The locations are scanned unless the document is searched with its
+   * interval index, see {@link #search(BioCDocument, BioCIntervalIndex)}.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return this query
+   */
+  public BioCQuery overlapping(int start, int end) {
+    checkArgument(start <= end, "start %s is after end %s", start, end);
+    this.start = start;
+    this.end = end;
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations that satisfy the predicate.
+   *
+   * @param predicate the condition on the annotation
+   * @return this query
+   */
+  public BioCQuery whereAnnotation(Predicate<BioCAnnotation> predicate) {
+    annotationFilters.add(checkNotNull(predicate, "predicate cannot be null"));
+    return this;
+  }
+
+  /**
+   * Restricts this query to the documents that satisfy the predicate.
+   *
+   * @param predicate the condition on the document
+   * @return this query
+   */
+  public BioCQuery whereDocument(Predicate<BioCDocument> predicate) {
+    documentFilters.add(checkNotNull(predicate, "predicate cannot be null"));
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations with the infon.
+   *
+   * @param key   the infon key
+   * @param value the infon value
+   * @return this query
+   */
+  public BioCQuery whereInfon(String key, String value) {
+    checkNotNull(key, "key cannot be null");
+    checkNotNull(value, "value cannot be null");
+    String previous = infons.put(key, value);
+    checkArgument(previous == null || previous.equals(value),
+        "infon %s cannot be both %s and %s", key, previous, value);
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations of the passages that satisfy the predicate, and of
+   * their sentences.
+   *
+   * @param predicate the condition on the passage
+   * @return this query
+   */
+  public BioCQuery wherePassage(Predicate<BioCPassage> predicate) {
+    passageFilters.add(checkNotNull(predicate, "predicate cannot be null"));
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations of the passages with the infon, and of their
+   * sentences.
+   *
+   * @param key   the infon key
+   * @param value the infon value
+   * @return this query
+   */
+  public BioCQuery wherePassageInfon(String key, String value) {
+    checkNotNull(value, "value cannot be null");
+    return wherePassage(passage -> value.equals(passage.getInfons().get(key)));
+  }
+
+  /**
+   * Restricts this query to the annotations of the sentences that satisfy the predicate.
+   *
+   * @param predicate the condition on the sentence
+   * @return this query
+   */
+  public BioCQuery whereSentence(Predicate<BioCSentence> predicate) {
+    sentenceFilters.add(checkNotNull(predicate, "predicate cannot be null"));
+    return this;
+  }
+
+  /**
+   * Restricts this query to the annotations of the sentences with the infon.
+   *
+   * @param key   the infon key
+   * @param value the infon value
+   * @return this query
+   */
+  public BioCQuery whereSentenceInfon(String key, String value) {
+    checkNotNull(value, "value cannot be null");
+    return whereSentence(sentence -> value.equals(sentence.getInfons().get(key)));
+  }
+
+  /**
+   * Restricts this query to the annotations with the text.
+   *
+   * @param text the annotation text
+   * @return this query
+   */
+  public BioCQuery whereText(String text) {
+    checkNotNull(text, "text cannot be null");
+    return whereAnnotation(annotation -> annotation.getTextSequence().isPresent()
+        && text.contentEquals(annotation.getTextSequence().get()));
+  }
+
+  /**
+   * Returns the annotations of the collection that match this query.
+   *
+   * @param collection the BioC collection
+   * @return the matching annotations, in document order
+   */
+  public List<BioCAnnotation> run(BioCCollection collection) {
+    return stream(collection).parallel().collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the annotations of the collection that match this query, visiting only the documents
+   * that the index finds for the infons of the query.
+   *
+   * @param collection the BioC collection
+   * @param index      the infon index of the collection
+   * @return the matching annotations, in document order
+   */
+  public List<BioCAnnotation> run(BioCCollection collection, BioCInfonIndex index) {
+    checkNotNull(collection, "collection cannot be null");
+    checkNotNull(index, "index cannot be null");
+    checkArgument(index.getDocumentCount() == collection.getDocmentCount(),
+        "index has %s documents, collection has %s",
+        index.getDocumentCount(), collection.getDocmentCount());
+    IntStream documents;
+    if (infons.isEmpty()) {
+      documents = IntStream.range(0, collection.getDocmentCount());
+    } else {
+      int[][] postings = new int[infons.size()][];
+      int i = 0;
+      for (Map.Entry<String, String> e : infons.entrySet()) {
+        postings[i++] = index.getAnnotations(e.getKey(), e.getValue());
+      }
+      documents = IntStream.of(index.getDocuments(BioCInfonIndex.and(postings)));
+    }
+    return documents.parallel()
+        .filter(i -> documentIds == null || documentIds.contains(index.getDocumentID(i)))
+        .mapToObj(collection::getDocument)
+        .flatMap(this::search)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the annotations of the file that match this query, searching documents with one
+   * thread per available processor.
+   *
+   * @param path the BioC file
+   * @return the matching annotations, in document order
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   * @see #run(Path, int)
+   */
+  public List<BioCAnnotation> run(Path path)
+      throws IOException, XMLStreamException {
+    return run(path, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Returns the annotations of the file that match this query. The calling thread reads one
+   * document at a time and hands it to a pool of the specified number of threads. At most
+   * {@code 2 * parallelism} documents are read ahead of the oldest unfinished one, so the memory
+   * used does not grow with the file, unlike a parallel stream over the file, which splits it into
+   * ever larger batches.
+   *
+   * @param path        the BioC file
+   * @param parallelism the number of threads
+   * @return the matching annotations, in document order
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public List<BioCAnnotation> run(Path path, int parallelism)
+      throws IOException, XMLStreamException {
+    checkArgument(parallelism > 0, "parallelism has to be > 0");
+    int window = parallelism * 2;
+    List<BioCAnnotation> result = Lists.newArrayList();
+    Deque<Future<List<BioCAnnotation>>> pending = Queues.newArrayDeque();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try (BioCFileIterator<BioCDocument> documents = BioCFileIterator.documents(path)) {
+      while (documents.hasNext()) {
+        BioCDocument document = documents.next();
+        if (pending.size() == window) {
+          result.addAll(pending.removeFirst().get());
+        }
+        pending.addLast(pool.submit(() -> search(document).collect(Collectors.toList())));
+      }
+      while (!pending.isEmpty()) {
+        result.addAll(pending.removeFirst().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("query interrupted", e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return result;
+  }
+
+  /**
+   * Returns a stream over the annotations of the collection that match this query. The stream is
+   * sequential; call {@code parallel()} to search documents concurrently.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the matching annotations, in document order
+   */
+  public Stream<BioCAnnotation> stream(BioCCollection collection) {
+    return BioCStreams.documents(collection).flatMap(this::search);
+  }
+
+  /**
+   * Returns the annotations of the document that match this query.
+   *
+   * @param document the BioC document
+   * @return a stream over the matching annotations
+   */
+  public Stream<BioCAnnotation> search(BioCDocument document) {
+    return search(document, (Set<BioCAnnotation>) null);
+  }
+
+  /**
+   * Returns the annotations of the document that match this query, taking the annotations that
+   * overlap the offset range of this query from the interval index instead of scanning their
+   * locations. Only the annotations of the document are returned, even if the index holds others.
+   * Without an offset range, the index is not used.
+   *
+   * @param document the BioC document
+   * @param index    the interval index of the document
+   * @return a stream over the matching annotations
+   */
+  public Stream<BioCAnnotation> search(BioCDocument document, BioCIntervalIndex index) {
+    checkNotNull(index, "index cannot be null");
+    if (start == Integer.MIN_VALUE && end == Integer.MAX_VALUE) {
+      return search(document);
+    }
+    Set<BioCAnnotation> candidates = Sets.newIdentityHashSet();
+    candidates.addAll(index.getOverlapping(start, end));
+    if (candidates.isEmpty()) {
+      return Stream.empty();
+    }
+    return search(document, candidates);
+  }
+
+  /**
+   * Returns the annotations of the document that match this query. If the candidates are not
+   * null, they replace the check of the offset range.
+   */
+  private Stream<BioCAnnotation> search(BioCDocument document, Set<BioCAnnotation> candidates) {
+    if (documentIds != null && !documentIds.contains(document.getID())
+        || !all(documentFilters, document)) {
+      return Stream.empty();
+    }
+    List<BioCAnnotation> result = Lists.newArrayList();
+    if (passageFilters.isEmpty() && sentenceFilters.isEmpty()) {
+      collect(document, candidates, result);
+    }
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      if (!overlaps(passage) || !all(passageFilters, passage)) {
+        continue;
+      }
+      if (sentenceFilters.isEmpty()) {
+        collect(passage, candidates, result);
+      }
+      for (int j = 0; j < passage.getSentenceCount(); j++) {
+        BioCSentence sentence = passage.getSentence(j);
+        if (overlaps(sentence) && all(sentenceFilters, sentence)) {
+          collect(sentence, candidates, result);
+        }
+      }
+    }
+    return result.stream();
+  }
+
+  private static <T> boolean all(List<Predicate<T>> predicates, T t) {
+    for (Predicate<T> predicate : predicates) {
+      if (!predicate.test(t)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void collect(BioCStructure structure, Set<BioCAnnotation> candidates,
+      List<BioCAnnotation> result) {
+    for (int i = 0; i < structure.getAnnotationCount(); i++) {
+      BioCAnnotation annotation = structure.getAnnotation(i);
+      if (candidates == null ? matches(annotation) : candidates.contains(annotation)
+          && matchesInfons(annotation) && all(annotationFilters, annotation)) {
+        result.add(annotation);
+      }
+    }
+  }
+
+  private boolean matches(BioCAnnotation annotation) {
+    if (!matchesInfons(annotation)) {
+      return false;
+    }
+    if (start != Integer.MIN_VALUE || end != Integer.MAX_VALUE) {
+      boolean overlap = false;
+      Iterator<BioCLocation> itr = annotation.locationIterator();
+      while (!overlap && itr.hasNext()) {
+        BioCLocation location = itr.next();
+        overlap = location.getOffset() < end && start < location.getEnd();
+      }
+      if (!overlap) {
+        return false;
+      }
+    }
+    return all(annotationFilters, annotation);
+  }
+
+  private boolean matchesInfons(BioCAnnotation annotation) {
+    if (!infons.isEmpty()) {
+      Map<String, String> annotationInfons = annotation.getInfons();
+      for (Map.Entry<String, String> e : infons.entrySet()) {
+        if (!Objects.equals(e.getValue(), annotationInfons.get(e.getKey()))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns false if the structure has text that does not overlap the offset range of this query.
+   */
+  private boolean overlaps(BioCStructureWithText structure) {
+    if (start == Integer.MIN_VALUE && end == Integer.MAX_VALUE
+        || !structure.getTextSequence().isPresent()) {
+      return true;
+    }
+    return structure.getOffset() < end && start < structure.getEnd();
+  }
+}
@@ -0,0 +1,296 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCRelation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Graph of the relations of documents, for following relations without scanning the annotation
+ * and relation lists at every step.
+ * <p>
+ * The vertices of the graph of a document are the ids of its relations, at any level, and the
+ * refids of their nodes. Every node of a relation is an undirected edge, labeled with the role of
+ * the node, between the relation and its refid. An annotation is therefore two hops away from the
+ * other annotations of a binary relation. For example, to find everything within two hops of an
+ * annotation,
+ * <p>
+ * <pre>
+ * BioCRelationGraph graph = new BioCRelationGraph(collection);
+ * Map&lt;String, Integer&gt; hops = graph.traverse(&quot;1234&quot;, &quot;T1&quot;, 2);
+ * </pre>
+ * <p>
+ * The adjacency of every document is kept in flat arrays. Relations and nodes added to a document
+ * afterwards are not seen until the document is added again. If several documents have the same
+ * id, the last one added wins. Ids are assumed to be unique within a document.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCRelationGraph {
+
+  private final Map<String, DocumentGraph> documents;
+
+  /**
+   * Creates an empty graph.
+   */
+  public BioCRelationGraph() {
+    documents = Maps.newHashMap();
+  }
+
+  /**
+   * Creates the graph of the relations of the document.
+   *
+   * @param document the BioC document
+   */
+  public BioCRelationGraph(BioCDocument document) {
+    this();
+    add(document);
+  }
+
+  /**
+   * Creates the graph of the relations of all the documents of the collection.
+   *
+   * @param collection the BioC collection
+   */
+  public BioCRelationGraph(BioCCollection collection) {
+    this();
+    for (int i = 0; i < collection.getDocmentCount(); i++) {
+      add(collection.getDocument(i));
+    }
+  }
+
+  /**
+   * Adds the relations of the document, its passages and their sentences to this graph.
+   *
+   * @param document the BioC document
+   */
+  public void add(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    documents.put(document.getID(), new DocumentGraph(document));
+  }
+
+  /**
+   * Returns the ids adjacent to the id: the relations that have a node referring to it and, if it
+   * is a relation, the refids of its nodes.
+   *
+   * @param docId the document id
+   * @param id    the id of an annotation or a relation
+   * @return the adjacent ids, in the order of the relations in the document
+   */
+  public List<String> getNeighbors(String docId, String id) {
+    DocumentGraph graph = documents.get(docId);
+    if (graph == null) {
+      return Collections.emptyList();
+    }
+    Integer v = graph.vertices.get(id);
+    if (v == null) {
+      return Collections.emptyList();
+    }
+    List<String> neighbors = Lists.newArrayList();
+    for (int e = graph.starts[v]; e < graph.starts[v + 1]; e++) {
+      neighbors.add(graph.ids[graph.targets[e]]);
+    }
+    return neighbors;
+  }
+
+  /**
+   * Returns the relations that have a node referring to the id.
+   *
+   * @param docId the document id
+   * @param refid the id of an annotation or a relation
+   * @return the relations that refer to the id, in the order of the relations in the document
+   */
+  public List<BioCRelation> getRelations(String docId, String refid) {
+    return getRelations(docId, refid, role -> true);
+  }
+
+  /**
+   * Returns the relations that have a node referring to the id with the role.
+   *
+   * @param docId the document id
+   * @param refid the id of an annotation or a relation
+   * @param role  the role of the node
+   * @return the relations that refer to the id with the role, in the order of the relations in
+   * the document
+   */
+  public List<BioCRelation> getRelations(String docId, String refid, String role) {
+    checkNotNull(role, "role cannot be null");
+    return getRelations(docId, refid, role::equals);
+  }
+
+  /**
+   * Returns the ids reachable from the id in at most {@code maxHops} hops, with their distance.
+   *
+   * @param docId   the document id
+   * @param id      the id of an annotation or a relation
+   * @param maxHops the largest number of hops
+   * @return the reachable ids, including the id itself at distance 0, in breadth-first order
+   */
+  public Map<String, Integer> traverse(String docId, String id, int maxHops) {
+    return traverse(docId, id, maxHops, role -> true);
+  }
+
+  /**
+   * Returns the ids reachable from the id in at most {@code maxHops} hops, following only the
+   * nodes whose role is accepted by the filter, with their distance.
+   *
+   * @param docId   the document id
+   * @param id      the id of an annotation or a relation
+   * @param maxHops the largest number of hops
+   * @param roles   the roles of the nodes to follow
+   * @return the reachable ids, including the id itself at distance 0, in breadth-first order
+   */
+  public Map<String, Integer> traverse(String docId, String id, int maxHops,
+      Predicate<String> roles) {
+    checkArgument(maxHops >= 0, "maxHops cannot be negative: %s", maxHops);
+    checkNotNull(roles, "roles cannot be null");
+    Map<String, Integer> result = new LinkedHashMap<>();
+    DocumentGraph graph = documents.get(docId);
+    Integer source = graph == null ? null : graph.vertices.get(id);
+    if (source == null) {
+      return result;
+    }
+    int[] hops = new int[graph.ids.length];
+    Arrays.fill(hops, -1);
+    int[] queue = new int[graph.ids.length];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = source;
+    hops[source] = 0;
+    while (head < tail) {
+      int v = queue[head++];
+      result.put(graph.ids[v], hops[v]);
+      if (hops[v] == maxHops) {
+        continue;
+      }
+      for (int e = graph.starts[v]; e < graph.starts[v + 1]; e++) {
+        int w = graph.targets[e];
+        if (hops[w] < 0 && roles.test(graph.roles[e])) {
+          hops[w] = hops[v] + 1;
+          queue[tail++] = w;
+        }
+      }
+    }
+    return result;
+  }
+
+  private List<BioCRelation> getRelations(String docId, String refid, Predicate<String> roles) {
+    DocumentGraph graph = documents.get(docId);
+    if (graph == null) {
+      return Collections.emptyList();
+    }
+    Integer v = graph.vertices.get(refid);
+    if (v == null) {
+      return Collections.emptyList();
+    }
+    List<BioCRelation> relations = Lists.newArrayList();
+    for (int e = graph.starts[v]; e < graph.starts[v + 1]; e++) {
+      if (graph.incoming[e] && roles.test(graph.roles[e])) {
+        relations.add(graph.relations[graph.targets[e]]);
+      }
+    }
+    return relations;
+  }
+
+  /**
+   * Adjacency of the relations of one document, in compressed sparse row form.
+   */
+  private static final class DocumentGraph {
+
+    private final Map<String, Integer> vertices;
+    private final String[] ids;
+    /**
+     * Relation of each vertex, or null if the vertex is not a relation of the document.
+     */
+    private final BioCRelation[] relations;
+    /**
+     * Edges of vertex v are at positions starts[v] to starts[v + 1] - 1.
+     */
+    private final int[] starts;
+    private final int[] targets;
+    private final String[] roles;
+    /**
+     * Whether the target of the edge is a relation with a node referring to the vertex.
+     */
+    private final boolean[] incoming;
+
+    DocumentGraph(BioCDocument document) {
+      vertices = Maps.newHashMap();
+      List<String> idList = Lists.newArrayList();
+      List<BioCRelation> relationList = Lists.newArrayList();
+      BioCRelationIterator itr = new BioCRelationIterator(document);
+      while (itr.hasNext()) {
+        BioCRelation relation = itr.next();
+        if (vertex(relation.getID(), idList) == relationList.size()) {
+          relationList.add(relation);
+        }
+      }
+      int relationCount = relationList.size();
+      int edgeCount = 0;
+      for (BioCRelation relation : relationList) {
+        for (BioCNode node : relation.getNodes()) {
+          vertex(node.getRefid(), idList);
+          edgeCount++;
+        }
+      }
+      ids = idList.toArray(new String[idList.size()]);
+      relations = relationList.toArray(new BioCRelation[ids.length]);
+
+      // every node is an outgoing edge of its relation and an incoming edge of its refid
+      int[] sources = new int[edgeCount];
+      int[] nodeTargets = new int[edgeCount];
+      String[] nodeRoles = new String[edgeCount];
+      starts = new int[ids.length + 1];
+      int e = 0;
+      for (int r = 0; r < relationCount; r++) {
+        for (BioCNode node : relations[r].getNodes()) {
+          sources[e] = r;
+          nodeTargets[e] = vertices.get(node.getRefid());
+          nodeRoles[e] = node.getRole();
+          starts[r + 1]++;
+          starts[nodeTargets[e] + 1]++;
+          e++;
+        }
+      }
+      for (int v = 0; v < ids.length; v++) {
+        starts[v + 1] += starts[v];
+      }
+      int[] next = Arrays.copyOf(starts, ids.length);
+      targets = new int[edgeCount << 1];
+      roles = new String[edgeCount << 1];
+      incoming = new boolean[edgeCount << 1];
+      for (e = 0; e < edgeCount; e++) {
+        int out = next[sources[e]]++;
+        targets[out] = nodeTargets[e];
+        roles[out] = nodeRoles[e];
+        int in = next[nodeTargets[e]]++;
+        targets[in] = sources[e];
+        roles[in] = nodeRoles[e];
+        incoming[in] = true;
+      }
+    }
+
+    private int vertex(String id, List<String> idList) {
+      Integer v = vertices.get(id);
+      if (v == null) {
+        v = idList.size();
+        vertices.put(id, v);
+        idList.add(id);
+      }
+      return v;
+    }
+  }
+}
@@ -87,23 +87,19 @@ public class BioCRelationIterator implements Iterator<BioCRelation>, BioCIterato
 
   @Override
   public boolean hasNext() {
-    if (relationItr.hasNext()) {
-      return true;
-    } else if (documentItr.hasNext()) {
-      BioCDocument doc = documentItr.next();
-      relationItr = doc.getRelations().iterator();
-      return hasNext();
-    } else if (passageItr.hasNext()) {
-      BioCPassage passage = passageItr.next();
-      relationItr = passage.getRelations().iterator();
-      return hasNext();
-    } else if (sentenceItr.hasNext()) {
-      BioCSentence sentence = sentenceItr.next();
-      relationItr = sentence.getRelations().iterator();
-      return hasNext();
-    } else {
-      return false;
+    // loop rather than recurse, so long runs of structures without relations cannot overflow
+    while (!relationItr.hasNext()) {
+      if (documentItr.hasNext()) {
+        relationItr = documentItr.next().relationIterator();
+      } else if (passageItr.hasNext()) {
+        relationItr = passageItr.next().relationIterator();
+      } else if (sentenceItr.hasNext()) {
+        relationItr = sentenceItr.next().relationIterator();
+      } else {
+        return false;
+      }
     }
+    return true;
   }
 
   @Override
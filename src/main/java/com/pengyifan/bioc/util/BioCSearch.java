@@ -1,34 +1,24 @@
 package com.pengyifan.bioc.util;
 
-import com.google.common.collect.Maps;
 import com.pengyifan.bioc.BioCCollection;
-import com.pengyifan.bioc.BioCDocument;
 import com.pengyifan.bioc.BioCSentence;
-import org.javatuples.Pair;
 
-import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Finds a sentence by its document id and exact offset.
+ *
+ * @see BioCLocator
+ */
 public class BioCSearch {
 
-  /**
-   * (doc id, sentence offset) --> sentence
-   */
-  private Map<Pair<String, Integer>, BioCSentence> sentences;
+  private final BioCLocator locator;
 
   public BioCSearch(BioCCollection collection) {
-    sentences = Maps.newHashMap();
-    BioCSentenceIterator itr = new BioCSentenceIterator(collection);
-    while (itr.hasNext()) {
-      BioCSentence sentence = itr.next();
-      BioCDocument document = itr.getDocument();
-      Pair<String, Integer> key = Pair.with(document.getID(), sentence.getOffset());
-      sentences.put(key, sentence);
-    }
+    locator = new BioCLocator(collection);
   }
 
   public Optional<BioCSentence> getSentence(String docId, int sentenceOffset) {
-    Pair<String, Integer> key = Pair.with(docId, sentenceOffset);
-    return Optional.ofNullable(sentences.get(key));
+    return locator.getSentenceAt(docId, sentenceOffset);
   }
 }
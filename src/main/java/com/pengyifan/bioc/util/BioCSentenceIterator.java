@@ -41,7 +41,7 @@ public class BioCSentenceIterator implements Iterator<BioCSentence>, BioCIterato
     this.passageItr = passageItr;
     if (passageItr.hasNext()) {
       currentPassage = passageItr.next();
-      sentenceItr = currentPassage.getSentences().iterator();
+      sentenceItr = currentPassage.sentenceIterator();
     } else {
       currentPassage = null;
       sentenceItr = Collections.emptyIterator();
@@ -106,15 +106,14 @@ public class BioCSentenceIterator implements Iterator<BioCSentence>, BioCIterato
 
   @Override
   public boolean hasNext() {
-    if (sentenceItr.hasNext()) {
-      return true;
-    } else if (passageItr.hasNext()) {
+    while (!sentenceItr.hasNext()) {
+      if (!passageItr.hasNext()) {
+        return false;
+      }
       currentPassage = passageItr.next();
-      sentenceItr = currentPassage.getSentences().iterator();
-      return hasNext();
-    } else {
-      return false;
+      sentenceItr = currentPassage.sentenceIterator();
     }
+    return true;
   }
 
   @Override
@@ -0,0 +1,348 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Streams over the documents, passages, sentences, annotations and relations of a collection or a
+ * document, in document order: the elements of a document come first, then for every passage the
+ * elements of the passage followed by the elements of its sentences.
+ * <p>
+ * The streams are sequential, but their spliterators split on document and passage boundaries and
+ * know their exact sizes, so {@code parallel()} spreads the elements evenly over the cores. For
+ * example,
+ * <p>
+ * <pre>
+ * Map&lt;String, Long&gt; types = BioCStreams.annotations(collection)
+ *     .parallel()
+ *     .collect(Collectors.groupingBy(a -&gt; a.getInfon("type").orElse(""),
+ *         Collectors.counting()));
+ * </pre>
+ * <p>
+ * The sizes are counted when the stream is created, in one pass over the documents and passages.
+ * The documents of a collection are fetched with {@link BioCCollection#getDocument(int)} when they
+ * are counted and again when they are traversed, and are not held by the stream, so that a
+ * {@link com.pengyifan.bioc.io.BioCPagedCollection} can evict them in between. The collection
+ * must not be modified while a stream is in use.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCStreams {
+
+  private BioCStreams() {
+  }
+
+  /**
+   * Returns a stream over the annotations of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the annotations of the collection
+   */
+  public static Stream<BioCAnnotation> annotations(BioCCollection collection) {
+    return stream(collection, Kind.ANNOTATION);
+  }
+
+  /**
+   * Returns a stream over the annotations of the document.
+   *
+   * @param document the BioC document
+   * @return a stream over the annotations of the document
+   */
+  public static Stream<BioCAnnotation> annotations(BioCDocument document) {
+    return stream(document, Kind.ANNOTATION);
+  }
+
+  /**
+   * Returns a stream over the documents of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the documents of the collection
+   */
+  public static Stream<BioCDocument> documents(BioCCollection collection) {
+    checkNotNull(collection, "collection cannot be null");
+    return IntStream.range(0, collection.getDocmentCount()).mapToObj(collection::getDocument);
+  }
+
+  /**
+   * Returns a stream over the passages of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the passages of the collection
+   */
+  public static Stream<BioCPassage> passages(BioCCollection collection) {
+    return stream(collection, Kind.PASSAGE);
+  }
+
+  /**
+   * Returns a stream over the relations of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the relations of the collection
+   */
+  public static Stream<BioCRelation> relations(BioCCollection collection) {
+    return stream(collection, Kind.RELATION);
+  }
+
+  /**
+   * Returns a stream over the relations of the document.
+   *
+   * @param document the BioC document
+   * @return a stream over the relations of the document
+   */
+  public static Stream<BioCRelation> relations(BioCDocument document) {
+    return stream(document, Kind.RELATION);
+  }
+
+  /**
+   * Returns a stream over the sentences of the collection.
+   *
+   * @param collection the BioC collection
+   * @return a stream over the sentences of the collection
+   */
+  public static Stream<BioCSentence> sentences(BioCCollection collection) {
+    return stream(collection, Kind.SENTENCE);
+  }
+
+  /**
+   * Returns a stream over the sentences of the document.
+   *
+   * @param document the BioC document
+   * @return a stream over the sentences of the document
+   */
+  public static Stream<BioCSentence> sentences(BioCDocument document) {
+    return stream(document, Kind.SENTENCE);
+  }
+
+  private static <T> Stream<T> stream(BioCCollection collection, Kind kind) {
+    checkNotNull(collection, "collection cannot be null");
+    return stream(collection::getDocument, collection.getDocmentCount(), kind);
+  }
+
+  private static <T> Stream<T> stream(BioCDocument document, Kind kind) {
+    checkNotNull(document, "document cannot be null");
+    return stream(i -> document, 1, kind);
+  }
+
+  private static <T> Stream<T> stream(IntFunction<BioCDocument> documents, int size, Kind kind) {
+    return StreamSupport.stream(new StructureSpliterator<>(documents, size, kind), false);
+  }
+
+  private enum Kind {
+    PASSAGE, SENTENCE, ANNOTATION, RELATION
+  }
+
+  /**
+   * Spliterator over units of work, each a document or a passage, that splits between units so
+   * that both halves have about the same number of elements.
+   */
+  private static final class StructureSpliterator<T> implements Spliterator<T> {
+
+    /**
+     * Returns the document at a position.
+     */
+    private final IntFunction<BioCDocument> documents;
+    private final Kind kind;
+    private final int[] unitDocuments;
+    /**
+     * Passage of every unit, or -1 for the document itself.
+     */
+    private final int[] unitPassages;
+    /**
+     * Number of elements in the units before every unit.
+     */
+    private final long[] prefix;
+    private final int fence;
+
+    private int unit;
+    private long remaining;
+    /**
+     * Current structure in the unit, or null if the unit has not started.
+     */
+    private Object structure;
+    private int sentence;
+    private int index;
+    /**
+     * Document of the current unit, kept while its units are traversed, and its position.
+     */
+    private BioCDocument document;
+    private int documentIndex = -1;
+
+    StructureSpliterator(IntFunction<BioCDocument> documents, int size, Kind kind) {
+      this.documents = documents;
+      this.kind = kind;
+      // grow the arrays in one pass, so that every document is fetched once
+      int[] unitDocuments = new int[size];
+      int[] unitPassages = new int[size];
+      long[] prefix = new long[size + 1];
+      int u = 0;
+      for (int d = 0; d < size; d++) {
+        BioCDocument document = documents.apply(d);
+        int units = kind == Kind.PASSAGE ? 1 : kind == Kind.SENTENCE
+            ? document.getPassageCount()
+            : document.getPassageCount() + 1;
+        if (u + units > unitDocuments.length) {
+          int capacity = Math.max(u + units, unitDocuments.length << 1);
+          unitDocuments = Arrays.copyOf(unitDocuments, capacity);
+          unitPassages = Arrays.copyOf(unitPassages, capacity);
+          prefix = Arrays.copyOf(prefix, capacity + 1);
+        }
+        if (kind != Kind.SENTENCE) {
+          unitDocuments[u] = d;
+          unitPassages[u] = -1;
+          prefix[u + 1] = prefix[u] + (kind == Kind.PASSAGE
+              ? document.getPassageCount()
+              : count(document));
+          u++;
+        }
+        if (kind != Kind.PASSAGE) {
+          for (int p = 0; p < document.getPassageCount(); p++) {
+            BioCPassage passage = document.getPassage(p);
+            unitDocuments[u] = d;
+            unitPassages[u] = p;
+            long count = passage.getSentenceCount();
+            if (kind != Kind.SENTENCE) {
+              count = count(passage);
+              for (int s = 0; s < passage.getSentenceCount(); s++) {
+                count += count(passage.getSentence(s));
+              }
+            }
+            prefix[u + 1] = prefix[u] + count;
+            u++;
+          }
+        }
+      }
+      this.unitDocuments = unitDocuments;
+      this.unitPassages = unitPassages;
+      this.prefix = prefix;
+      this.unit = 0;
+      this.fence = u;
+      this.remaining = prefix[u];
+    }
+
+    private StructureSpliterator(StructureSpliterator<T> parent, int origin, int fence) {
+      documents = parent.documents;
+      kind = parent.kind;
+      unitDocuments = parent.unitDocuments;
+      unitPassages = parent.unitPassages;
+      prefix = parent.prefix;
+      this.unit = origin;
+      this.fence = fence;
+      this.remaining = prefix[fence] - prefix[origin];
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+    @Override
+    public long estimateSize() {
+      return remaining;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      checkNotNull(action, "action cannot be null");
+      while (unit < fence) {
+        if (structure == null) {
+          startUnit();
+        }
+        if (index < size(structure)) {
+          action.accept(get(structure, index++));
+          remaining--;
+          return true;
+        }
+        if ((kind == Kind.ANNOTATION || kind == Kind.RELATION) && unitPassages[unit] >= 0) {
+          BioCPassage passage = document.getPassage(unitPassages[unit]);
+          if (sentence + 1 < passage.getSentenceCount()) {
+            structure = passage.getSentence(++sentence);
+            index = 0;
+            continue;
+          }
+        }
+        unit++;
+        structure = null;
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      if (structure != null || fence - unit < 2) {
+        return null;
+      }
+      long target = (prefix[unit] + prefix[fence]) >>> 1;
+      int lo = unit + 1;
+      int hi = fence - 1;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (prefix[mid] < target) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      StructureSpliterator<T> prefixSpliterator = new StructureSpliterator<>(this, unit, lo);
+      unit = lo;
+      remaining = prefix[fence] - prefix[lo];
+      return prefixSpliterator;
+    }
+
+    private int count(BioCStructure structure) {
+      return kind == Kind.ANNOTATION
+          ? structure.getAnnotationCount()
+          : structure.getRelationCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(Object structure, int i) {
+      switch (kind) {
+      case PASSAGE:
+        return (T) ((BioCDocument) structure).getPassage(i);
+      case SENTENCE:
+        return (T) ((BioCPassage) structure).getSentence(i);
+      case ANNOTATION:
+        return (T) ((BioCStructure) structure).getAnnotation(i);
+      default:
+        return (T) ((BioCStructure) structure).getRelation(i);
+      }
+    }
+
+    private int size(Object structure) {
+      switch (kind) {
+      case PASSAGE:
+        return ((BioCDocument) structure).getPassageCount();
+      case SENTENCE:
+        return ((BioCPassage) structure).getSentenceCount();
+      default:
+        return count((BioCStructure) structure);
+      }
+    }
+
+    private void startUnit() {
+      if (documentIndex != unitDocuments[unit]) {
+        documentIndex = unitDocuments[unit];
+        document = documents.apply(documentIndex);
+      }
+      structure = unitPassages[unit] < 0 ? document : document.getPassage(unitPassages[unit]);
+      sentence = -1;
+      index = 0;
+    }
+  }
+}
@@ -0,0 +1,467 @@
+package com.pengyifan.bioc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCStructureWithText;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Full-text index over the passage and sentence texts of a collection, to find every occurrence
+ * of a string without scanning the texts.
+ * <p>
+ * The text of a passage is indexed, or the texts of its sentences if the passage has no text. The
+ * documents are split into shards of consecutive documents, and every shard keeps its texts and
+ * their suffix array, so that the occurrences of a string are found by binary search in
+ * O(m log n) for a string of length m. Shards are built and searched in parallel. For example,
+ * <p>
+ * <pre>
+ * BioCTextIndex index = BioCTextIndex.build(collection);
+ * for (BioCTextIndex.Hit hit : index.search("aspirin")) {
+ *   System.out.println(hit.getDocumentID() + " " + hit.getOffset());
+ * }
+ * </pre>
+ * <p>
+ * Hits carry the absolute BioC offset of the occurrence, so they can be compared with annotation
+ * locations. The index can be written to a file and read back without the collection. It is
+ * immutable, and searches may run concurrently.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCTextIndex {
+
+  private static final int MAGIC = 0x42695478;
+  private static final int VERSION = 1;
+  private static final int SHARD_SIZE = 1024;
+  /**
+   * Ends every text in a shard, so that no occurrence spans two texts. It is not allowed in XML.
+   */
+  private static final char SEPARATOR = '\0';
+
+  private final String[] documentIds;
+  private final Shard[] shards;
+
+  private BioCTextIndex(String[] documentIds, Shard[] shards) {
+    this.documentIds = documentIds;
+    this.shards = shards;
+  }
+
+  /**
+   * Builds the index of the texts of all the documents of the collection, building shards in
+   * parallel.
+   *
+   * @param collection the BioC collection
+   * @return the index
+   */
+  public static BioCTextIndex build(BioCCollection collection) {
+    checkNotNull(collection, "collection cannot be null");
+    int n = collection.getDocmentCount();
+    String[] documentIds = new String[n];
+    for (int i = 0; i < n; i++) {
+      documentIds[i] = collection.getDocument(i).getID();
+    }
+    Shard[] shards = IntStream.range(0, (n + SHARD_SIZE - 1) / SHARD_SIZE)
+        .parallel()
+        .mapToObj(s -> Shard.build(collection, s * SHARD_SIZE, Math.min(n, (s + 1) * SHARD_SIZE)))
+        .toArray(Shard[]::new);
+    return new BioCTextIndex(documentIds, shards);
+  }
+
+  /**
+   * Reads an index written by {@link #write(Path)}.
+   *
+   * @param path the file to read from
+   * @return the index
+   * @throws IOException if an I/O exception of some sort has occurred, or if the file is not an
+   *                     index
+   */
+  public static BioCTextIndex read(Path path)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a text index: " + path);
+      }
+      String[] documentIds = new String[in.readInt()];
+      for (int i = 0; i < documentIds.length; i++) {
+        documentIds[i] = IndexIO.readString(in);
+      }
+      Shard[] shards = new Shard[in.readInt()];
+      for (int i = 0; i < shards.length; i++) {
+        shards[i] = new Shard(IndexIO.readChars(in), IndexIO.readInts(in), IndexIO.readInts(in),
+            IndexIO.readInts(in), IndexIO.readInts(in));
+      }
+      return new BioCTextIndex(documentIds, shards);
+    }
+  }
+
+  /**
+   * Returns the number of occurrences of the string.
+   *
+   * @param s the string to find
+   * @return the number of occurrences of the string
+   */
+  public int count(String s) {
+    checkArgument(checkNotNull(s, "string cannot be null").length() > 0, "string is empty");
+    if (s.indexOf(SEPARATOR) >= 0) {
+      return 0;
+    }
+    return Arrays.stream(shards)
+        .parallel()
+        .mapToInt(shard -> {
+          int[] range = shard.range(s);
+          return range[1] - range[0];
+        })
+        .sum();
+  }
+
+  /**
+   * Returns the number of documents in this index.
+   *
+   * @return the number of documents in this index
+   */
+  public int getDocumentCount() {
+    return documentIds.length;
+  }
+
+  /**
+   * Returns the id of the document.
+   *
+   * @param document the document number
+   * @return the id of the document
+   */
+  public String getDocumentID(int document) {
+    checkElementIndex(document, documentIds.length);
+    return documentIds[document];
+  }
+
+  /**
+   * Returns the occurrences of the string, in document order and then by offset. Occurrences may
+   * overlap.
+   *
+   * @param s the string to find
+   * @return the occurrences of the string
+   */
+  public List<Hit> search(String s) {
+    checkArgument(checkNotNull(s, "string cannot be null").length() > 0, "string is empty");
+    if (s.indexOf(SEPARATOR) >= 0) {
+      return Collections.emptyList();
+    }
+    return Arrays.stream(shards)
+        .parallel()
+        .flatMap(shard -> shard.search(s, documentIds).stream())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Writes this index to a file.
+   *
+   * @param path the file to write to
+   * @throws IOException if an I/O exception of some sort has occurred
+   */
+  public void write(Path path)
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(documentIds.length);
+      for (String documentId : documentIds) {
+        IndexIO.writeString(out, documentId);
+      }
+      out.writeInt(shards.length);
+      for (Shard shard : shards) {
+        IndexIO.writeChars(out, shard.text);
+        IndexIO.writeInts(out, shard.suffixes);
+        IndexIO.writeInts(out, shard.segmentStarts);
+        IndexIO.writeInts(out, shard.segmentOffsets);
+        IndexIO.writeInts(out, shard.segmentDocuments);
+      }
+    }
+  }
+
+  /**
+   * Returns the suffix array of the text: the start positions of its suffixes, in lexicographic
+   * order. Suffixes are sorted by prefix doubling with counting sorts, in O(n log n).
+   */
+  static int[] suffixArray(char[] text) {
+    int n = text.length;
+    int[] suffixes = new int[n];
+    if (n == 0) {
+      return suffixes;
+    }
+    int[] rank = new int[n];
+    int[] tmp = new int[n];
+    int[] count = new int[Math.max(Character.MAX_VALUE + 1, n)];
+    for (char c : text) {
+      count[c]++;
+    }
+    for (int c = 1; c <= Character.MAX_VALUE; c++) {
+      count[c] += count[c - 1];
+    }
+    for (int i = n - 1; i >= 0; i--) {
+      suffixes[--count[text[i]]] = i;
+    }
+    int classes = 1;
+    rank[suffixes[0]] = 0;
+    for (int i = 1; i < n; i++) {
+      if (text[suffixes[i]] != text[suffixes[i - 1]]) {
+        classes++;
+      }
+      rank[suffixes[i]] = classes - 1;
+    }
+    for (int k = 1; classes < n; k <<= 1) {
+      // order by the rank of the second half: suffixes shorter than k first
+      int p = 0;
+      for (int i = Math.max(0, n - k); i < n; i++) {
+        tmp[p++] = i;
+      }
+      for (int i = 0; i < n; i++) {
+        if (suffixes[i] >= k) {
+          tmp[p++] = suffixes[i] - k;
+        }
+      }
+      // stable sort by the rank of the first half
+      Arrays.fill(count, 0, classes, 0);
+      for (int i = 0; i < n; i++) {
+        count[rank[i]]++;
+      }
+      for (int c = 1; c < classes; c++) {
+        count[c] += count[c - 1];
+      }
+      for (int i = n - 1; i >= 0; i--) {
+        suffixes[--count[rank[tmp[i]]]] = tmp[i];
+      }
+      tmp[suffixes[0]] = 0;
+      classes = 1;
+      for (int i = 1; i < n; i++) {
+        int a = suffixes[i - 1];
+        int b = suffixes[i];
+        if (rank[a] != rank[b]
+            || (a + k < n ? rank[a + k] : -1) != (b + k < n ? rank[b + k] : -1)) {
+          classes++;
+        }
+        tmp[b] = classes - 1;
+      }
+      int[] swap = rank;
+      rank = tmp;
+      tmp = swap;
+    }
+    return suffixes;
+  }
+
+  /**
+   * An occurrence of a string in the index.
+   */
+  public static final class Hit {
+
+    private final int document;
+    private final String documentId;
+    private final int offset;
+
+    Hit(int document, String documentId, int offset) {
+      this.document = document;
+      this.documentId = documentId;
+      this.offset = offset;
+    }
+
+    /**
+     * Returns the number of the document, which is its index in the indexed collection.
+     *
+     * @return the number of the document
+     */
+    public int getDocument() {
+      return document;
+    }
+
+    /**
+     * Returns the id of the document.
+     *
+     * @return the id of the document
+     */
+    public String getDocumentID() {
+      return documentId;
+    }
+
+    /**
+     * Returns the absolute offset of the occurrence.
+     *
+     * @return the absolute offset of the occurrence
+     */
+    public int getOffset() {
+      return offset;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof Hit)) {
+        return false;
+      }
+      Hit rhs = (Hit) obj;
+      return document == rhs.document
+          && offset == rhs.offset
+          && Objects.equals(documentId, rhs.documentId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(document, documentId, offset);
+    }
+
+    @Override
+    public String toString() {
+      return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).
+          append("document", documentId).
+          append("offset", offset).
+          toString();
+    }
+  }
+
+  /**
+   * The texts of a range of documents, each followed by the separator, and their suffix array.
+   */
+  private static final class Shard {
+
+    private final char[] text;
+    private final int[] suffixes;
+    /**
+     * Position of every text in {@link #text}.
+     */
+    private final int[] segmentStarts;
+    /**
+     * Absolute offset of every text.
+     */
+    private final int[] segmentOffsets;
+    private final int[] segmentDocuments;
+
+    Shard(char[] text, int[] suffixes, int[] segmentStarts, int[] segmentOffsets,
+        int[] segmentDocuments) {
+      this.text = text;
+      this.suffixes = suffixes;
+      this.segmentStarts = segmentStarts;
+      this.segmentOffsets = segmentOffsets;
+      this.segmentDocuments = segmentDocuments;
+    }
+
+    static Shard build(BioCCollection collection, int from, int to) {
+      StringBuilder sb = new StringBuilder();
+      List<Integer> starts = Lists.newArrayList();
+      List<Integer> offsets = Lists.newArrayList();
+      List<Integer> documents = Lists.newArrayList();
+      for (int d = from; d < to; d++) {
+        BioCDocument document = collection.getDocument(d);
+        for (int i = 0; i < document.getPassageCount(); i++) {
+          BioCPassage passage = document.getPassage(i);
+          if (passage.getTextSequence().isPresent()) {
+            append(sb, passage, d, starts, offsets, documents);
+          } else {
+            for (int j = 0; j < passage.getSentenceCount(); j++) {
+              append(sb, passage.getSentence(j), d, starts, offsets, documents);
+            }
+          }
+        }
+      }
+      char[] text = new char[sb.length()];
+      sb.getChars(0, text.length, text, 0);
+      return new Shard(text, suffixArray(text), Ints.toArray(starts), Ints.toArray(offsets),
+          Ints.toArray(documents));
+    }
+
+    private static void append(StringBuilder sb, BioCStructureWithText structure, int document,
+        List<Integer> starts, List<Integer> offsets, List<Integer> documents) {
+      Optional<CharSequence> text = structure.getTextSequence();
+      if (!text.isPresent() || text.get().length() == 0) {
+        return;
+      }
+      starts.add(sb.length());
+      offsets.add(structure.getOffset());
+      documents.add(document);
+      sb.append(text.get()).append(SEPARATOR);
+    }
+
+    /**
+     * Compares the suffix at the position with the string, up to the length of the string.
+     */
+    private int compare(int position, String s) {
+      int n = Math.min(s.length(), text.length - position);
+      for (int i = 0; i < n; i++) {
+        int c = text[position + i] - s.charAt(i);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return n == s.length() ? 0 : -1;
+    }
+
+    /**
+     * Returns the range of the suffix array whose suffixes start with the string.
+     */
+    int[] range(String s) {
+      int lo = 0;
+      int hi = suffixes.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (compare(suffixes[mid], s) < 0) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      int start = lo;
+      hi = suffixes.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (compare(suffixes[mid], s) <= 0) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return new int[] {start, lo};
+    }
+
+    List<Hit> search(String s, String[] documentIds) {
+      int[] range = range(s);
+      int[] positions = Arrays.copyOfRange(suffixes, range[0], range[1]);
+      Arrays.sort(positions);
+      List<Hit> hits = Lists.newArrayListWithCapacity(positions.length);
+      int segment = 0;
+      for (int position : positions) {
+        while (segment + 1 < segmentStarts.length && segmentStarts[segment + 1] <= position) {
+          segment++;
+        }
+        int document = segmentDocuments[segment];
+        hits.add(new Hit(document, documentIds[document],
+            segmentOffsets[segment] + position - segmentStarts[segment]));
+      }
+      return hits;
+    }
+  }
+}
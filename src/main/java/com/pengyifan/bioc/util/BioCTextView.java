@@ -0,0 +1,255 @@
+package com.pengyifan.bioc.util;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.pengyifan.bioc.util.BioCLog.log;
+
+/**
+ * The text of a document or a passage as a {@link CharSequence}, without copying it.
+ * <p>
+ * The view is the same text that {@link BioCUtils#getText(BioCDocument)} builds: the text of every
+ * passage, or the texts of its sentences if the passage has no text, at its offset, with new
+ * lines in between. The view only keeps the passage and sentence texts and their offsets, and
+ * finds a character by binary search over them. Since annotation locations are absolute, the view
+ * also knows the offset of its first character, and
+ * {@link #regionMatches(int, CharSequence, int, int)} compares annotation text at a location
+ * without creating strings. For example,
+ * <p>
+ * <pre>
+ * BioCTextView text = BioCTextView.of(document);
+ * BioCLocation location = annotation.getTotalLocation();
+ * boolean ok = text.regionMatches(location.getOffset(), annotation.getTextSequence().get(), 0,
+ *     location.getLength());
+ * </pre>
+ * <p>
+ * The view reflects the passages and sentences when it was created; it must be created again if
+ * they are added, removed or moved.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCTextView implements CharSequence {
+
+  private static final char GAP = '\n';
+
+  private final int offset;
+  /**
+   * Index of every text in this view.
+   */
+  private final int[] starts;
+  private final CharSequence[] texts;
+  private final int size;
+  private final int length;
+
+  private BioCTextView(int offset, int[] starts, CharSequence[] texts, int size, int length) {
+    this.offset = offset;
+    this.starts = starts;
+    this.texts = texts;
+    this.size = size;
+    this.length = length;
+  }
+
+  /**
+   * Returns the text of the document, starting at offset 0.
+   *
+   * @param document the BioC document
+   * @return the text of the document
+   * @throws IllegalArgumentException if passages or sentences overlap
+   */
+  public static BioCTextView of(BioCDocument document) {
+    checkNotNull(document, "document cannot be null");
+    Builder builder = new Builder(0);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      if (builder.end() > passage.getOffset()) {
+        throw new IllegalArgumentException(String.format(
+            "The %s is overlapped with previous text.", log(document, passage)));
+      }
+      builder.append(passage);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the text of the passage, starting at the offset of the passage.
+   *
+   * @param passage the BioC passage
+   * @return the text of the passage
+   * @throws IllegalArgumentException if sentences overlap
+   */
+  public static BioCTextView of(BioCPassage passage) {
+    checkNotNull(passage, "passage cannot be null");
+    Builder builder = new Builder(passage.getOffset());
+    builder.append(passage);
+    return builder.build();
+  }
+
+  /**
+   * Returns a view of the text, starting at the offset.
+   */
+  static BioCTextView of(int offset, CharSequence text) {
+    Builder builder = new Builder(offset);
+    builder.append(text);
+    return builder.build();
+  }
+
+  @Override
+  public char charAt(int index) {
+    checkElementIndex(index, length);
+    return charAt(index, segment(index));
+  }
+
+  /**
+   * Returns the offset of the first character of this view.
+   *
+   * @return the offset of the first character of this view
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Tests if a region of this view, starting at an absolute offset, equals a region of the
+   * character sequence.
+   *
+   * @param offset the offset of the region in this view
+   * @param s      the character sequence
+   * @param start  the start of the region in the character sequence
+   * @param len    the number of characters to compare
+   * @return true if both regions are within bounds and equal
+   */
+  public boolean regionMatches(int offset, CharSequence s, int start, int len) {
+    checkNotNull(s, "character sequence cannot be null");
+    int index = offset - this.offset;
+    if (index < 0 || start < 0 || len < 0 || index > length - len || start > s.length() - len) {
+      return false;
+    }
+    int segment = segment(index);
+    for (int i = 0; i < len; i++, index++) {
+      while (segment + 1 < size && starts[segment + 1] <= index) {
+        segment++;
+      }
+      if (charAt(index, segment) != s.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String subSequence(int start, int end) {
+    checkPositionIndexes(start, end, length);
+    StringBuilder sb = new StringBuilder(end - start);
+    int segment = segment(start);
+    for (int index = start; index < end; index++) {
+      while (segment + 1 < size && starts[segment + 1] <= index) {
+        segment++;
+      }
+      sb.append(charAt(index, segment));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return subSequence(0, length);
+  }
+
+  /**
+   * Returns the character at the index, which is after the start of the segment.
+   */
+  private char charAt(int index, int segment) {
+    if (segment >= 0 && index - starts[segment] < texts[segment].length()) {
+      return texts[segment].charAt(index - starts[segment]);
+    }
+    return GAP;
+  }
+
+  /**
+   * Returns the last text that starts at or before the index, or -1.
+   */
+  private int segment(int index) {
+    int lo = 0;
+    int hi = size - 1;
+    int found = -1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (starts[mid] <= index) {
+        found = mid;
+        lo = mid + 1;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return found;
+  }
+
+  private static final class Builder {
+
+    private final int offset;
+    private int[] starts = new int[8];
+    private CharSequence[] texts = new CharSequence[8];
+    private int size;
+    private int length;
+
+    Builder(int offset) {
+      this.offset = offset;
+    }
+
+    void append(BioCPassage passage) {
+      padTo(passage.getOffset());
+      Optional<CharSequence> text = passage.getTextSequence();
+      if (text.isPresent() && text.get().length() != 0 && passage.getSentenceCount() == 0) {
+        append(text.get());
+        return;
+      }
+      for (int i = 0; i < passage.getSentenceCount(); i++) {
+        BioCSentence sentence = passage.getSentence(i);
+        if (end() > sentence.getOffset()) {
+          throw new IllegalArgumentException(String.format(
+              "The %s is overlapped with previous text.", log(passage, sentence)));
+        }
+        padTo(sentence.getOffset());
+        sentence.getTextSequence().ifPresent(this::append);
+      }
+    }
+
+    void append(CharSequence text) {
+      if (text.length() == 0) {
+        return;
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size << 1);
+        texts = Arrays.copyOf(texts, size << 1);
+      }
+      starts[size] = length;
+      texts[size++] = text;
+      length += text.length();
+    }
+
+    BioCTextView build() {
+      return new BioCTextView(offset, starts, texts, size, length);
+    }
+
+    int end() {
+      return offset + length;
+    }
+
+    void padTo(int position) {
+      length = Math.max(length, position - offset);
+    }
+  }
+}
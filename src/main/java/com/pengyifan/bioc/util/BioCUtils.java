@@ -1,6 +1,5 @@
 package com.pengyifan.bioc.util;
 
-import com.google.common.collect.Lists;
 import com.pengyifan.bioc.BioCAnnotation;
 import com.pengyifan.bioc.BioCCollection;
 import com.pengyifan.bioc.BioCDocument;
@@ -14,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -42,7 +42,7 @@ public class BioCUtils {
   }
 
   public static final List<BioCSentence> getSentences(BioCCollection collection) {
-    return Lists.newArrayList(new BioCSentenceIterator(collection));
+    return BioCStreams.sentences(collection).collect(Collectors.toList());
   }
 
   public static String getText(BioCDocument document) {
@@ -1,30 +1,47 @@
 package com.pengyifan.bioc.util;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
 import com.pengyifan.bioc.BioCAnnotation;
 import com.pengyifan.bioc.BioCCollection;
 import com.pengyifan.bioc.BioCDocument;
 import com.pengyifan.bioc.BioCLocation;
 import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCObject;
 import com.pengyifan.bioc.BioCPassage;
 import com.pengyifan.bioc.BioCRelation;
 import com.pengyifan.bioc.BioCSentence;
 import com.pengyifan.bioc.BioCStructure;
 import com.pengyifan.bioc.io.BioCDocumentReader;
 import com.pengyifan.bioc.validation.BioCErrorHandler;
+import com.pengyifan.bioc.validation.BioCValidationError;
+import com.pengyifan.bioc.validation.BioCValidationReport;
 import com.pengyifan.bioc.validation.BioCValidator;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
-import org.apache.commons.lang3.StringUtils;
 import org.xml.sax.SAXException;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.pengyifan.bioc.util.BioCLog.log;
 
 public class BioCValidate3 implements BioCValidator {
 
+  private static final BioCObject[] NO_PARENTS = {};
+
   private BioCErrorHandlerImpl errorHandler;
 
   public BioCValidate3(boolean throwException) {
@@ -48,20 +65,58 @@ public class BioCValidate3 implements BioCValidator {
     }
   }
 
+  /**
+   * Checks text, annotations and relations of the documents of the collection concurrently, and
+   * collects the errors into a report instead of the print stream. Overlapping text, which stops
+   * the check of a document, is reported as an error of that document.
+   * <p>
+   * With fail-fast, no document is started once a document has errors; documents already being
+   * checked are finished and reported, so the report holds the errors of at least one document.
+   *
+   * @param collection  input collection
+   * @param parallelism the number of threads
+   * @param failFast    whether to stop at the first document with errors
+   * @return the errors, ordered by document
+   */
+  public BioCValidationReport check(BioCCollection collection, int parallelism,
+      boolean failFast) {
+    checkNotNull(collection, "collection cannot be null");
+    checkArgument(parallelism > 0, "parallelism has to be > 0");
+    BioCValidationReport report = new BioCValidationReport();
+    AtomicBoolean failed = new AtomicBoolean();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.submit(() -> IntStream.range(0, collection.getDocmentCount())
+          .parallel()
+          .forEach(i -> {
+            if (failFast && failed.get()) {
+              return;
+            }
+            List<BioCValidationError> errors = collectErrors(collection.getDocument(i));
+            report.add(i, errors);
+            if (!errors.isEmpty()) {
+              failed.set(true);
+            }
+          }))
+          .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("validation interrupted", e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    return report;
+  }
+
   /**
    * Checks text, annotations and relations of the document.
    *
    * @param document input document
    */
   public void check(BioCDocument document) {
-    String text = checkText(document);
-    check(document, 0, text);
-    for (BioCPassage passage : document.getPassages()) {
-      check(passage, 0, text, document);
-      for (BioCSentence sentence : passage.getSentences()) {
-        check(sentence, 0, text, document, passage);
-      }
-    }
+    check(document, new Context(document.getID(), this::report));
   }
 
   /**
@@ -70,10 +125,11 @@ public class BioCValidate3 implements BioCValidator {
    * @param passage input passage
    */
   public void check(BioCPassage passage) {
-    String text = checkText(passage);
-    check(passage, passage.getOffset(), text);
-    for (BioCSentence sentence : passage.getSentences()) {
-      check(sentence, 0, text, passage);
+    Context context = new Context(null, this::report);
+    BioCTextView text = checkText(passage, context, NO_PARENTS);
+    check(context, passage, text);
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      check(context, passage.getSentence(i), text, passage);
     }
   }
 
@@ -83,8 +139,9 @@ public class BioCValidate3 implements BioCValidator {
    * @param sentence input sentence
    */
   public void check(BioCSentence sentence) {
-    String text = checkText(sentence);
-    check(sentence, sentence.getOffset(), text);
+    Context context = new Context(null, this::report);
+    CharSequence text = checkText(sentence, context, NO_PARENTS);
+    check(context, sentence, BioCTextView.of(sentence.getOffset(), text));
   }
 
   /**
@@ -96,88 +153,163 @@ public class BioCValidate3 implements BioCValidator {
    * @param parents   the path from root until this structure (not included
    */
   public void check(BioCStructure structure, int offset, String text, BioCStructure... parents) {
-    BioCStructure[] path = new BioCStructure[parents.length + 1];
-    System.arraycopy(parents, 0, path, 0, parents.length);
-    path[path.length - 1] = structure;
-    String location = log(path);
-    checkAnnotations(structure, offset, text, location);
-    checkRelations(structure, location);
+    String documentId = null;
+    if (structure instanceof BioCDocument) {
+      documentId = ((BioCDocument) structure).getID();
+    } else if (parents.length != 0 && parents[0] instanceof BioCDocument) {
+      documentId = ((BioCDocument) parents[0]).getID();
+    }
+    check(new Context(documentId, this::report), structure, BioCTextView.of(offset, text),
+        parents);
   }
 
-  private void checkAnnotations(BioCStructure structure, int offset, String text, String location) {
-    for (BioCAnnotation annotation : structure.getAnnotations()) {
-      if (!annotation.getText().isPresent()) {
-        errorHandler.error("The %s in %s has no text", log(annotation), location);
+  private void check(BioCDocument document, Context context) {
+    BioCTextView text = checkText(document, context);
+    check(context, document, text);
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      BioCPassage passage = document.getPassage(i);
+      check(context, passage, text, document);
+      for (int j = 0; j < passage.getSentenceCount(); j++) {
+        check(context, passage.getSentence(j), text, document, passage);
       }
+    }
+  }
 
-      BioCLocation total = annotation.getTotalLocation();
-      String expected = text.substring(
-          total.getOffset() - offset, total.getOffset() + total.getLength() - offset);
-      String actual = annotation.getText().get();
-      if (!expected.equals(actual)) {
-        errorHandler.error("The %s text in %s is incorrect.\n" +
+  private void check(Context context, BioCStructure structure, BioCTextView text,
+      BioCStructure... parents) {
+    checkAnnotations(context, structure, text, parents);
+    checkRelations(context, structure, parents);
+  }
+
+  /**
+   * Returns the path of the object below its parents, e.g.,
+   * {@code document[id=1]/passage[offset=0]}. Locations are only built when an error is reported.
+   */
+  private static String location(BioCObject[] parents, BioCObject object) {
+    return parents.length == 0 ? log(object) : log(parents) + "/" + log(object);
+  }
+
+  /**
+   * Returns the errors of the document, including overlapping text.
+   */
+  private List<BioCValidationError> collectErrors(BioCDocument document) {
+    List<BioCValidationError> errors = Lists.newArrayList();
+    try {
+      check(document, new Context(document.getID(), errors::add));
+    } catch (IllegalArgumentException e) {
+      errors.add(new BioCValidationError(document.getID(), log(document), e.getMessage()));
+    }
+    return errors;
+  }
+
+  /**
+   * Compares the text of every annotation with the text at its location, in place.
+   */
+  private void checkAnnotations(Context context, BioCStructure structure, BioCTextView text,
+      BioCStructure[] parents) {
+    for (int i = 0; i < structure.getAnnotationCount(); i++) {
+      BioCAnnotation annotation = structure.getAnnotation(i);
+      Optional<CharSequence> actual = annotation.getTextSequence();
+      if (!actual.isPresent()) {
+        String location = location(parents, structure);
+        context.error(location + "/" + log(annotation), "The %s in %s has no text",
+            log(annotation), location);
+        continue;
+      }
+
+      // the span of the locations, as getTotalLocation() computes it, without a range set
+      checkArgument(annotation.getLocationCount() > 0, "No location added");
+      int offset = Integer.MAX_VALUE;
+      int totalEnd = Integer.MIN_VALUE;
+      Iterator<BioCLocation> itr = annotation.locationIterator();
+      while (itr.hasNext()) {
+        BioCLocation l = itr.next();
+        offset = Math.min(offset, l.getOffset());
+        totalEnd = Math.max(totalEnd, l.getEnd());
+      }
+      int length = totalEnd - offset;
+      if (actual.get().length() != length
+          || !text.regionMatches(offset, actual.get(), 0, length)) {
+        int start = Math.max(0, Math.min(text.length(), offset - text.getOffset()));
+        int end = Math.max(start, Math.min(text.length(), totalEnd - text.getOffset()));
+        String location = location(parents, structure);
+        context.error(location + "/" + log(annotation), "The %s text in %s is incorrect.\n" +
                 "  Expected : %s\n" +
                 "  Actual   : %s",
-            log(annotation), location, expected, actual);
+            log(annotation), location, text.subSequence(start, end), actual.get());
       }
     }
   }
 
-  private void checkRelations(BioCStructure structure, String location) {
-    for (BioCRelation relation : structure.getRelations()) {
+  private void checkRelations(Context context, BioCStructure structure,
+      BioCStructure[] parents) {
+    for (int i = 0; i < structure.getRelationCount(); i++) {
+      BioCRelation relation = structure.getRelation(i);
       for (BioCNode node : relation.getNodes()) {
         if (!structure.getAnnotation(node.getRefid()).isPresent()) {
-          errorHandler.error("Cannot find %s in %s in %s", log(node), log(relation), location);
+          String location = location(parents, structure);
+          context.error(location + "/" + log(relation) + "/" + log(node),
+              "Cannot find %s in %s in %s", log(node), log(relation), location);
         }
       }
     }
   }
 
   public String checkText(BioCDocument document) {
-    StringBuilder sb = new StringBuilder();
-    for (BioCPassage passage : document.getPassages()) {
-      if (sb.length() > passage.getOffset()) {
-        haveToThrow("The %s is overlapped with previous text.", log(document, passage));
-      }
-      fillNewLine(sb, passage.getOffset());
-      sb.append(checkText(passage));
+    return checkText(document, new Context(document.getID(), this::report)).toString();
+  }
+
+  private BioCTextView checkText(BioCDocument document, Context context) {
+    BioCObject[] parents = { document };
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      checkPassageText(document.getPassage(i), context, parents);
     }
-    return sb.toString();
+    return BioCTextView.of(document);
   }
 
   public String checkText(BioCPassage passage) {
-    if (passage.getText().isPresent() && !passage.getText().get().isEmpty()) {
-      if (passage.getSentenceCount() == 0) {
-        return passage.getText().get();
-      } else {
-        errorHandler.error("The %s contains both text and sentences.", log(passage));
-      }
-    }
+    return checkText(passage, new Context(null, this::report), NO_PARENTS).toString();
+  }
 
-    StringBuilder sb = new StringBuilder();
-    for (BioCSentence sentence : passage.getSentences()) {
-      if (passage.getOffset() + sb.length() > sentence.getOffset()) {
-        haveToThrow("The %s is overlapped with previous text.", log(passage, sentence));
-      }
-      fillNewLine(sb, sentence.getOffset() - passage.getOffset());
-      sb.append(checkText(sentence));
+  private BioCTextView checkText(BioCPassage passage, Context context, BioCObject[] parents) {
+    checkPassageText(passage, context, parents);
+    return BioCTextView.of(passage);
+  }
+
+  /**
+   * Reports a passage with both text and sentences, and sentences without text. Overlapping text
+   * is found when the text view is created.
+   */
+  private void checkPassageText(BioCPassage passage, Context context, BioCObject[] parents) {
+    Optional<CharSequence> text = passage.getTextSequence();
+    if (text.isPresent() && text.get().length() != 0 && passage.getSentenceCount() != 0) {
+      context.error(location(parents, passage), "The %s contains both text and sentences.",
+          log(passage));
+    }
+    if (passage.getSentenceCount() == 0) {
+      return;
+    }
+    BioCObject[] sentenceParents = ObjectArrays.concat(parents, passage);
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      checkText(passage.getSentence(i), context, sentenceParents);
     }
-    return sb.toString();
   }
 
   public String checkText(BioCSentence sentence) {
-    if (!sentence.getText().isPresent()) {
-      errorHandler.error("The %s has no text.", log(sentence));
-    }
-    return sentence.getText().get();
+    return checkText(sentence, new Context(null, this::report), NO_PARENTS).toString();
   }
 
-  private StringBuilder fillNewLine(StringBuilder sb, int offset) {
-    return sb.append(StringUtils.repeat('\n', offset - sb.length()));
+  private CharSequence checkText(BioCSentence sentence, Context context, BioCObject[] parents) {
+    Optional<CharSequence> text = sentence.getTextSequence();
+    if (!text.isPresent()) {
+      context.error(location(parents, sentence), "The %s has no text.", log(sentence));
+      return "";
+    }
+    return text.get();
   }
 
-  private void haveToThrow(String format, Object... objects) {
-    throw new IllegalArgumentException(String.format(format, objects));
+  private void report(BioCValidationError error) {
+    errorHandler.error("%s", error.getMessage());
   }
 
   public void setPrintStream(PrintStream ps) {
@@ -188,13 +320,44 @@ public class BioCValidate3 implements BioCValidator {
     errorHandler.throwException = throwException;
   }
 
+  /**
+   * Checks text, annotations and relations of the documents of the file, as in
+   * {@link #check(BioCDocument)}, and collects the errors into a report. The file is read one
+   * document at a time and every document is recycled once checked, so memory is bounded by the
+   * largest document.
+   *
+   * @param path the BioC file
+   * @return the errors, ordered by document
+   * @throws IOException        if an I/O exception of some sort has occurred
+   * @throws XMLStreamException if an unexpected processing error occurs
+   */
+  public BioCValidationReport validate(Path path)
+      throws IOException, XMLStreamException {
+    checkNotNull(path, "path cannot be null");
+    BioCValidationReport report = new BioCValidationReport();
+    try (BioCDocumentReader reader = new BioCDocumentReader(path)) {
+      reader.setRecycling(true);
+      BioCDocument document;
+      for (int i = 0; (document = reader.readDocument()) != null; i++) {
+        report.add(i, collectErrors(document));
+        reader.recycle(document);
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Checks text, annotations and relations of the documents of the file, one document at a time.
+   *
+   * @param file the BioC file
+   */
   @Override
   public void validate(File file) {
     try {
       BioCDocumentReader reader = new BioCDocumentReader(file);
       BioCDocument document = null;
       while ((document = reader.readDocument()) != null) {
-        checkText(document);
+        check(document);
       }
       reader.close();
     } catch (IOException e) {
@@ -214,6 +377,24 @@ public class BioCValidate3 implements BioCValidator {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Where the errors of a check go, and the document they belong to.
+   */
+  private static class Context {
+
+    final String documentId;
+    final Consumer<BioCValidationError> errors;
+
+    Context(String documentId, Consumer<BioCValidationError> errors) {
+      this.documentId = documentId;
+      this.errors = errors;
+    }
+
+    void error(String location, String format, Object... objects) {
+      errors.accept(new BioCValidationError(documentId, location, String.format(format, objects)));
+    }
+  }
+
   private static class BioCErrorHandlerImpl implements BioCErrorHandler {
 
     PrintStream ps;
@@ -0,0 +1,161 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+
+/**
+ * Callbacks for {@link BioCWalker}. Every method does nothing and returns
+ * {@link Result#CONTINUE}, so a visitor only overrides the levels it is interested in.
+ * <p>
+ * For every document, passage and sentence, the walker calls the enter method, visits its
+ * annotations, then its relations, then its children, and calls the leave method. For example, to
+ * count the annotations of the passages of type "abstract",
+ * <p>
+ * <pre>
+ * BioCWalker.walk(collection, new BioCVisitor() {
+ *   public Result enterPassage(BioCDocument document, BioCPassage passage) {
+ *     return passage.getInfon("type").equals(Optional.of("abstract"))
+ *         ? Result.CONTINUE : Result.SKIP_SUBTREE;
+ *   }
+ *   public Result visitAnnotation(BioCStructure parent, BioCAnnotation annotation) {
+ *     count++;
+ *     return Result.CONTINUE;
+ *   }
+ * });
+ * </pre>
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public interface BioCVisitor {
+
+  /**
+   * What the walker does after a callback.
+   */
+  enum Result {
+    /**
+     * Continue the walk.
+     */
+    CONTINUE,
+    /**
+     * Skip the annotations, relations and children of the structure just entered, and do not call
+     * its leave method. Same as {@link #CONTINUE} for other callbacks.
+     */
+    SKIP_SUBTREE,
+    /**
+     * Stop the walk. No leave method is called.
+     */
+    TERMINATE
+  }
+
+  /**
+   * Called before the documents of the collection are visited.
+   *
+   * @param collection the collection
+   * @return what to do next
+   */
+  default Result enterCollection(BioCCollection collection) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called after the documents of the collection are visited.
+   *
+   * @param collection the collection
+   * @return what to do next
+   */
+  default Result leaveCollection(BioCCollection collection) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called before the annotations, relations and passages of the document are visited.
+   *
+   * @param document the document
+   * @return what to do next
+   */
+  default Result enterDocument(BioCDocument document) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called after the annotations, relations and passages of the document are visited.
+   *
+   * @param document the document
+   * @return what to do next
+   */
+  default Result leaveDocument(BioCDocument document) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called before the annotations, relations and sentences of the passage are visited.
+   *
+   * @param document the document of the passage
+   * @param passage  the passage
+   * @return what to do next
+   */
+  default Result enterPassage(BioCDocument document, BioCPassage passage) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called after the annotations, relations and sentences of the passage are visited.
+   *
+   * @param document the document of the passage
+   * @param passage  the passage
+   * @return what to do next
+   */
+  default Result leavePassage(BioCDocument document, BioCPassage passage) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called before the annotations and relations of the sentence are visited.
+   *
+   * @param passage  the passage of the sentence
+   * @param sentence the sentence
+   * @return what to do next
+   */
+  default Result enterSentence(BioCPassage passage, BioCSentence sentence) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called after the annotations and relations of the sentence are visited.
+   *
+   * @param passage  the passage of the sentence
+   * @param sentence the sentence
+   * @return what to do next
+   */
+  default Result leaveSentence(BioCPassage passage, BioCSentence sentence) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called for every annotation.
+   *
+   * @param parent     the document, passage or sentence of the annotation
+   * @param annotation the annotation
+   * @return what to do next
+   */
+  default Result visitAnnotation(BioCStructure parent, BioCAnnotation annotation) {
+    return Result.CONTINUE;
+  }
+
+  /**
+   * Called for every relation.
+   *
+   * @param parent   the document, passage or sentence of the relation
+   * @param relation the relation
+   * @return what to do next
+   */
+  default Result visitRelation(BioCStructure parent, BioCRelation relation) {
+    return Result.CONTINUE;
+  }
+}
@@ -0,0 +1,183 @@
+package com.pengyifan.bioc.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+import com.pengyifan.bioc.util.BioCVisitor.Result;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Walks a collection or a document depth-first and calls a {@link BioCVisitor}.
+ * <p>
+ * The visitor can skip the subtree of a document, passage or sentence, or stop the walk.
+ * {@link #walkParallel(BioCCollection, BioCVisitor)} visits the documents of a collection
+ * concurrently.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCWalker {
+
+  private static final AtomicBoolean NEVER = new AtomicBoolean();
+
+  private BioCWalker() {
+  }
+
+  /**
+   * Walks the collection.
+   *
+   * @param collection the collection
+   * @param visitor    the visitor
+   * @return {@link Result#TERMINATE} if the visitor stopped the walk, otherwise
+   * {@link Result#CONTINUE}
+   */
+  public static Result walk(BioCCollection collection, BioCVisitor visitor) {
+    checkNotNull(collection, "collection cannot be null");
+    checkNotNull(visitor, "visitor cannot be null");
+    Result result = visitor.enterCollection(collection);
+    if (result == Result.SKIP_SUBTREE) {
+      return Result.CONTINUE;
+    } else if (result == Result.TERMINATE) {
+      return result;
+    }
+    for (int i = 0; i < collection.getDocmentCount(); i++) {
+      if (walk(collection.getDocument(i), visitor, NEVER) == Result.TERMINATE) {
+        return Result.TERMINATE;
+      }
+    }
+    return continueUnless(visitor.leaveCollection(collection));
+  }
+
+  /**
+   * Walks the document.
+   *
+   * @param document the document
+   * @param visitor  the visitor
+   * @return {@link Result#TERMINATE} if the visitor stopped the walk, otherwise
+   * {@link Result#CONTINUE}
+   */
+  public static Result walk(BioCDocument document, BioCVisitor visitor) {
+    checkNotNull(document, "document cannot be null");
+    checkNotNull(visitor, "visitor cannot be null");
+    return walk(document, visitor, NEVER);
+  }
+
+  /**
+   * Walks the collection, visiting its documents concurrently in the common fork/join pool. The
+   * collection methods of the visitor are called on the calling thread; the other methods may be
+   * called from several threads at once, so the visitor must be thread-safe.
+   * <p>
+   * If the visitor stops the walk, the documents being visited stop at their next callback and no
+   * other document is started.
+   *
+   * @param collection the collection
+   * @param visitor    the thread-safe visitor
+   * @return {@link Result#TERMINATE} if the visitor stopped the walk, otherwise
+   * {@link Result#CONTINUE}
+   */
+  public static Result walkParallel(BioCCollection collection, BioCVisitor visitor) {
+    checkNotNull(collection, "collection cannot be null");
+    checkNotNull(visitor, "visitor cannot be null");
+    Result result = visitor.enterCollection(collection);
+    if (result == Result.SKIP_SUBTREE) {
+      return Result.CONTINUE;
+    } else if (result == Result.TERMINATE) {
+      return result;
+    }
+    AtomicBoolean stopped = new AtomicBoolean();
+    IntStream.range(0, collection.getDocmentCount())
+        .parallel()
+        .forEach(i -> {
+          if (!stopped.get()
+              && walk(collection.getDocument(i), visitor, stopped) == Result.TERMINATE) {
+            stopped.set(true);
+          }
+        });
+    if (stopped.get()) {
+      return Result.TERMINATE;
+    }
+    return continueUnless(visitor.leaveCollection(collection));
+  }
+
+  private static Result continueUnless(Result result) {
+    return result == Result.TERMINATE ? Result.TERMINATE : Result.CONTINUE;
+  }
+
+  /**
+   * Returns TERMINATE if another thread stopped the walk, otherwise the result.
+   */
+  private static Result checkStopped(Result result, AtomicBoolean stopped) {
+    return stopped.get() ? Result.TERMINATE : result;
+  }
+
+  private static Result walk(BioCDocument document, BioCVisitor visitor, AtomicBoolean stopped) {
+    Result result = checkStopped(visitor.enterDocument(document), stopped);
+    if (result != Result.CONTINUE) {
+      return continueUnless(result);
+    }
+    if (walkElements(document, visitor, stopped) == Result.TERMINATE) {
+      return Result.TERMINATE;
+    }
+    for (int i = 0; i < document.getPassageCount(); i++) {
+      if (walk(document, document.getPassage(i), visitor, stopped) == Result.TERMINATE) {
+        return Result.TERMINATE;
+      }
+    }
+    return checkStopped(continueUnless(visitor.leaveDocument(document)), stopped);
+  }
+
+  private static Result walk(BioCDocument document, BioCPassage passage, BioCVisitor visitor,
+      AtomicBoolean stopped) {
+    Result result = checkStopped(visitor.enterPassage(document, passage), stopped);
+    if (result != Result.CONTINUE) {
+      return continueUnless(result);
+    }
+    if (walkElements(passage, visitor, stopped) == Result.TERMINATE) {
+      return Result.TERMINATE;
+    }
+    for (int i = 0; i < passage.getSentenceCount(); i++) {
+      if (walk(passage, passage.getSentence(i), visitor, stopped) == Result.TERMINATE) {
+        return Result.TERMINATE;
+      }
+    }
+    return checkStopped(continueUnless(visitor.leavePassage(document, passage)), stopped);
+  }
+
+  private static Result walk(BioCPassage passage, BioCSentence sentence, BioCVisitor visitor,
+      AtomicBoolean stopped) {
+    Result result = checkStopped(visitor.enterSentence(passage, sentence), stopped);
+    if (result != Result.CONTINUE) {
+      return continueUnless(result);
+    }
+    if (walkElements(sentence, visitor, stopped) == Result.TERMINATE) {
+      return Result.TERMINATE;
+    }
+    return checkStopped(continueUnless(visitor.leaveSentence(passage, sentence)), stopped);
+  }
+
+  /**
+   * Visits the annotations and relations of the structure.
+   */
+  private static Result walkElements(BioCStructure structure, BioCVisitor visitor,
+      AtomicBoolean stopped) {
+    for (int i = 0; i < structure.getAnnotationCount(); i++) {
+      if (checkStopped(visitor.visitAnnotation(structure, structure.getAnnotation(i)), stopped)
+          == Result.TERMINATE) {
+        return Result.TERMINATE;
+      }
+    }
+    for (int i = 0; i < structure.getRelationCount(); i++) {
+      if (checkStopped(visitor.visitRelation(structure, structure.getRelation(i)), stopped)
+          == Result.TERMINATE) {
+        return Result.TERMINATE;
+      }
+    }
+    return Result.CONTINUE;
+  }
+}
@@ -0,0 +1,142 @@
+package com.pengyifan.bioc.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the fields shared by the binary files of the indexes and the dictionary
+ * annotator in this package.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+final class IndexIO {
+
+  /**
+   * The number of bytes of an array that are decoded or encoded at a time.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private IndexIO() {
+  }
+
+  /**
+   * Reads an array written by {@link #writeChars(DataOutputStream, char[])}.
+   *
+   * @param in the input stream
+   * @return the array
+   * @throws IOException if an I/O error occurs
+   */
+  static char[] readChars(DataInputStream in)
+      throws IOException {
+    char[] array = new char[in.readInt()];
+    byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, (long) array.length << 1)];
+    for (int i = 0; i < array.length; ) {
+      int n = Math.min(array.length - i, bytes.length >> 1);
+      in.readFully(bytes, 0, n << 1);
+      ByteBuffer.wrap(bytes).asCharBuffer().get(array, i, n);
+      i += n;
+    }
+    return array;
+  }
+
+  /**
+   * Reads an array written by {@link #writeInts(DataOutputStream, int[])}.
+   *
+   * @param in the input stream
+   * @return the array
+   * @throws IOException if an I/O error occurs
+   */
+  static int[] readInts(DataInputStream in)
+      throws IOException {
+    int[] array = new int[in.readInt()];
+    byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, (long) array.length << 2)];
+    for (int i = 0; i < array.length; ) {
+      int n = Math.min(array.length - i, bytes.length >> 2);
+      in.readFully(bytes, 0, n << 2);
+      ByteBuffer.wrap(bytes).asIntBuffer().get(array, i, n);
+      i += n;
+    }
+    return array;
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param in the input stream
+   * @return the string, or null
+   * @throws IOException if an I/O error occurs
+   */
+  static String readString(DataInputStream in)
+      throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the length of the array followed by its elements, in the format of
+   * {@link DataOutputStream#writeChar(int)}.
+   *
+   * @param out   the output stream
+   * @param array the array
+   * @throws IOException if an I/O error occurs
+   */
+  static void writeChars(DataOutputStream out, char[] array)
+      throws IOException {
+    out.writeInt(array.length);
+    byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, (long) array.length << 1)];
+    for (int i = 0; i < array.length; ) {
+      int n = Math.min(array.length - i, bytes.length >> 1);
+      ByteBuffer.wrap(bytes).asCharBuffer().put(array, i, n);
+      out.write(bytes, 0, n << 1);
+      i += n;
+    }
+  }
+
+  /**
+   * Writes the length of the array followed by its elements, in the format of
+   * {@link DataOutputStream#writeInt(int)}.
+   *
+   * @param out   the output stream
+   * @param array the array
+   * @throws IOException if an I/O error occurs
+   */
+  static void writeInts(DataOutputStream out, int[] array)
+      throws IOException {
+    out.writeInt(array.length);
+    byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, (long) array.length << 2)];
+    for (int i = 0; i < array.length; ) {
+      int n = Math.min(array.length - i, bytes.length >> 2);
+      ByteBuffer.wrap(bytes).asIntBuffer().put(array, i, n);
+      out.write(bytes, 0, n << 2);
+      i += n;
+    }
+  }
+
+  /**
+   * Writes the length of the UTF-8 bytes of the string, or -1 if it is null, followed by the
+   * bytes.
+   *
+   * @param out the output stream
+   * @param s   the string, or null
+   * @throws IOException if an I/O error occurs
+   */
+  static void writeString(DataOutputStream out, String s)
+      throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -0,0 +1,91 @@
+package com.pengyifan.bioc.validation;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An error found in a BioC document: the document, the path to the offending element, such as
+ * {@code document[id=foo]/passage[offset=11]}, and a message.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public final class BioCValidationError {
+
+  private final String documentId;
+  private final String location;
+  private final String message;
+
+  /**
+   * Creates an error.
+   *
+   * @param documentId the id of the document, or null if unknown
+   * @param location   the path to the offending element
+   * @param message    the message
+   */
+  public BioCValidationError(String documentId, String location, String message) {
+    this.documentId = documentId;
+    this.location = checkNotNull(location, "location cannot be null");
+    this.message = checkNotNull(message, "message cannot be null");
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof BioCValidationError)) {
+      return false;
+    }
+    BioCValidationError rhs = (BioCValidationError) obj;
+    return Objects.equals(documentId, rhs.documentId)
+        && Objects.equals(location, rhs.location)
+        && Objects.equals(message, rhs.message);
+  }
+
+  /**
+   * Returns the id of the document.
+   *
+   * @return the id of the document
+   */
+  public Optional<String> getDocumentID() {
+    return Optional.ofNullable(documentId);
+  }
+
+  /**
+   * Returns the path to the offending element.
+   *
+   * @return the path to the offending element
+   */
+  public String getLocation() {
+    return location;
+  }
+
+  /**
+   * Returns the message.
+   *
+   * @return the message
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(documentId, location, message);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).
+        append("document", documentId).
+        append("location", location).
+        append("message", message).
+        toString();
+  }
+}
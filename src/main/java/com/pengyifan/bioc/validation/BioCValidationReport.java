@@ -0,0 +1,112 @@
+package com.pengyifan.bioc.validation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The errors found by validating documents, ordered by document whatever the order in which the
+ * documents were checked. A report can be filled by several threads at once.
+ *
+ * @author Yifan Peng
+ * @since 1.0.4
+ */
+public class BioCValidationReport {
+
+  private final Map<Integer, List<BioCValidationError>> errors;
+  private int documentCount;
+  private int errorCount;
+
+  /**
+   * Creates an empty report.
+   */
+  public BioCValidationReport() {
+    errors = Maps.newTreeMap();
+  }
+
+  /**
+   * Records that the document has been checked, with its errors.
+   *
+   * @param document       the number of the document, which orders the errors
+   * @param documentErrors the errors of the document, possibly empty
+   */
+  public synchronized void add(int document, Collection<BioCValidationError> documentErrors) {
+    checkNotNull(documentErrors, "errors cannot be null");
+    checkArgument(!errors.containsKey(document), "document %s is already reported", document);
+    documentCount++;
+    if (!documentErrors.isEmpty()) {
+      errors.put(document, ImmutableList.copyOf(documentErrors));
+      errorCount += documentErrors.size();
+    }
+  }
+
+  /**
+   * Returns the number of documents checked.
+   *
+   * @return the number of documents checked
+   */
+  public synchronized int getDocumentCount() {
+    return documentCount;
+  }
+
+  /**
+   * Returns the number of errors.
+   *
+   * @return the number of errors
+   */
+  public synchronized int getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * Returns the errors, ordered by document.
+   *
+   * @return the errors
+   */
+  public synchronized List<BioCValidationError> getErrors() {
+    List<BioCValidationError> list = Lists.newArrayListWithCapacity(errorCount);
+    for (List<BioCValidationError> documentErrors : errors.values()) {
+      list.addAll(documentErrors);
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Returns the errors of the document.
+   *
+   * @param document the number of the document
+   * @return the errors of the document
+   */
+  public synchronized List<BioCValidationError> getErrors(int document) {
+    return errors.getOrDefault(document, Collections.emptyList());
+  }
+
+  /**
+   * Returns true if no error has been found.
+   *
+   * @return true if no error has been found
+   */
+  public synchronized boolean isValid() {
+    return errorCount == 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(documentCount).append(" documents checked, ").append(errorCount).append(" errors");
+    for (List<BioCValidationError> documentErrors : errors.values()) {
+      for (BioCValidationError error : documentErrors) {
+        sb.append('\n').append(error.getLocation()).append(": ").append(error.getMessage());
+      }
+    }
+    return sb.toString();
+  }
+}
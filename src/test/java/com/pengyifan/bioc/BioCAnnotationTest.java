@@ -3,6 +3,7 @@ package com.pengyifan.bioc;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -133,6 +134,69 @@ public class BioCAnnotationTest {
     assertFalse(base.getInfon(null).isPresent());
   }
 
+  @Test
+  public void test_freeze() {
+    BioCAnnotation annotation = new BioCAnnotation(ID);
+    annotation.addLocation(new BioCLocation(0, 1));
+    annotation.putInfon(KEY, VALUE);
+    BioCAnnotation copy = new BioCAnnotation(annotation);
+
+    assertFalse(annotation.isFrozen());
+    annotation.freeze();
+    assertTrue(annotation.isFrozen());
+    assertTrue(annotation.locationIterator().next().isFrozen());
+    assertEquals(copy, annotation);
+    assertEquals(copy.hashCode(), annotation.hashCode());
+
+    thrown.expect(UnsupportedOperationException.class);
+    annotation.setText(TEXT);
+  }
+
+  @Test
+  public void test_freeze_infons() {
+    base.freeze();
+    thrown.expect(UnsupportedOperationException.class);
+    base.putInfon(KEY_2, VALUE_2);
+  }
+
+  @Test
+  public void test_fingerprint() {
+    BioCAnnotation reversed = new BioCAnnotation(ID);
+    reversed.putInfon(KEY, VALUE);
+    reversed.setText(TEXT);
+    for (int i = 100; i >= 0; i--) {
+      reversed.addLocation(new BioCLocation(i, 1));
+    }
+    BioCAnnotation ordered = new BioCAnnotation(ID);
+    ordered.setText(TEXT);
+    for (int i = 0; i <= 100; i++) {
+      ordered.addLocation(new BioCLocation(i, 1));
+    }
+    ordered.putInfon(KEY, VALUE);
+    assertEquals(ordered.fingerprint(), reversed.fingerprint());
+
+    ordered.setText(TEXT_2);
+    assertNotEquals(ordered.fingerprint(), reversed.fingerprint());
+    assertNotEquals(base.fingerprint(), new BioCAnnotation(ID_2).fingerprint());
+  }
+
+  @Test
+  public void test_removeLocation_detaches() {
+    BioCLocation location = new BioCLocation(0, 3);
+    BioCAnnotation first = new BioCAnnotation(ID);
+    first.addLocation(location);
+    // an equal location, but not the same instance
+    assertTrue(first.getLocations().remove(new BioCLocation(0, 3)));
+
+    BioCAnnotation second = new BioCAnnotation(ID_2);
+    second.addLocation(location);
+    assertTrue(location.notifies(second));
+    long fingerprint = second.fingerprint();
+    location.setLength(2);
+    assertNotEquals(fingerprint, second.fingerprint());
+    assertEquals(second.deepCopy().fingerprint(), second.fingerprint());
+  }
+
   @Test
   public void test_nodeIterator() {
     List<BioCLocation> actual = Lists.newArrayList(base.locationIterator());
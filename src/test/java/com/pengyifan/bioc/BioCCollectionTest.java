@@ -3,7 +3,10 @@ package com.pengyifan.bioc;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -157,6 +160,42 @@ public class BioCCollectionTest {
     assertThat(actual, contains(DOC_1, DOC_2));
   }
 
+  @Test
+  public void test_freeze() {
+    BioCCollection collection = new BioCCollection(base);
+    collection.setDocuments(Lists.newArrayList(createDocument("1")));
+    collection.freeze();
+    assertTrue(collection.isFrozen());
+    assertTrue(collection.getDocument(0).isFrozen());
+
+    thrown.expect(UnsupportedOperationException.class);
+    collection.addDocument(createDocument("2"));
+  }
+
+  @Test
+  public void test_freeze_setSource() {
+    BioCCollection collection = new BioCCollection();
+    collection.freeze();
+    thrown.expect(UnsupportedOperationException.class);
+    collection.setSource(SOURCE_2);
+  }
+
+  @Test
+  public void test_derive() {
+    BioCCollection collection = new BioCCollection(base);
+    collection.setDocuments(Lists.newArrayList(createDocument("1"), createDocument("2")));
+    BioCCollection variant = collection.derive();
+    variant.mutableDocument(0).setID("3");
+    assertEquals("1", collection.getDocument(0).getID());
+    assertEquals("3", variant.getDocument(0).getID());
+    assertSame(collection.getDocument(1), variant.getDocument(1));
+
+    BioCCollection copy = collection.deepCopy();
+    assertEquals(collection, copy);
+    assertFalse(copy.isFrozen());
+    assertNotSame(collection.getDocument(1), copy.getDocument(1));
+  }
+
   private static BioCDocument createDocument(String id) {
     BioCDocument doc = new BioCDocument();
     doc.setID(id);
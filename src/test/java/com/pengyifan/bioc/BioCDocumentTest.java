@@ -3,10 +3,14 @@ package com.pengyifan.bioc;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -180,6 +184,203 @@ public class BioCDocumentTest {
     assertThat(actual, contains(PASS_1, PASS_2));
   }
 
+  @Test
+  public void test_freeze() {
+    BioCDocument document = new BioCDocument(ID);
+    BioCPassage passage = createPassage("ABC");
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(0);
+    sentence.addAnnotation(createAnnotation("a1"));
+    passage.addSentence(sentence);
+    document.addPassage(passage);
+    document.addRelation(createRelation("r1"));
+    BioCDocument copy = new BioCDocument(document);
+
+    assertTrue(document.freeze().isFrozen());
+    assertTrue(passage.isFrozen());
+    assertTrue(sentence.isFrozen());
+    assertTrue(sentence.getAnnotation(0).isFrozen());
+    assertTrue(document.getRelation(0).isFrozen());
+    assertEquals(copy, document);
+    assertEquals(copy.hashCode(), document.hashCode());
+  }
+
+  @Test
+  public void test_freeze_addPassage() {
+    base.freeze();
+    thrown.expect(UnsupportedOperationException.class);
+    base.addPassage(createPassage("DEF"));
+  }
+
+  @Test
+  public void test_freeze_setText() {
+    BioCDocument document = new BioCDocument(ID);
+    document.addPassage(createPassage("ABC"));
+    document.freeze();
+    thrown.expect(UnsupportedOperationException.class);
+    document.getPassage(0).setText("DEF");
+  }
+
+  @Test
+  public void test_deepCopy() {
+    BioCDocument document = createTree();
+    BioCDocument copy = document.deepCopy();
+    assertEquals(document, copy);
+    assertNotSame(document.getPassage(0), copy.getPassage(0));
+    assertNotSame(document.getPassage(0).getSentence(0).getAnnotation(0),
+        copy.getPassage(0).getSentence(0).getAnnotation(0));
+
+    document.freeze();
+    copy = document.deepCopy();
+    assertFalse(copy.getPassage(0).getSentence(0).getAnnotation(0).isFrozen());
+    copy.getPassage(0).getSentence(0).getAnnotation(0).setText("DEF");
+    assertEquals("ABC", document.getPassage(0).getSentence(0).getAnnotation(0).getText().get());
+  }
+
+  @Test
+  public void test_derive() {
+    BioCDocument document = createTree();
+    document.addPassage(createPassage("DEF"));
+    BioCDocument variant = document.derive();
+    assertTrue(document.isFrozen());
+    assertFalse(variant.isFrozen());
+    assertEquals(document, variant);
+
+    BioCAnnotation annotation = variant.mutablePassage(0).mutableSentence(0).mutableAnnotation(0);
+    annotation.setText("DEF");
+    assertEquals("ABC", document.getPassage(0).getSentence(0).getAnnotation(0).getText().get());
+    assertNotSame(document.getPassage(0), variant.getPassage(0));
+    assertSame(document.getPassage(1), variant.getPassage(1));
+    assertSame(document.getRelation(0), variant.getRelation(0));
+  }
+
+  @Test
+  public void test_derive_locationsAndNodes() {
+    BioCDocument document = createTree();
+    document.getRelation(0).addNode(new BioCNode("a1", "Theme"));
+    BioCDocument variant = document.derive();
+
+    BioCAnnotation annotation = variant.mutablePassage(0).mutableSentence(0).mutableAnnotation(0);
+    annotation.locationIterator().next().setOffset(1);
+    variant.mutableRelation(0).getNode("Theme").get().setRole("Cause");
+
+    BioCAnnotation original = document.getPassage(0).getSentence(0).getAnnotation(0);
+    assertEquals(0, original.locationIterator().next().getOffset());
+    assertEquals(1, variant.getPassage(0).getSentence(0).getAnnotation(0)
+        .locationIterator().next().getOffset());
+    assertTrue(document.getRelation(0).getNode("Theme").isPresent());
+    assertTrue(variant.getRelation(0).getNode("Cause").isPresent());
+    assertNotEquals(document, variant);
+  }
+
+  @Test
+  public void test_fingerprint() {
+    BioCDocument document = createTree();
+    BioCDocument copy = document.deepCopy();
+    assertEquals(document.fingerprint(), copy.fingerprint());
+
+    copy.getPassage(0).getSentence(0).getAnnotation(0).putInfon(KEY, VALUE);
+    assertNotEquals(document.fingerprint(), copy.fingerprint());
+
+    long fingerprint = document.fingerprint();
+    BioCDocument variant = document.derive();
+    assertEquals(fingerprint, document.fingerprint());
+    assertEquals(fingerprint, variant.fingerprint());
+    variant.mutablePassage(0).setOffset(1);
+    assertNotEquals(fingerprint, variant.fingerprint());
+    assertEquals(fingerprint, document.fingerprint());
+    assertFalse(document.equals(variant.freeze()));
+  }
+
+  @Test
+  public void test_fingerprint_cached() {
+    BioCDocument document = createTree();
+    document.getRelation(0).addNode(new BioCNode("a1", "Theme"));
+    long fingerprint = assertFingerprint(document);
+    assertEquals(fingerprint, document.fingerprint());
+
+    List<Consumer<BioCDocument>> changes = Lists.newArrayList();
+    changes.add(d -> d.getPassage(0).getSentence(0).getAnnotation(0).locationIterator().next()
+        .setLength(2));
+    changes.add(d -> d.getPassage(0).getSentence(0).getAnnotation(0).getInfons().put(KEY, VALUE));
+    changes.add(d -> d.getPassage(0).getSentence(0).getAnnotation(0).getLocations()
+        .add(new BioCLocation(5, 1)));
+    changes.add(d -> d.getPassage(0).getSentence(0).getAnnotation(0).setText("AB"));
+    changes.add(d -> d.getPassage(0).getSentence(0).setText("DEF"));
+    changes.add(d -> d.getPassage(0).getSentence(0).getAnnotations().add(createAnnotation("a2")));
+    changes.add(d -> d.getRelation(0).getNode("Theme").get().setRole("Cause"));
+    changes.add(d -> d.getRelation(0).getNodes().iterator().next().setRefid("a2"));
+    changes.add(d -> d.getPassage(0).putInfon(KEY, VALUE));
+    changes.add(d -> d.getPassage(0).getInfons().entrySet().iterator().next().setValue(VALUE_2));
+    changes.add(d -> d.getPassages().add(createPassage("DEF")));
+    changes.add(d -> d.getPassages().subList(1, 2).clear());
+    changes.add(d -> d.getPassage(0).getSentences().remove(0));
+    changes.add(d -> d.setID(ID_2));
+    for (Consumer<BioCDocument> change : changes) {
+      change.accept(document);
+      // a stale cached fingerprint would be returned unchanged
+      long next = assertFingerprint(document);
+      assertNotEquals(fingerprint, next);
+      assertEquals(next, document.fingerprint());
+      fingerprint = next;
+    }
+  }
+
+  @Test
+  public void test_fingerprint_sharedChild() {
+    BioCAnnotation annotation = createAnnotation("a1");
+    BioCPassage passage = createPassage("ABC");
+    passage.addAnnotation(annotation);
+    // the shallow copy shares the annotation, which cannot tell both passages of a change
+    BioCPassage copy = new BioCPassage(passage);
+    long fingerprint = passage.fingerprint();
+    assertEquals(fingerprint, copy.fingerprint());
+
+    annotation.setText("ABC");
+    assertNotEquals(fingerprint, passage.fingerprint());
+    assertEquals(passage.fingerprint(), copy.fingerprint());
+
+    // a deep copy does not share it
+    BioCPassage deepCopy = passage.deepCopy();
+    assertEquals(passage.fingerprint(), deepCopy.fingerprint());
+    deepCopy.getAnnotation(0).setText("AB");
+    assertNotEquals(passage.fingerprint(), deepCopy.fingerprint());
+  }
+
+  @Test
+  public void test_fingerprint_levels() {
+    BioCPassage passage = createPassage("ABC");
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(0);
+    sentence.setText("ABC");
+    assertNotEquals(passage.fingerprint(), sentence.fingerprint());
+  }
+
+  /**
+   * Asserts that the fingerprint of the structure is the one computed from scratch.
+   */
+  private static long assertFingerprint(BioCDocument document) {
+    long fingerprint = document.fingerprint();
+    assertEquals(document.deepCopy().fingerprint(), fingerprint);
+    return fingerprint;
+  }
+
+  private static BioCDocument createTree() {
+    BioCAnnotation annotation = createAnnotation("a1");
+    annotation.setText("ABC");
+    annotation.addLocation(new BioCLocation(0, 3));
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(0);
+    sentence.setText("ABC");
+    sentence.addAnnotation(annotation);
+    BioCPassage passage = createPassage("ABC");
+    passage.addSentence(sentence);
+    BioCDocument document = new BioCDocument(ID);
+    document.addPassage(passage);
+    document.addRelation(createRelation("r1"));
+    return document;
+  }
+
   private static BioCAnnotation createAnnotation(String id) {
     BioCAnnotation ann = new BioCAnnotation();
     ann.setID(id);
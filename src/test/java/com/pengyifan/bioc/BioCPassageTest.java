@@ -165,6 +165,40 @@ public class BioCPassageTest {
     assertThat(actual, contains(SEN_1, SEN_2));
   }
 
+  @Test
+  public void test_shareText() {
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(10);
+    passage.setText("Aspirin. Ibuprofen.");
+    BioCSentence sentence1 = createSentence(new String("Aspirin."));
+    sentence1.setOffset(10);
+    BioCAnnotation annotation1 = createAnnotation("a1");
+    annotation1.setText(new String("Aspirin"));
+    annotation1.addLocation(new BioCLocation(10, 7));
+    sentence1.addAnnotation(annotation1);
+    BioCSentence sentence2 = createSentence(new String("Ibuprofen!"));
+    sentence2.setOffset(19);
+    BioCAnnotation annotation2 = createAnnotation("a2");
+    annotation2.setText(new String("Ibuprofen"));
+    annotation2.addLocation(new BioCLocation(19, 9));
+    sentence2.addAnnotation(annotation2);
+    passage.addSentence(sentence1);
+    passage.addSentence(sentence2);
+    BioCPassage copy = passage.deepCopy();
+
+    // sentence2 differs from the passage text, so only its annotation is shared
+    assertEquals(3, passage.shareText());
+    assertEquals(0, passage.shareText());
+    assertFalse(sentence1.getTextSequence().get() instanceof String);
+    assertTrue(sentence2.getTextSequence().get() instanceof String);
+    assertEquals("Aspirin.", sentence1.getText().get());
+    assertEquals("Ibuprofen!", sentence2.getText().get());
+    assertEquals("Ibuprofen", annotation2.getText().get());
+    assertEquals(19, sentence1.getEnd() + 1);
+    new EqualsTester().addEqualityGroup(passage, copy).testEquals();
+    assertEquals(passage.fingerprint(), copy.fingerprint());
+  }
+
   private static BioCAnnotation createAnnotation(String id) {
     BioCAnnotation ann = new BioCAnnotation();
     ann.setID(id);
@@ -0,0 +1,113 @@
+package com.pengyifan.bioc;
+
+import com.google.common.collect.Maps;
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class InfonMapTest {
+
+  @Test
+  public void test_empty() {
+    InfonMap map = new InfonMap();
+    assertTrue(map.isEmpty());
+    assertNull(map.get("KEY"));
+    assertNull(map.get(null));
+    assertNull(map.remove("KEY"));
+  }
+
+  @Test
+  public void test_putAndGet() {
+    InfonMap map = new InfonMap();
+    assertNull(map.put("KEY", "VALUE"));
+    assertEquals("VALUE", map.put("KEY", "VALUE2"));
+    assertEquals("VALUE2", map.get("KEY"));
+    assertEquals(1, map.size());
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void test_inflateWhileIterating() {
+    InfonMap map = new InfonMap();
+    for (int i = 0; i < InfonMap.THRESHOLD; i++) {
+      map.put("key" + i, "value" + i);
+    }
+    for (String key : map.keySet()) {
+      map.put(key + "x", "value");
+    }
+  }
+
+  @Test
+  public void test_insertionOrder() {
+    InfonMap map = new InfonMap();
+    map.put("c", "1");
+    map.put("a", "2");
+    map.put("b", "3");
+    assertThat(map.keySet(), contains("c", "a", "b"));
+  }
+
+  @Test
+  public void test_inflate() {
+    InfonMap map = new InfonMap();
+    Map<String, String> expected = Maps.newHashMap();
+    for (int i = 0; i <= InfonMap.THRESHOLD * 2; i++) {
+      map.put("key" + i, "value" + i);
+      expected.put("key" + i, "value" + i);
+      assertEquals(expected, map);
+    }
+    map.clear();
+    assertTrue(map.isEmpty());
+    map.put("KEY", "VALUE");
+    assertEquals("VALUE", map.get("KEY"));
+  }
+
+  @Test
+  public void test_remove() {
+    InfonMap map = new InfonMap();
+    map.put("a", "1");
+    map.put("b", "2");
+    map.put("c", "3");
+    assertEquals("2", map.remove("b"));
+    assertThat(map.keySet(), contains("a", "c"));
+
+    Iterator<String> itr = map.keySet().iterator();
+    itr.next();
+    itr.remove();
+    assertThat(map.keySet(), contains("c"));
+  }
+
+  @Test
+  public void test_setValue() {
+    InfonMap map = new InfonMap();
+    map.put("KEY", "VALUE");
+    map.entrySet().iterator().next().setValue("VALUE2");
+    assertEquals("VALUE2", map.get("KEY"));
+  }
+
+  @Test
+  public void test_equals() {
+    InfonMap map = new InfonMap();
+    map.put("KEY", "VALUE");
+    Map<String, String> hashMap = Maps.newHashMap();
+    hashMap.put("KEY", "VALUE");
+
+    InfonMap diff = new InfonMap();
+    diff.put("KEY", "VALUE2");
+
+    new EqualsTester()
+        .addEqualityGroup(map, hashMap)
+        .addEqualityGroup(diff)
+        .addEqualityGroup(new InfonMap())
+        .testEquals();
+    assertFalse(map.equals(diff));
+  }
+}
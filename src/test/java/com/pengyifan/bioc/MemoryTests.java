@@ -0,0 +1,9 @@
+package com.pengyifan.bioc;
+
+/**
+ * Category of the tests that measure the retained heap. They depend on the JVM, e.g., on
+ * compressed oops, object alignment and explicit GC, so they are excluded by default and run with
+ * {@code mvn test -Pmemory-tests}.
+ */
+public interface MemoryTests {
+}
@@ -1,7 +1,10 @@
 package com.pengyifan.bioc.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -73,6 +76,80 @@ public class BioCDocumentReaderTest {
     reader.close();
   }
 
+  @Test
+  public void test_recycling()
+      throws Exception {
+    URL url = this.getClass().getResource("/" + XML_FILENAME);
+    BioCCollectionReader collectionReader = new BioCCollectionReader(url.getFile());
+    BioCCollection collection = collectionReader.readCollection();
+    collectionReader.close();
+    BioCDocument expected = collection.getDocument(0);
+    for (int i = 0; i < 3; i++) {
+      collection.addDocument(new BioCDocument(expected));
+    }
+    File tmpFile = testFolder.newFile();
+    BioCCollectionWriter writer = new BioCCollectionWriter(tmpFile);
+    writer.writeCollection(collection);
+    writer.close();
+
+    BioCDocumentReader reader = new BioCDocumentReader(tmpFile);
+    reader.setRecycling(true);
+    assertTrue(reader.isRecycling());
+    reader.readCollectionInfo();
+    BioCDocument first = reader.readDocument();
+    assertEquals(expected, first);
+    reader.recycle(first);
+
+    // the reader reads one document ahead, so the first one is refilled by the third read
+    BioCDocument second = reader.readDocument();
+    assertEquals(expected, second);
+    reader.recycle(second);
+    BioCDocument third = reader.readDocument();
+    assertSame(first, third);
+    assertEquals(expected, third);
+    reader.recycle(third);
+    BioCDocument fourth = reader.readDocument();
+    assertSame(second, fourth);
+    assertEquals(expected, fourth);
+    assertNull(reader.readDocument());
+    reader.close();
+  }
+
+  @Test
+  public void test_recycleFrozen()
+      throws Exception {
+    URL url = this.getClass().getResource("/" + XML_FILENAME);
+    BioCDocumentReader reader = new BioCDocumentReader(url.getFile());
+    reader.setRecycling(true);
+    reader.readCollectionInfo();
+    BioCDocument doc = reader.readDocument();
+    doc.freeze();
+    thrown.expect(IllegalArgumentException.class);
+    reader.recycle(doc);
+  }
+
+  @Test
+  public void test_recycleCapacity() {
+    BioCObjectPool pool = new BioCObjectPool(2);
+    BioCDocument document = new BioCDocument();
+    BioCPassage[] passages = new BioCPassage[3];
+    for (int i = 0; i < passages.length; i++) {
+      passages[i] = new BioCPassage();
+      document.addPassage(passages[i]);
+    }
+    pool.release(document);
+    assertEquals(0, document.getPassageCount());
+
+    // only the first two released passages are kept
+    assertSame(passages[1], pool.passage());
+    assertSame(passages[0], pool.passage());
+    BioCPassage passage = pool.passage();
+    for (BioCPassage p : passages) {
+      assertNotSame(p, passage);
+    }
+    assertSame(document, pool.document());
+  }
+
   private void test(BioCDocumentReader reader)
       throws XMLStreamException, IOException {
     BioCCollection collection = reader.readCollectionInfo();
@@ -1,5 +1,6 @@
 package com.pengyifan.bioc.io;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -8,6 +9,8 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 
 import javax.xml.stream.XMLStreamException;
@@ -22,6 +25,7 @@ import org.xml.sax.SAXException;
 
 import com.pengyifan.bioc.BioCCollection;
 import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
 
 public class BioCDocumentWriterTest {
 
@@ -88,6 +92,36 @@ public class BioCDocumentWriterTest {
     writer.close();
   }
   
+  @Test
+  public void test_longText()
+      throws Exception {
+    // longer than a chunk, with a surrogate pair across the first chunk boundary
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < 4095) {
+      sb.append("a < b & c ");
+    }
+    sb.setLength(4095);
+    sb.append("\ud83d\ude00 ]]> \"end\"");
+    String text = sb.toString();
+
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(0);
+    passage.setText(text);
+    BioCDocument document = new BioCDocument("1");
+    document.addPassage(passage);
+
+    StringWriter out = new StringWriter();
+    BioCDocumentWriter writer = new BioCDocumentWriter(out);
+    writer.writeBeginCollectionInfo(new BioCCollection());
+    writer.writeDocument(document);
+    writer.close();
+
+    BioCDocumentReader reader = new BioCDocumentReader(new StringReader(out.toString()));
+    reader.readCollectionInfo();
+    assertEquals(text, reader.readDocument().getPassage(0).getText().get());
+    reader.close();
+  }
+
   private void test(BioCCollection collection,
       BioCDocumentWriter writer,
       File tmpFile)
@@ -0,0 +1,134 @@
+package com.pengyifan.bioc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.util.BioCSentenceIterator;
+
+public class BioCPagedCollectionTest {
+
+  private static final String XML_FILENAME = "xml/everything.xml";
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_success()
+      throws Exception {
+    URL url = this.getClass().getResource("/" + XML_FILENAME);
+    BioCCollectionReader reader = new BioCCollectionReader(url.getFile());
+    BioCCollection expected = reader.readCollection();
+    reader.close();
+
+    try (BioCPagedCollection collection = new BioCPagedCollection(new File(url.getFile()), 1)) {
+      assertTrue(collection.isFrozen());
+      assertEquals(expected.getSource(), collection.getSource());
+      assertEquals(expected.getKey(), collection.getKey());
+      assertEquals(expected.getInfons(), collection.getInfons());
+      assertEquals(1, collection.getDocmentCount());
+      assertEquals(expected.getDocument(0), collection.getDocument(0));
+      assertTrue(collection.getDocument(0).isFrozen());
+      assertEquals(expected, collection);
+      assertEquals(collection, expected);
+      assertEquals(expected.hashCode(), collection.hashCode());
+    }
+  }
+
+  @Test
+  public void test_cache()
+      throws Exception {
+    File file = writeCollection(10);
+    try (BioCPagedCollection collection = new BioCPagedCollection(file, 3)) {
+      assertEquals(10, collection.getDocmentCount());
+      for (int i = 0; i < 10; i++) {
+        assertEquals(String.valueOf(i), collection.getDocument(i).getID());
+      }
+      assertEquals(3, collection.cachedDocumentCount());
+      assertEquals(10, collection.cacheStats().missCount());
+      assertEquals(7, collection.cacheStats().evictionCount());
+
+      BioCDocument doc = collection.getDocument(9);
+      assertSame(doc, collection.getDocument(9));
+      assertEquals(2, collection.cacheStats().hitCount());
+
+      BioCDocument evicted = collection.getDocument(0);
+      collection.getDocument(1);
+      collection.getDocument(2);
+      collection.getDocument(3);
+      assertNotSame(evicted, collection.getDocument(0));
+      assertEquals(evicted, collection.getDocument(0));
+      List<BioCDocument> documents = Lists.newArrayList(collection.documentIterator());
+      assertEquals(10, documents.size());
+      assertEquals("5", collection.getDocuments().get(5).getID());
+    }
+  }
+
+  @Test
+  public void test_sentenceIterator()
+      throws Exception {
+    File file = writeCollection(5);
+    try (BioCPagedCollection collection = new BioCPagedCollection(file, 2)) {
+      BioCSentenceIterator itr = new BioCSentenceIterator(collection);
+      int count = 0;
+      while (itr.hasNext()) {
+        BioCSentence sentence = itr.next();
+        assertEquals("sentence " + count / 2, sentence.getText().get());
+        count++;
+      }
+      assertEquals(10, count);
+    }
+  }
+
+  @Test
+  public void test_addDocument()
+      throws Exception {
+    File file = writeCollection(1);
+    try (BioCPagedCollection collection = new BioCPagedCollection(file, 2)) {
+      thrown.expect(UnsupportedOperationException.class);
+      collection.addDocument(new BioCDocument("1"));
+    }
+  }
+
+  private File writeCollection(int size)
+      throws Exception {
+    BioCCollection collection = new BioCCollection("source", "key");
+    for (int i = 0; i < size; i++) {
+      BioCDocument document = new BioCDocument(String.valueOf(i));
+      document.putInfon("comment", "<!-- <document> -->");
+      BioCPassage passage = new BioCPassage();
+      passage.setOffset(0);
+      for (int j = 0; j < 2; j++) {
+        BioCSentence sentence = new BioCSentence();
+        sentence.setOffset(j * 20);
+        sentence.setText("sentence " + i);
+        passage.addSentence(sentence);
+      }
+      document.addPassage(passage);
+      collection.addDocument(document);
+    }
+    File file = testFolder.newFile();
+    BioCCollectionWriter writer = new BioCCollectionWriter(file);
+    writer.writeCollection(collection);
+    writer.close();
+    return file;
+  }
+}
@@ -0,0 +1,205 @@
+package com.pengyifan.bioc.offheap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.common.base.Strings;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.HasAnnotations;
+import com.pengyifan.bioc.HasInfons;
+import com.pengyifan.bioc.HasRelations;
+import com.pengyifan.bioc.HasText;
+import com.pengyifan.bioc.io.BioCCollectionReader;
+import com.pengyifan.bioc.io.BioCDocumentReader;
+
+public class BioCOffHeapStoreTest {
+
+  private static final String[] XML_FILENAMES = {
+      "xml/everything.xml",
+      "xml/PMID-8557975-simplified-sentences.xml" };
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_addAll()
+      throws Exception {
+    for (String filename : XML_FILENAMES) {
+      URL url = this.getClass().getResource("/" + filename);
+      BioCCollectionReader collectionReader = new BioCCollectionReader(url.getFile());
+      BioCCollection expected = collectionReader.readCollection();
+      collectionReader.close();
+
+      BioCDocumentReader reader = new BioCDocumentReader(url.getFile());
+      reader.setRecycling(true);
+      BioCOffHeapStore store = new BioCOffHeapStore();
+      assertEquals(expected.getDocmentCount(), store.addAll(reader));
+      reader.close();
+
+      assertEquals(expected.getDocmentCount(), store.getDocumentCount());
+      Iterator<BioCDocumentView> itr = store.documentIterator();
+      for (BioCDocument document : expected.getDocuments()) {
+        assertEquals(document, itr.next().toBioC());
+      }
+      assertFalse(itr.hasNext());
+    }
+  }
+
+  @Test
+  public void test_views() {
+    BioCOffHeapStore store = new BioCOffHeapStore(64);
+    store.addDocument(new BioCDocument("0"));
+    store.addDocument(createDocument());
+
+    BioCDocumentView document = store.getDocument(1);
+    assertEquals("1", document.getID());
+    assertEquals("v", document.getInfon("k").get());
+    assertFalse(document.getInfon("v").isPresent());
+    assertEquals(1, document.getRelationCount());
+
+    BioCRelationView relation = document.getRelation(0);
+    assertEquals("R1", relation.getID());
+    assertEquals(new BioCNode("T1", "Agent"), relation.getNode(0));
+
+    BioCPassageView passage = document.getPassage(0);
+    assertEquals(10, passage.getOffset());
+    assertEquals("Aspirin reduces pain.", passage.getText().get());
+    assertEquals(2, passage.getSentenceCount());
+    assertFalse(passage.getSentence(1).getText().isPresent());
+
+    BioCAnnotationView annotation = passage.getSentence(0).getAnnotation(0);
+    assertEquals("T1", annotation.getID());
+    assertEquals("Aspirin", annotation.getText().get());
+    assertEquals("Chemical", annotation.getInfon("type").get());
+    assertEquals(new BioCLocation(10, 7), annotation.getLocation(0));
+    assertEquals(createDocument(), document.toBioC());
+    assertEquals(new BioCDocument("0"), store.getDocument(0).toBioC());
+  }
+
+  @Test
+  public void test_dictionary() {
+    BioCOffHeapStore store = new BioCOffHeapStore();
+    for (int i = 0; i < 100; i++) {
+      store.addDocument(createDocument());
+    }
+    // "1", "k", "v", "Aspirin reduces pain.", "T1", "Aspirin", "type", "Chemical", "R1", "Agent"
+    assertEquals(10, store.getStringCount());
+    assertTrue(store.getOffHeapSize() > 0);
+  }
+
+  @Test
+  public void test_dictionary_growth() {
+    StringDictionary strings = new StringDictionary(256);
+    String[] samples = {
+        "", "k", "caf\u00e9", "\u4e2d\u6587", "\ud83d\ude00", "\ud83d?", "\ud83d" };
+    int count = 20_000;
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, strings.add(samples[i % samples.length] + i));
+    }
+    String text = Strings.repeat("Aspirin reduces pain. ", 10);
+    assertEquals(count, strings.add(text));
+    assertEquals(count + 1, strings.add(text));
+    for (int i = 0; i < count; i++) {
+      String s = samples[i % samples.length] + i;
+      assertEquals(i, strings.find(s));
+      assertEquals(i, strings.add(s));
+      assertEquals(new String(s.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+          strings.get(i));
+    }
+    assertEquals(count + 2, strings.size());
+    assertEquals(StringDictionary.ABSENT, strings.find("absent"));
+    assertEquals(StringDictionary.ABSENT, strings.find(text));
+    assertEquals(StringDictionary.NULL, strings.add(null));
+    assertNull(strings.get(StringDictionary.NULL));
+  }
+
+  @Test
+  public void test_readInterfaces() {
+    BioCOffHeapStore store = new BioCOffHeapStore();
+    store.addDocument(createDocument());
+    BioCDocument expected = createDocument();
+
+    BioCDocumentView document = store.getDocument(0);
+    HasInfons infons = document;
+    assertEquals(expected.getInfons(), infons.getInfons());
+    HasRelations relations = document;
+    assertEquals(expected.getRelations(), relations.getRelations());
+    assertEquals(expected.getRelation("R1"), relations.getRelation("R1"));
+    assertFalse(relations.getRelation("R2").isPresent());
+
+    BioCSentenceView sentence = document.getPassage(0).getSentence(0);
+    HasAnnotations annotations = sentence;
+    assertEquals(expected.getPassage(0).getSentence(0).getAnnotations(),
+        annotations.getAnnotations());
+    BioCAnnotation annotation = annotations.getAnnotation("T1").get();
+    assertTrue(annotation.isFrozen());
+    assertEquals(annotation,
+        annotations.getAnnotation(document.getRelation(0).toBioC(), "Agent").get());
+    HasText text = sentence.getAnnotation(0);
+    assertEquals("Aspirin", text.getText().get());
+
+    thrown.expect(UnsupportedOperationException.class);
+    text.setText("Ibuprofen");
+  }
+
+  @Test
+  public void test_readInterfaces_unmodifiable() {
+    BioCOffHeapStore store = new BioCOffHeapStore();
+    store.addDocument(createDocument());
+    thrown.expect(UnsupportedOperationException.class);
+    store.getDocument(0).addAnnotation(new BioCAnnotation("T2"));
+  }
+
+  @Test
+  public void test_getDocument_outOfBounds() {
+    BioCOffHeapStore store = new BioCOffHeapStore();
+    thrown.expect(IndexOutOfBoundsException.class);
+    store.getDocument(0);
+  }
+
+  private static BioCDocument createDocument() {
+    BioCAnnotation annotation = new BioCAnnotation("T1");
+    annotation.setText("Aspirin");
+    annotation.putInfon("type", "Chemical");
+    annotation.addLocation(new BioCLocation(10, 7));
+
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(10);
+    sentence.setText("Aspirin reduces pain.");
+    sentence.addAnnotation(annotation);
+
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(10);
+    passage.setText("Aspirin reduces pain.");
+    passage.addSentence(sentence);
+    BioCSentence empty = new BioCSentence();
+    empty.setOffset(32);
+    passage.addSentence(empty);
+
+    BioCRelation relation = new BioCRelation("R1");
+    relation.addNode(new BioCNode("T1", "Agent"));
+
+    BioCDocument document = new BioCDocument("1");
+    document.putInfon("k", "v");
+    document.addPassage(passage);
+    document.addRelation(relation);
+    return document;
+  }
+}
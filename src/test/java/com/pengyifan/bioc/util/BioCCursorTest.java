@@ -0,0 +1,114 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BioCCursorTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_annotations() {
+    BioCCollection collection = new BioCCollection();
+    collection.addDocument(createDocument("1"));
+    collection.addDocument(new BioCDocument("2"));
+    collection.addDocument(createDocument("3"));
+
+    BioCCursor cursor = BioCCursor.annotations(collection);
+    StringBuilder sb = new StringBuilder();
+    while (cursor.next()) {
+      BioCAnnotation annotation = cursor.getAnnotation();
+      assertSame(annotation, cursor.getStructure().getAnnotation(cursor.getIndex()));
+      sb.append(cursor.getDocument().getID()).append(annotation.getID());
+      if (cursor.getSentence() != null) {
+        assertSame(cursor.getSentence(), cursor.getStructure());
+        assertSame(cursor.getPassage().getSentence(0), cursor.getSentence());
+      } else if (cursor.getPassage() != null) {
+        assertSame(cursor.getPassage(), cursor.getStructure());
+      } else {
+        assertSame(cursor.getDocument(), cursor.getStructure());
+      }
+      sb.append(' ');
+    }
+    assertEquals("1d 1p1 1s1 1s2 1p2 3d 3p1 3s1 3s2 3p2 ", sb.toString());
+    assertFalse(cursor.next());
+
+    cursor.reset();
+    assertTrue(cursor.next());
+    assertEquals("d", cursor.getAnnotation().getID());
+  }
+
+  @Test
+  public void test_relations() {
+    BioCDocument document = createDocument("1");
+    BioCCursor cursor = BioCCursor.relations(document);
+    assertTrue(cursor.next());
+    assertEquals("r", cursor.getRelation().getID());
+    assertNull(cursor.getPassage());
+    assertFalse(cursor.next());
+
+    thrown.expect(IllegalStateException.class);
+    cursor.getDocument();
+  }
+
+  @Test
+  public void test_wrongKind() {
+    BioCCursor cursor = BioCCursor.relations(createDocument("1"));
+    cursor.next();
+    thrown.expect(IllegalStateException.class);
+    cursor.getAnnotation();
+  }
+
+  @Test
+  public void test_manyEmptySentences() {
+    BioCPassage passage = new BioCPassage();
+    for (int i = 0; i < 200000; i++) {
+      passage.addSentence(new BioCSentence());
+    }
+    passage.getSentence(199999).addAnnotation(new BioCAnnotation("a"));
+    BioCDocument document = new BioCDocument("1");
+    document.addPassage(passage);
+
+    BioCCursor cursor = BioCCursor.annotations(document);
+    assertTrue(cursor.next());
+    assertEquals("a", cursor.getAnnotation().getID());
+    BioCAnnotationIterator itr = new BioCAnnotationIterator(document);
+    assertTrue(itr.hasNext());
+    assertEquals("a", itr.next().getID());
+    assertFalse(new BioCRelationIterator(document).hasNext());
+  }
+
+  /**
+   * Annotations d, p1, s1, s2 and p2, with p2 in a passage without sentences.
+   */
+  private static BioCDocument createDocument(String id) {
+    BioCSentence sentence = new BioCSentence();
+    sentence.addAnnotation(new BioCAnnotation("s1"));
+    sentence.addAnnotation(new BioCAnnotation("s2"));
+    BioCPassage passage1 = new BioCPassage();
+    passage1.addAnnotation(new BioCAnnotation("p1"));
+    passage1.addSentence(sentence);
+    BioCPassage passage2 = new BioCPassage();
+    passage2.addAnnotation(new BioCAnnotation("p2"));
+    BioCDocument document = new BioCDocument(id);
+    document.addAnnotation(new BioCAnnotation("d"));
+    document.addRelation(new BioCRelation("r"));
+    document.addPassage(passage1);
+    document.addPassage(passage2);
+    return document;
+  }
+}
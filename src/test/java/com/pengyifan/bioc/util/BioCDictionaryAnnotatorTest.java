@@ -0,0 +1,197 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class BioCDictionaryAnnotatorTest {
+
+  private static final Map<String, String> CHEMICAL = ImmutableMap.of("type", "Chemical");
+  private static final Map<String, String> GENE = ImmutableMap.of("type", "Gene");
+  private static final String TEXT = "Aspirin (acetylsalicylic acid) is in BRCA1x and BRCA1.";
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static Map<String, Map<String, String>> createDictionary() {
+    Map<String, Map<String, String>> dictionary = Maps.newLinkedHashMap();
+    dictionary.put("aspirin", CHEMICAL);
+    dictionary.put("acetylsalicylic acid", CHEMICAL);
+    dictionary.put("acid", CHEMICAL);
+    dictionary.put("BRCA1", GENE);
+    return dictionary;
+  }
+
+  private static BioCDocument createDocument(String id) {
+    BioCDocument document = new BioCDocument(id);
+    document.addAnnotation(new BioCAnnotation("T1"));
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(10);
+    passage.setText(TEXT);
+    document.addPassage(passage);
+    passage = new BioCPassage();
+    passage.setOffset(100);
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(200);
+    sentence.setText("No acid");
+    passage.addSentence(sentence);
+    document.addPassage(passage);
+    return document;
+  }
+
+  @Test
+  public void test_annotate() {
+    BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(createDictionary(), true);
+    assertEquals(4, annotator.size());
+    BioCDocument document = createDocument("1");
+    assertEquals(4, annotator.annotate(document));
+
+    BioCPassage passage = document.getPassage(0);
+    assertEquals(3, passage.getAnnotationCount());
+    assertAnnotation(passage.getAnnotation(0), "T0", "Aspirin", 10, CHEMICAL);
+    assertAnnotation(passage.getAnnotation(1), "T2", "acetylsalicylic acid",
+        10 + TEXT.indexOf("acetyl"), CHEMICAL);
+    assertAnnotation(passage.getAnnotation(2), "T3", "BRCA1", 10 + TEXT.indexOf("BRCA1."), GENE);
+    BioCSentence sentence = document.getPassage(1).getSentence(0);
+    assertEquals(1, sentence.getAnnotationCount());
+    assertAnnotation(sentence.getAnnotation(0), "T4", "acid", 203, CHEMICAL);
+  }
+
+  @Test
+  public void test_caseSensitive() {
+    BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(createDictionary());
+    BioCDocument document = createDocument("1");
+    assertEquals(3, annotator.annotate(document));
+    assertEquals("acetylsalicylic acid",
+        document.getPassage(0).getAnnotation(0).getText().get());
+  }
+
+  @Test
+  public void test_duplicateTerms() {
+    Map<String, Map<String, String>> dictionary = Maps.newLinkedHashMap();
+    dictionary.put("BRCA1", GENE);
+    dictionary.put("brca1", CHEMICAL);
+    BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(dictionary, true);
+    assertEquals(1, annotator.size());
+    BioCDocument document = createDocument("1");
+    annotator.annotate(document);
+    assertEquals(GENE, document.getPassage(0).getAnnotation(0).getInfons());
+  }
+
+  @Test
+  public void test_collection() {
+    BioCCollection expected = new BioCCollection();
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < 100; i++) {
+      expected.addDocument(createDocument(Integer.toString(i)));
+      collection.addDocument(createDocument(Integer.toString(i)));
+    }
+    BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(createDictionary(), true);
+    for (BioCDocument document : expected.getDocuments()) {
+      annotator.annotate(document);
+    }
+    assertEquals(400, annotator.annotate(collection));
+    assertEquals(expected, collection);
+  }
+
+  @Test
+  public void test_readWrite() throws Exception {
+    BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(createDictionary(), true);
+    Path path = testFolder.newFile().toPath();
+    annotator.write(path);
+    BioCDictionaryAnnotator copy = BioCDictionaryAnnotator.read(path);
+    assertEquals(annotator.size(), copy.size());
+
+    BioCDocument expected = createDocument("1");
+    annotator.annotate(expected);
+    BioCDocument document = createDocument("1");
+    copy.annotate(document);
+    assertEquals(expected, document);
+  }
+
+  @Test
+  public void test_match() {
+    Random random = new Random(3);
+    for (int t = 0; t < 100; t++) {
+      Map<String, Map<String, String>> dictionary = Maps.newLinkedHashMap();
+      for (int i = random.nextInt(10) + 1; i > 0; i--) {
+        dictionary.put(randomString(random, random.nextInt(4) + 1), CHEMICAL);
+      }
+      String text = randomString(random, 100);
+      BioCDictionaryAnnotator annotator = new BioCDictionaryAnnotator(dictionary);
+      assertEquals(text, naiveMatch(dictionary, text), annotator.match(text).stream()
+          .map(m -> text.substring(m[0], m[1]) + "@" + m[0])
+          .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void test_emptyTerm() {
+    thrown.expect(IllegalArgumentException.class);
+    new BioCDictionaryAnnotator(ImmutableMap.of("", CHEMICAL));
+  }
+
+  private static void assertAnnotation(BioCAnnotation annotation, String id, String text,
+      int offset, Map<String, String> infons) {
+    assertEquals(id, annotation.getID());
+    assertEquals(text, annotation.getText().get());
+    assertEquals(ImmutableSet.of(new BioCLocation(offset, text.length())),
+        annotation.getLocations());
+    assertEquals(infons, annotation.getInfons());
+  }
+
+  private static String randomString(Random random, int length) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append("ab ".charAt(random.nextInt(3)));
+    }
+    return sb.toString();
+  }
+
+  private static List<String> naiveMatch(Map<String, Map<String, String>> dictionary,
+      String text) {
+    List<int[]> matches = Lists.newArrayList();
+    for (String term : dictionary.keySet()) {
+      for (int i = text.indexOf(term); i >= 0; i = text.indexOf(term, i + 1)) {
+        int end = i + term.length();
+        if ((i == 0 || text.charAt(i - 1) == ' ') && (end == text.length()
+            || text.charAt(end) == ' ')) {
+          matches.add(new int[] {i, end});
+        }
+      }
+    }
+    matches.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> -m[1]));
+    List<String> selected = Lists.newArrayList();
+    int end = 0;
+    for (int[] match : matches) {
+      if (match[0] >= end) {
+        selected.add(text.substring(match[0], match[1]) + "@" + match[0]);
+        end = match[1];
+      }
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,127 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class BioCFileIteratorTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private BioCCollection collection;
+  private Path path;
+
+  @Before
+  public void setUp() throws Exception {
+    collection = new BioCCollection();
+    collection.setSource("test");
+    for (int i = 0; i < 3; i++) {
+      BioCSentence sentence = new BioCSentence();
+      sentence.setOffset(0);
+      sentence.setText("s" + i);
+      sentence.addAnnotation(new BioCAnnotation("s" + i));
+      BioCPassage passage = new BioCPassage();
+      passage.setOffset(0);
+      passage.addAnnotation(new BioCAnnotation("p" + i));
+      passage.addSentence(sentence);
+      BioCDocument document = new BioCDocument(Integer.toString(i));
+      document.addAnnotation(new BioCAnnotation("d" + i));
+      document.addRelation(new BioCRelation("r" + i));
+      if (i != 1) {
+        document.addPassage(passage);
+      }
+      collection.addDocument(document);
+    }
+    path = testFolder.newFile().toPath();
+    BioCUtils.writeCollectioin(path, collection);
+  }
+
+  @Test
+  public void test_annotations() throws Exception {
+    List<String> ids = Lists.newArrayList();
+    List<String> context = Lists.newArrayList();
+    try (BioCFileIterator<BioCAnnotation> itr = BioCFileIterator.annotations(path)) {
+      assertEquals("test", itr.getCollectionInfo().getSource());
+      while (itr.hasNext()) {
+        ids.add(itr.next().getID());
+        assertEquals(ids.get(ids.size() - 1), itr.current().getID());
+        context.add(itr.getDocument().getID() + (itr.getPassage() != null ? "p" : "")
+            + (itr.getSentence() != null ? "s" : ""));
+      }
+      assertFalse(itr.hasNext());
+    }
+    assertEquals(Lists.newArrayList("d0", "p0", "s0", "d1", "d2", "p2", "s2"), ids);
+    assertEquals(Lists.newArrayList("0", "0p", "0ps", "1", "2", "2p", "2ps"), context);
+  }
+
+  @Test
+  public void test_sentences() throws Exception {
+    try (BioCFileIterator<BioCSentence> itr = BioCFileIterator.sentences(path)) {
+      List<String> texts = Lists.newArrayList();
+      while (itr.hasNext()) {
+        BioCSentence sentence = itr.next();
+        texts.add(sentence.getText().get());
+        assertEquals(sentence, itr.getPassage().getSentence(0));
+      }
+      assertEquals(Lists.newArrayList("s0", "s2"), texts);
+    }
+  }
+
+  @Test
+  public void test_stream() throws Exception {
+    try (Stream<BioCDocument> stream = BioCFileIterator.documents(path).stream()) {
+      assertEquals(collection.getDocuments(), stream.collect(Collectors.toList()));
+    }
+    try (Stream<BioCPassage> stream = BioCFileIterator.passages(path).stream()) {
+      assertEquals(2, stream.count());
+    }
+    try (Stream<BioCRelation> stream = BioCFileIterator.relations(path).stream()) {
+      assertEquals(Lists.newArrayList("r0", "r1", "r2"),
+          stream.map(BioCRelation::getID).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void test_passageContext() throws Exception {
+    try (BioCFileIterator<BioCPassage> itr = BioCFileIterator.passages(path)) {
+      itr.next();
+      assertEquals("0", itr.getDocument().getID());
+      assertNull(itr.getSentence());
+      itr.next();
+      assertEquals("2", itr.getDocument().getID());
+      thrown.expect(NoSuchElementException.class);
+      itr.next();
+    }
+  }
+
+  @Test
+  public void test_current() throws Exception {
+    try (BioCFileIterator<BioCPassage> itr = BioCFileIterator.passages(path)) {
+      thrown.expect(IllegalStateException.class);
+      itr.current();
+    }
+  }
+}
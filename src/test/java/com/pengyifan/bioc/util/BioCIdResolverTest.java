@@ -0,0 +1,115 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class BioCIdResolverTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_success() {
+    BioCDocument document = createDocument();
+    BioCPassage passage = document.getPassage(0);
+    BioCSentence sentence = passage.getSentence(0);
+    BioCRelation relation = document.getRelation(0);
+    BioCIdResolver resolver = new BioCIdResolver(document);
+
+    assertSame(document, resolver.getDocument());
+    assertSame(sentence.getAnnotation(0), resolver.getAnnotation("T1").get());
+    assertSame(passage.getAnnotation(0), resolver.getAnnotation("T2").get());
+    assertSame(relation, resolver.getRelation("R1").get());
+    assertSame(sentence, resolver.getStructure("T1").get());
+    assertSame(passage, resolver.getStructure("T2").get());
+    assertSame(document, resolver.getStructure("R1").get());
+    assertSame(sentence.getAnnotation(0), resolver.getAnnotation(relation, "Chemical").get());
+    assertEquals(Optional.empty(), resolver.getAnnotation("T9"));
+    assertEquals(Optional.empty(), resolver.getRelation("T1"));
+    assertEquals(Optional.empty(), resolver.getStructure("T9"));
+
+    thrown.expect(NoSuchElementException.class);
+    resolver.getAnnotation(relation, "Disease");
+  }
+
+  @Test
+  public void test_refresh() {
+    BioCDocument document = createDocument();
+    BioCPassage passage = document.getPassage(0);
+    BioCSentence sentence = passage.getSentence(0);
+    BioCIdResolver resolver = new BioCIdResolver(document);
+    assertEquals(0, resolver.refresh());
+
+    // move T1 from the sentence to the document
+    BioCAnnotation t1 = sentence.getAnnotation(0);
+    sentence.clearAnnotations();
+    document.addAnnotation(t1);
+    assertEquals(2, resolver.refresh());
+    assertSame(document, resolver.getStructure("T1").get());
+
+    // rename T2
+    passage.getAnnotation(0).setID("T3");
+    assertEquals(1, resolver.refresh());
+    assertFalse(resolver.getAnnotation("T2").isPresent());
+    assertSame(passage, resolver.getStructure("T3").get());
+
+    // add a passage, remove it again
+    BioCPassage other = new BioCPassage();
+    other.addAnnotation(new BioCAnnotation("T4"));
+    document.addPassage(other);
+    assertEquals(1, resolver.refresh());
+    assertSame(other, resolver.getStructure("T4").get());
+    document.getPassages().remove(other);
+    assertEquals(1, resolver.refresh());
+    assertFalse(resolver.getAnnotation("T4").isPresent());
+  }
+
+  @Test
+  public void test_refresh_withoutId() {
+    BioCDocument document = createDocument();
+    BioCIdResolver resolver = new BioCIdResolver(document);
+
+    // an annotation and a relation whose ids are not set yet are skipped
+    BioCAnnotation annotation = new BioCAnnotation("T5");
+    document.addAnnotation(annotation);
+    annotation.setID(null);
+    BioCRelation relation = new BioCRelation("R2");
+    document.addRelation(relation);
+    relation.setID(null);
+    assertEquals(1, resolver.refresh());
+    assertSame(document, resolver.getStructure("R1").get());
+
+    annotation.setID("T5");
+    assertEquals(1, resolver.refresh());
+    assertSame(annotation, resolver.getAnnotation("T5").get());
+  }
+
+  private static BioCDocument createDocument() {
+    BioCSentence sentence = new BioCSentence();
+    sentence.addAnnotation(new BioCAnnotation("T1"));
+    BioCPassage passage = new BioCPassage();
+    passage.addAnnotation(new BioCAnnotation("T2"));
+    passage.addSentence(sentence);
+    BioCRelation relation = new BioCRelation("R1");
+    relation.addNode(new BioCNode("T1", "Chemical"));
+    relation.addNode(new BioCNode("T2", "Gene"));
+    BioCDocument document = new BioCDocument("1");
+    document.addRelation(relation);
+    document.addPassage(passage);
+    return document;
+  }
+}
@@ -0,0 +1,112 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BioCInfonIndexTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Test
+  public void test_build() throws Exception {
+    BioCCollection collection = createCollection(1000);
+    BioCInfonIndex index = BioCInfonIndex.build(collection);
+    assertEquals(1000, index.getDocumentCount());
+    assertEquals(3000, index.getAnnotationCount());
+
+    int[] chemicals = index.getAnnotations("type", "Chemical");
+    assertEquals(2000, chemicals.length);
+    int[] aspirin = BioCInfonIndex.and(chemicals, index.getAnnotations("identifier", "MESH:1"));
+    assertEquals(1000, aspirin.length);
+    int[] documents = index.getDocuments(aspirin);
+    assertEquals(1000, documents.length);
+    assertEquals("D7", index.getDocumentID(index.getDocument(aspirin[7])));
+
+    BioCAnnotation annotation = index.getAnnotation(collection.getDocument(7), aspirin[7]);
+    assertEquals("MESH:1", annotation.getInfon("identifier").get());
+
+    int[] any = BioCInfonIndex.or(index.getAnnotations("identifier", "MESH:1"),
+        index.getAnnotations("type", "Gene"));
+    assertEquals(2000, any.length);
+    assertArrayEquals(new int[0], index.getAnnotations("type", "Disease"));
+    assertArrayEquals(new int[0], BioCInfonIndex.and(chemicals, new int[0]));
+
+    BioCInfonIndex sequential = new BioCInfonIndex();
+    for (BioCDocument document : collection.getDocuments()) {
+      sequential.add(document);
+    }
+    assertArrayEquals(chemicals, sequential.getAnnotations("type", "Chemical"));
+    assertEquals(index.getTermCount(), sequential.getTermCount());
+  }
+
+  @Test
+  public void test_build_fetchesDocumentsOnce() {
+    BioCCollection source = createCollection(600);
+    AtomicInteger fetched = new AtomicInteger();
+    BioCCollection collection = new BioCCollection() {
+      @Override
+      public BioCDocument getDocument(int index) {
+        fetched.incrementAndGet();
+        return source.getDocument(index);
+      }
+
+      @Override
+      public int getDocmentCount() {
+        return source.getDocmentCount();
+      }
+    };
+    BioCInfonIndex index = BioCInfonIndex.build(collection);
+    assertEquals(600, fetched.get());
+    assertEquals(1800, index.getAnnotationCount());
+    assertEquals("D599", index.getDocumentID(599));
+    assertEquals(599, index.getDocument(index.getAnnotationCount() - 1));
+  }
+
+  @Test
+  public void test_write() throws Exception {
+    BioCInfonIndex index = BioCInfonIndex.build(createCollection(10));
+    Path path = testFolder.newFile().toPath();
+    index.write(path);
+    BioCInfonIndex copy = BioCInfonIndex.read(path);
+    assertEquals(index.getDocumentCount(), copy.getDocumentCount());
+    assertEquals(index.getAnnotationCount(), copy.getAnnotationCount());
+    assertEquals(index.getTermCount(), copy.getTermCount());
+    assertArrayEquals(index.getAnnotations("type", "Gene"), copy.getAnnotations("type", "Gene"));
+    assertEquals("D9", copy.getDocumentID(9));
+  }
+
+  private static BioCCollection createCollection(int size) {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < size; i++) {
+      BioCSentence sentence = new BioCSentence();
+      sentence.addAnnotation(createAnnotation("T1", "Chemical", "MESH:1"));
+      sentence.addAnnotation(createAnnotation("T2", "Gene", "NCBI:" + i));
+      BioCPassage passage = new BioCPassage();
+      passage.addSentence(sentence);
+      BioCDocument document = new BioCDocument("D" + i);
+      document.addAnnotation(createAnnotation("T0", "Chemical", "MESH:" + (i + 2)));
+      document.addPassage(passage);
+      collection.addDocument(document);
+    }
+    return collection;
+  }
+
+  private static BioCAnnotation createAnnotation(String id, String type, String identifier) {
+    BioCAnnotation annotation = new BioCAnnotation(id);
+    annotation.putInfon("type", type);
+    annotation.putInfon("identifier", identifier);
+    return annotation;
+  }
+}
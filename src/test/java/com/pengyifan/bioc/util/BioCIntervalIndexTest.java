@@ -0,0 +1,101 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiPredicate;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.*;
+
+public class BioCIntervalIndexTest {
+
+  @Test
+  public void test_queries() {
+    BioCAnnotation a = createAnnotation("a", 0, 10);
+    BioCAnnotation b = createAnnotation("b", 5, 3);
+    BioCAnnotation c = createAnnotation("c", 20, 5);
+    c.addLocation(new BioCLocation(30, 5));
+
+    BioCSentence sentence = new BioCSentence();
+    sentence.addAnnotation(b);
+    BioCPassage passage = new BioCPassage();
+    passage.addAnnotation(a);
+    passage.addSentence(sentence);
+    BioCDocument document = new BioCDocument("1");
+    document.addAnnotation(c);
+    document.addPassage(passage);
+
+    BioCIntervalIndex index = new BioCIntervalIndex(document);
+    assertEquals(4, index.size());
+    assertThat(index.getContaining(6), contains(a, b));
+    assertThat(index.getContaining(10), empty());
+    assertThat(index.getOverlapping(9, 31), contains(a, c));
+    assertThat(index.getEnclosing(5, 8), contains(a, b));
+    assertThat(index.getEnclosedBy(4, 35), contains(b, c));
+    assertEquals(c, index.getNearest(27).get());
+    assertEquals(a, index.getNearest(12).get());
+    assertEquals(c, index.getNearest(17).get());
+    assertEquals(a, index.getNearest(-3).get());
+
+    BioCAnnotation d = createAnnotation("d", 11, 1);
+    passage.addAnnotation(d);
+    index.add(d);
+    assertEquals(d, index.getNearest(12).get());
+    assertThat(index.getOverlapping(0, 12), contains(a, b, d));
+    assertThat(new BioCIntervalIndex(sentence).getContaining(6), contains(b));
+    assertFalse(new BioCIntervalIndex().getNearest(0).isPresent());
+  }
+
+  @Test
+  public void test_random() {
+    Random random = new Random(42);
+    for (int n : new int[] { 0, 1, 2, 7, 16, 100, 1000 }) {
+      BioCSentence sentence = new BioCSentence();
+      for (int i = 0; i < n; i++) {
+        sentence.addAnnotation(
+            createAnnotation(String.valueOf(i), random.nextInt(1000), random.nextInt(50) + 1));
+      }
+      BioCIntervalIndex index = new BioCIntervalIndex(sentence);
+      for (int q = 0; q < 200; q++) {
+        int start = random.nextInt(1100) - 50;
+        int end = start + random.nextInt(100);
+        assertThat(index.getOverlapping(start, end), containsInAnyOrder(
+            scan(sentence, start, end, (s, e) -> s < end && start < e).toArray()));
+        assertThat(index.getEnclosing(start, end), containsInAnyOrder(
+            scan(sentence, start, end, (s, e) -> s <= start && end <= e).toArray()));
+        assertThat(index.getEnclosedBy(start, end), containsInAnyOrder(
+            scan(sentence, start, end, (s, e) -> start <= s && e <= end).toArray()));
+        assertThat(index.getContaining(start), containsInAnyOrder(
+            scan(sentence, start, end, (s, e) -> s <= start && start < e).toArray()));
+      }
+    }
+  }
+
+  private static List<BioCAnnotation> scan(BioCSentence sentence, int start, int end,
+      BiPredicate<Integer, Integer> predicate) {
+    List<BioCAnnotation> result = Lists.newArrayList();
+    for (BioCAnnotation annotation : sentence.getAnnotations()) {
+      BioCLocation location = annotation.getTotalLocation();
+      if (predicate.test(location.getOffset(), location.getOffset() + location.getLength())) {
+        result.add(annotation);
+      }
+    }
+    return result;
+  }
+
+  private static BioCAnnotation createAnnotation(String id, int offset, int length) {
+    BioCAnnotation annotation = new BioCAnnotation(id);
+    annotation.addLocation(new BioCLocation(offset, length));
+    return annotation;
+  }
+}
@@ -0,0 +1,95 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BioCLocatorTest {
+
+  private static final BioCSentence SEN_0 = createSentence(0, "Aspirin reduces pain.");
+  private static final BioCSentence SEN_1 = createSentence(22, "It is old.");
+  private static final BioCSentence SEN_2 = createSentence(40, "Ibuprofen too.");
+
+  @Test
+  public void test_getSentence() {
+    BioCPassage title = new BioCPassage();
+    title.setOffset(0);
+    title.setText("Aspirin reduces pain. It is old.");
+    title.addSentence(SEN_0);
+    title.addSentence(SEN_1);
+    // a passage without text spans its sentences
+    BioCPassage abstractPassage = new BioCPassage();
+    abstractPassage.setOffset(40);
+    abstractPassage.addSentence(SEN_2);
+
+    BioCDocument document = new BioCDocument("1");
+    document.addPassage(abstractPassage);
+    document.addPassage(title);
+    BioCCollection collection = new BioCCollection();
+    collection.addDocument(document);
+
+    BioCLocator locator = new BioCLocator(collection);
+    assertSame(SEN_0, locator.getSentence("1", 0).get());
+    assertSame(SEN_0, locator.getSentence("1", 20).get());
+    assertFalse(locator.getSentence("1", 21).isPresent());
+    assertSame(SEN_1, locator.getSentence("1", 22).get());
+    assertSame(SEN_2, locator.getSentence("1", 53).get());
+    assertFalse(locator.getSentence("1", 54).isPresent());
+    assertFalse(locator.getSentence("2", 0).isPresent());
+
+    assertSame(title, locator.getPassage("1", 21).get());
+    assertFalse(locator.getPassage("1", 35).isPresent());
+    assertSame(abstractPassage, locator.getPassage("1", 45).get());
+
+    assertSame(SEN_1, locator.getSentenceAt("1", 22).get());
+    assertFalse(locator.getSentenceAt("1", 23).isPresent());
+  }
+
+  @Test
+  public void test_duplicateIds() {
+    BioCSentence first = createSentence(0, "First.");
+    BioCSentence second = createSentence(0, "Second.");
+    BioCSentence other = createSentence(100, "Other.");
+    BioCDocument document1 = createDocument("1", first);
+    BioCDocument document2 = createDocument("1", second, other);
+    BioCCollection collection = new BioCCollection();
+    collection.addDocument(document1);
+    collection.addDocument(document2);
+
+    // the sentences of both documents are found, the last added wins at the same offset
+    BioCLocator locator = new BioCLocator(collection);
+    assertSame(second, locator.getSentenceAt("1", 0).get());
+    assertSame(other, locator.getSentenceAt("1", 100).get());
+    assertSame(other, new BioCSearch(collection).getSentence("1", 100).get());
+
+    // adding a document again replaces it
+    BioCSentence added = createSentence(200, "Added.");
+    document1.getPassage(0).addSentence(added);
+    locator.add(document1);
+    assertSame(second, locator.getSentenceAt("1", 0).get());
+    assertSame(added, locator.getSentenceAt("1", 200).get());
+    assertSame(other, locator.getSentence("1", 102).get());
+  }
+
+  private static BioCDocument createDocument(String id, BioCSentence... sentences) {
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(sentences[0].getOffset());
+    for (BioCSentence sentence : sentences) {
+      passage.addSentence(sentence);
+    }
+    BioCDocument document = new BioCDocument(id);
+    document.addPassage(passage);
+    return document;
+  }
+
+  private static BioCSentence createSentence(int offset, String text) {
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(offset);
+    sentence.setText(text);
+    return sentence;
+  }
+}
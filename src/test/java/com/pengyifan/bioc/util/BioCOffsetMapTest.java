@@ -0,0 +1,110 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.util.BioCOffsetMap.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BioCOffsetMapTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_convert() {
+    Random random = new Random(42);
+    String[] pieces = {"a", "é", "中", "😀", " "};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append(pieces[random.nextInt(pieces.length)]);
+    }
+    String text = sb.toString();
+    BioCOffsetMap map = new BioCOffsetMap(text);
+    assertEquals(text.length(), map.length(Unit.UTF16));
+    assertEquals(text.codePointCount(0, text.length()), map.length(Unit.CODE_POINT));
+    assertEquals(text.getBytes(StandardCharsets.UTF_8).length, map.length(Unit.UTF8));
+
+    for (int cp = 0; cp <= map.length(Unit.CODE_POINT); cp++) {
+      int utf16 = text.offsetByCodePoints(0, cp);
+      int utf8 = text.substring(0, utf16).getBytes(StandardCharsets.UTF_8).length;
+      assertEquals(utf16, map.convert(cp, Unit.CODE_POINT, Unit.UTF16));
+      assertEquals(utf8, map.convert(cp, Unit.CODE_POINT, Unit.UTF8));
+      assertEquals(cp, map.convert(utf16, Unit.UTF16, Unit.CODE_POINT));
+      assertEquals(cp, map.convert(utf8, Unit.UTF8, Unit.CODE_POINT));
+      assertEquals(utf16, map.convert(utf8, Unit.UTF8, Unit.UTF16));
+    }
+  }
+
+  @Test
+  public void test_ascii() {
+    BioCOffsetMap map = new BioCOffsetMap("abc");
+    assertEquals(2, map.convert(2, Unit.UTF8, Unit.UTF16));
+    assertEquals(3, map.length(Unit.CODE_POINT));
+  }
+
+  @Test
+  public void test_insideCharacter() {
+    BioCOffsetMap map = new BioCOffsetMap("a中b");
+    assertEquals(4, map.convert(2, Unit.UTF16, Unit.UTF8));
+    thrown.expect(IllegalArgumentException.class);
+    map.convert(2, Unit.UTF8, Unit.UTF16);
+  }
+
+  @Test
+  public void test_outOfRange() {
+    thrown.expect(IllegalArgumentException.class);
+    new BioCOffsetMap("abc").convert(4, Unit.UTF16, Unit.UTF8);
+  }
+
+  @Test
+  public void test_convertDocument() {
+    // UTF-8 offsets: passage 1 "中文 text" at 0 (11 bytes), passage 2 right after it at 11
+    BioCDocument document = new BioCDocument("1");
+    BioCPassage passage1 = new BioCPassage();
+    passage1.setOffset(0);
+    passage1.setText("中文 text");
+    passage1.addAnnotation(createAnnotation("T1", 7, 4));
+    document.addPassage(passage1);
+    BioCPassage passage2 = new BioCPassage();
+    passage2.setOffset(11);
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(11);
+    sentence.setText("😀 smile");
+    sentence.addAnnotation(createAnnotation("T2", 16, 5));
+    passage2.addSentence(sentence);
+    document.addPassage(passage2);
+    document.addAnnotation(createAnnotation("T3", 0, 6));
+
+    BioCOffsetMap.convert(document, Unit.UTF8, Unit.UTF16);
+    assertEquals(0, passage1.getOffset());
+    assertEquals(7, passage2.getOffset());
+    assertEquals(7, sentence.getOffset());
+    assertEquals(new BioCLocation(3, 4),
+        passage1.getAnnotation(0).getLocations().iterator().next());
+    assertEquals(new BioCLocation(10, 5),
+        sentence.getAnnotation(0).getLocations().iterator().next());
+    assertEquals(new BioCLocation(0, 2),
+        document.getAnnotation(0).getLocations().iterator().next());
+
+    BioCOffsetMap.convert(document, Unit.UTF16, Unit.CODE_POINT);
+    assertEquals(7, passage2.getOffset());
+    assertEquals(new BioCLocation(9, 5),
+        sentence.getAnnotation(0).getLocations().iterator().next());
+  }
+
+  private static BioCAnnotation createAnnotation(String id, int offset, int length) {
+    BioCAnnotation annotation = new BioCAnnotation(id);
+    annotation.addLocation(new BioCLocation(offset, length));
+    return annotation;
+  }
+}
@@ -0,0 +1,232 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.ImmutableList;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCLocation;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BioCQueryTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private BioCCollection collection;
+
+  @Before
+  public void setUp() {
+    collection = new BioCCollection();
+    for (int i = 0; i < 20; i++) {
+      BioCDocument document = new BioCDocument(Integer.toString(i));
+      document.addAnnotation(createAnnotation(i + "d", "Chemical", "aspirin", 0));
+
+      BioCPassage passage0 = new BioCPassage();
+      passage0.putInfon("section_type", "INTRO");
+      passage0.setOffset(0);
+      passage0.setText("aspirin and ibuprofen");
+      passage0.addAnnotation(createAnnotation(i + "p0a", "Chemical", "aspirin", 0));
+      passage0.addAnnotation(createAnnotation(i + "p0b", "Chemical", "ibuprofen", 12));
+      document.addPassage(passage0);
+
+      BioCPassage passage1 = new BioCPassage();
+      passage1.putInfon("section_type", "METHODS");
+      passage1.setOffset(100);
+      passage1.addAnnotation(createAnnotation(i + "p1", "Chemical", "aspirin", 100));
+      BioCSentence sentence = new BioCSentence();
+      sentence.putInfon("kind", "first");
+      sentence.setOffset(100);
+      sentence.setText("aspirin BRCA1");
+      sentence.addAnnotation(createAnnotation(i + "s0", "Chemical", "aspirin", 100));
+      sentence.addAnnotation(createAnnotation(i + "s0g", "Gene", "BRCA1", 108));
+      passage1.addSentence(sentence);
+      document.addPassage(passage1);
+
+      collection.addDocument(document);
+    }
+  }
+
+  @Test
+  public void test_all() {
+    List<String> expected = BioCStreams.annotations(collection)
+        .map(BioCAnnotation::getID)
+        .collect(Collectors.toList());
+    assertEquals(120, expected.size());
+    assertEquals(expected, ids(new BioCQuery().run(collection)));
+    assertEquals(expected, new BioCQuery().stream(collection)
+        .map(BioCAnnotation::getID)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void test_combined() {
+    BioCQuery query = new BioCQuery()
+        .inDocuments(ImmutableList.of("3", "5", "unknown"))
+        .wherePassageInfon("section_type", "METHODS")
+        .whereInfon("type", "Chemical");
+    assertEquals(ImmutableList.of("3p1", "3s0", "5p1", "5s0"), ids(query.run(collection)));
+  }
+
+  @Test
+  public void test_document() {
+    BioCQuery query = new BioCQuery()
+        .whereDocument(d -> d.getID().equals("7"))
+        .whereInfon("type", "Gene");
+    assertEquals(ImmutableList.of("7s0g"), ids(query.run(collection)));
+  }
+
+  @Test
+  public void test_sentence() {
+    BioCQuery query = new BioCQuery()
+        .inDocuments(ImmutableList.of("0"))
+        .whereSentenceInfon("kind", "first");
+    assertEquals(ImmutableList.of("0s0", "0s0g"), ids(query.run(collection)));
+
+    query = new BioCQuery().whereSentenceInfon("kind", "last");
+    assertTrue(query.run(collection).isEmpty());
+  }
+
+  @Test
+  public void test_text() {
+    BioCQuery query = new BioCQuery()
+        .inDocuments(ImmutableList.of("1", "2"))
+        .whereText("ibuprofen");
+    assertEquals(ImmutableList.of("1p0b", "2p0b"), ids(query.run(collection)));
+  }
+
+  @Test
+  public void test_overlapping() {
+    BioCQuery query = new BioCQuery()
+        .inDocuments(ImmutableList.of("4"))
+        .overlapping(5, 13);
+    assertEquals(ImmutableList.of("4d", "4p0a", "4p0b"), ids(query.run(collection)));
+
+    query = new BioCQuery()
+        .inDocuments(ImmutableList.of("4"))
+        .overlapping(107, 109);
+    assertEquals(ImmutableList.of("4s0g"), ids(query.run(collection)));
+
+    query = new BioCQuery()
+        .inDocuments(ImmutableList.of("4"))
+        .overlapping(21, 100);
+    assertTrue(query.run(collection).isEmpty());
+  }
+
+  @Test
+  public void test_overlapping_intervalIndex() {
+    BioCDocument document = collection.getDocument(4);
+    BioCIntervalIndex index = new BioCIntervalIndex(document);
+    BioCQuery query = new BioCQuery().overlapping(5, 13);
+    assertEquals(ids(query.search(document).collect(Collectors.toList())),
+        ids(query.search(document, index).collect(Collectors.toList())));
+    assertEquals(ImmutableList.of("4d", "4p0a", "4p0b"),
+        ids(query.search(document, index).collect(Collectors.toList())));
+
+    query = new BioCQuery()
+        .wherePassageInfon("section_type", "METHODS")
+        .whereInfon("type", "Gene")
+        .overlapping(100, 200);
+    assertEquals(ImmutableList.of("4s0g"),
+        ids(query.search(document, index).collect(Collectors.toList())));
+
+    // annotations of other documents in the index are ignored
+    index.add(collection.getDocument(5).getAnnotation(0));
+    query = new BioCQuery().overlapping(0, 1);
+    assertEquals(ImmutableList.of("4d", "4p0a"),
+        ids(query.search(document, index).collect(Collectors.toList())));
+    assertTrue(query.inDocuments(ImmutableList.of("5")).search(document, index)
+        .collect(Collectors.toList()).isEmpty());
+  }
+
+  @Test
+  public void test_index() {
+    BioCInfonIndex index = BioCInfonIndex.build(collection);
+    BioCQuery query = new BioCQuery()
+        .wherePassageInfon("section_type", "METHODS")
+        .whereInfon("type", "Chemical");
+    assertEquals(ids(query.run(collection)), ids(query.run(collection, index)));
+
+    query = new BioCQuery()
+        .inDocuments(ImmutableList.of("9", "19"))
+        .whereInfon("type", "Gene");
+    assertEquals(ImmutableList.of("9s0g", "19s0g"), ids(query.run(collection, index)));
+
+    query = new BioCQuery().whereInfon("type", "Disease");
+    assertTrue(query.run(collection, index).isEmpty());
+
+    query = new BioCQuery();
+    assertEquals(120, query.run(collection, index).size());
+  }
+
+  @Test
+  public void test_index_otherCollection() {
+    BioCInfonIndex index = new BioCInfonIndex();
+    thrown.expect(IllegalArgumentException.class);
+    new BioCQuery().run(collection, index);
+  }
+
+  @Test
+  public void test_path() throws Exception {
+    Path path = testFolder.newFile().toPath();
+    BioCUtils.writeCollectioin(path, collection);
+    BioCQuery query = new BioCQuery()
+        .inDocuments(ImmutableList.of("3", "5"))
+        .whereSentence(s -> s.getOffset() == 100)
+        .whereText("BRCA1");
+    assertEquals(ImmutableList.of("3s0g", "5s0g"), ids(query.run(path)));
+    assertEquals(ids(query.run(collection)), ids(query.run(path)));
+    assertEquals(ids(query.run(collection)), ids(query.run(path, 1)));
+
+    // more documents than the read-ahead window
+    assertEquals(ids(new BioCQuery().run(collection)), ids(new BioCQuery().run(path, 2)));
+  }
+
+  @Test
+  public void test_path_badParallelism() throws Exception {
+    Path path = testFolder.newFile().toPath();
+    BioCUtils.writeCollectioin(path, collection);
+    thrown.expect(IllegalArgumentException.class);
+    new BioCQuery().run(path, 0);
+  }
+
+  @Test
+  public void test_conflictingInfons() {
+    BioCQuery query = new BioCQuery().whereInfon("type", "Gene");
+    thrown.expect(IllegalArgumentException.class);
+    query.whereInfon("type", "Chemical");
+  }
+
+  @Test
+  public void test_overlapping_badSpan() {
+    thrown.expect(IllegalArgumentException.class);
+    new BioCQuery().overlapping(5, 1);
+  }
+
+  private static BioCAnnotation createAnnotation(String id, String type, String text, int offset) {
+    BioCAnnotation annotation = new BioCAnnotation(id);
+    annotation.putInfon("type", type);
+    annotation.setText(text);
+    annotation.addLocation(new BioCLocation(offset, text.length()));
+    return annotation;
+  }
+
+  private static List<String> ids(List<BioCAnnotation> annotations) {
+    return annotations.stream().map(BioCAnnotation::getID).collect(Collectors.toList());
+  }
+}
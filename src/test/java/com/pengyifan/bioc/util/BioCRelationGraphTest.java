@@ -0,0 +1,85 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.ImmutableMap;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCNode;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BioCRelationGraphTest {
+
+  @Test
+  public void test_getRelations() {
+    BioCDocument document = createDocument();
+    BioCRelationGraph graph = new BioCRelationGraph(document);
+    BioCRelation r1 = document.getRelation(0);
+    BioCRelation r2 = document.getPassage(0).getRelation(0);
+    BioCRelation r3 = document.getPassage(0).getRelation(1);
+
+    assertEquals(Arrays.asList(r1, r2), graph.getRelations("1", "T2"));
+    assertEquals(Collections.singletonList(r2), graph.getRelations("1", "T2", "Disease"));
+    assertEquals(Collections.singletonList(r3), graph.getRelations("1", "R1"));
+    assertTrue(graph.getRelations("1", "T9").isEmpty());
+    assertTrue(graph.getRelations("2", "T2").isEmpty());
+
+    assertEquals(Arrays.asList("T1", "T2", "R3"), graph.getNeighbors("1", "R1"));
+    assertEquals(Arrays.asList("R1", "R2"), graph.getNeighbors("1", "T2"));
+  }
+
+  @Test
+  public void test_traverse() {
+    BioCCollection collection = new BioCCollection();
+    collection.addDocument(createDocument());
+    BioCRelationGraph graph = new BioCRelationGraph(collection);
+
+    Map<String, Integer> hops = graph.traverse("1", "T1", 2);
+    assertEquals(ImmutableMap.of("T1", 0, "R1", 1, "T2", 2, "R3", 2), hops);
+    assertEquals(Arrays.asList("T1", "R1", "T2", "R3"), Arrays.asList(hops.keySet().toArray()));
+
+    hops = graph.traverse("1", "T1", 4);
+    assertEquals(Integer.valueOf(3), hops.get("R2"));
+    assertEquals(Integer.valueOf(4), hops.get("T3"));
+    assertEquals(Integer.valueOf(3), hops.get("T4"));
+
+    hops = graph.traverse("1", "T1", 10, role -> !role.equals("Disease"));
+    assertEquals(ImmutableMap.of("T1", 0, "R1", 1, "T2", 2, "R3", 2, "T4", 3), hops);
+
+    assertEquals(ImmutableMap.of("T1", 0), graph.traverse("1", "T1", 0));
+    assertTrue(graph.traverse("1", "T9", 2).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_traverseNegative() {
+    new BioCRelationGraph(createDocument()).traverse("1", "T1", -1);
+  }
+
+  /**
+   * R1(T1, T2) at the document level, R2(T2, T3) and R3(R1, T4) in a passage.
+   */
+  private static BioCDocument createDocument() {
+    BioCDocument document = new BioCDocument("1");
+    document.addRelation(createRelation("R1", "T1", "Chemical", "T2", "Gene"));
+    BioCPassage passage = new BioCPassage();
+    passage.addRelation(createRelation("R2", "T2", "Disease", "T3", "Gene"));
+    passage.addRelation(createRelation("R3", "R1", "Event", "T4", "Cause"));
+    document.addPassage(passage);
+    return document;
+  }
+
+  private static BioCRelation createRelation(String id, String refid1, String role1, String refid2,
+      String role2) {
+    BioCRelation relation = new BioCRelation(id);
+    relation.addNode(new BioCNode(refid1, role1));
+    relation.addNode(new BioCNode(refid2, role2));
+    return relation;
+  }
+}
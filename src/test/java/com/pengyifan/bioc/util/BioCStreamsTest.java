@@ -0,0 +1,130 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BioCStreamsTest {
+
+  @Test
+  public void test_annotations() {
+    BioCCollection collection = createCollection(100);
+    List<String> expected = Lists.newArrayList();
+    BioCCursor cursor = BioCCursor.annotations(collection);
+    while (cursor.next()) {
+      expected.add(cursor.getAnnotation().getID());
+    }
+    assertEquals(expected, BioCStreams.annotations(collection)
+        .map(BioCAnnotation::getID)
+        .collect(Collectors.toList()));
+    assertEquals(expected, BioCStreams.annotations(collection)
+        .parallel()
+        .map(BioCAnnotation::getID)
+        .collect(Collectors.toList()));
+    assertEquals(expected.size(), BioCStreams.annotations(collection).parallel().count());
+    assertEquals(7, BioCStreams.annotations(collection.getDocument(3)).count());
+  }
+
+  @Test
+  public void test_fetchesDocumentsLazily() {
+    BioCCollection source = createCollection(10);
+    int[] fetched = new int[1];
+    BioCCollection collection = new BioCCollection() {
+      @Override
+      public BioCDocument getDocument(int index) {
+        fetched[0]++;
+        return source.getDocument(index);
+      }
+
+      @Override
+      public int getDocmentCount() {
+        return source.getDocmentCount();
+      }
+    };
+    assertEquals("0", BioCStreams.documents(collection).findFirst().get().getID());
+    assertEquals(1, fetched[0]);
+
+    // once to count the annotations, once to traverse them
+    fetched[0] = 0;
+    assertEquals(70, BioCStreams.annotations(collection).collect(Collectors.toList()).size());
+    assertEquals(20, fetched[0]);
+  }
+
+  @Test
+  public void test_sizes() {
+    BioCCollection collection = createCollection(100);
+    assertEquals(100, BioCStreams.documents(collection).count());
+    assertEquals(200, BioCStreams.passages(collection).parallel().count());
+    assertEquals(300, BioCStreams.sentences(collection).parallel().count());
+    assertEquals(3, BioCStreams.sentences(collection.getDocument(0)).count());
+    assertEquals(100, BioCStreams.relations(collection).parallel().count());
+    assertEquals(1, BioCStreams.relations(collection.getDocument(0)).count());
+    assertEquals(BioCUtils.getSentences(collection),
+        Lists.newArrayList(new BioCSentenceIterator(collection)));
+  }
+
+  @Test
+  public void test_split() {
+    Spliterator<BioCAnnotation> right = BioCStreams.annotations(createCollection(100))
+        .spliterator();
+    assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    assertEquals(700, right.estimateSize());
+    Spliterator<BioCAnnotation> left = right.trySplit();
+    assertNotNull(left);
+    assertEquals(700, left.estimateSize() + right.estimateSize());
+    assertTrue(Math.abs(left.estimateSize() - right.estimateSize()) <= 7);
+
+    // a single document splits between passages
+    right = BioCStreams.annotations(createCollection(1).getDocument(0)).spliterator();
+    left = right.trySplit();
+    assertNotNull(left);
+    assertEquals(7, left.estimateSize() + right.estimateSize());
+    long[] count = new long[1];
+    left.forEachRemaining(a -> count[0]++);
+    right.forEachRemaining(a -> count[0]++);
+    assertEquals(7, count[0]);
+  }
+
+  /**
+   * Every document has 1 annotation and 1 relation, a passage with 2 annotations and 2 sentences
+   * of 1 annotation each, and a passage with 1 annotation and a sentence with 1 annotation.
+   */
+  private static BioCCollection createCollection(int size) {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < size; i++) {
+      BioCDocument document = new BioCDocument(Integer.toString(i));
+      document.addAnnotation(new BioCAnnotation(i + "d"));
+      document.addRelation(new BioCRelation(i + "r"));
+      BioCPassage passage1 = new BioCPassage();
+      passage1.addAnnotation(new BioCAnnotation(i + "p1a"));
+      passage1.addAnnotation(new BioCAnnotation(i + "p1b"));
+      for (int j = 0; j < 2; j++) {
+        BioCSentence sentence = new BioCSentence();
+        sentence.addAnnotation(new BioCAnnotation(i + "s" + j));
+        passage1.addSentence(sentence);
+      }
+      BioCPassage passage2 = new BioCPassage();
+      passage2.addAnnotation(new BioCAnnotation(i + "p2"));
+      BioCSentence sentence = new BioCSentence();
+      sentence.addAnnotation(new BioCAnnotation(i + "s2"));
+      passage2.addSentence(sentence);
+      document.addPassage(passage1);
+      document.addPassage(passage2);
+      collection.addDocument(document);
+    }
+    return collection;
+  }
+}
@@ -0,0 +1,161 @@
+package com.pengyifan.bioc.util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.util.BioCTextIndex.Hit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BioCTextIndexTest {
+
+  private static final String[] WORDS = {"aspirin", "and", "ibuprofen", "asp", "in", "pain"};
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private BioCCollection collection;
+
+  @Before
+  public void setUp() {
+    Random random = new Random(1);
+    collection = new BioCCollection();
+    for (int i = 0; i < 2500; i++) {
+      BioCDocument document = new BioCDocument("d" + i);
+      BioCPassage passage = new BioCPassage();
+      passage.setOffset(0);
+      passage.setText(sentence(random));
+      document.addPassage(passage);
+      // a passage without text indexes its sentences
+      passage = new BioCPassage();
+      passage.setOffset(1000);
+      for (int j = 0; j < 2; j++) {
+        BioCSentence sentence = new BioCSentence();
+        sentence.setOffset(1000 + 100 * j);
+        sentence.setText(sentence(random));
+        passage.addSentence(sentence);
+      }
+      document.addPassage(passage);
+      collection.addDocument(document);
+    }
+  }
+
+  @Test
+  public void test_search() {
+    BioCTextIndex index = BioCTextIndex.build(collection);
+    assertEquals(2500, index.getDocumentCount());
+    assertEquals("d7", index.getDocumentID(7));
+    for (String s : ImmutableList.of("aspirin", "asp", "in", "n a", "pain pain", "xyz")) {
+      List<Hit> expected = scan(s);
+      assertEquals(s, expected, index.search(s));
+      assertEquals(s, expected.size(), index.count(s));
+    }
+    assertTrue(index.count("in") > 0);
+  }
+
+  @Test
+  public void test_acrossTexts() {
+    BioCCollection collection = new BioCCollection();
+    BioCDocument document = new BioCDocument("1");
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(5);
+    passage.setText("ab");
+    document.addPassage(passage);
+    passage = new BioCPassage();
+    passage.setOffset(10);
+    passage.setText("cab");
+    document.addPassage(passage);
+    collection.addDocument(document);
+
+    BioCTextIndex index = BioCTextIndex.build(collection);
+    assertEquals(ImmutableList.of(new Hit(0, "1", 5), new Hit(0, "1", 11)), index.search("ab"));
+    assertTrue(index.search("bc").isEmpty());
+    assertTrue(index.search("b\0").isEmpty());
+  }
+
+  @Test
+  public void test_readWrite() throws Exception {
+    BioCTextIndex index = BioCTextIndex.build(collection);
+    Path path = testFolder.newFile().toPath();
+    index.write(path);
+    BioCTextIndex copy = BioCTextIndex.read(path);
+    assertEquals(index.getDocumentCount(), copy.getDocumentCount());
+    assertEquals(index.search("aspirin"), copy.search("aspirin"));
+    assertEquals(index.search("pain and"), copy.search("pain and"));
+  }
+
+  @Test
+  public void test_suffixArray() {
+    Random random = new Random(2);
+    for (int t = 0; t < 50; t++) {
+      char[] text = new char[random.nextInt(200)];
+      for (int i = 0; i < text.length; i++) {
+        text[i] = (char) ('a' + random.nextInt(t % 4 + 1));
+      }
+      Integer[] expected = new Integer[text.length];
+      for (int i = 0; i < text.length; i++) {
+        expected[i] = i;
+      }
+      String s = new String(text);
+      Arrays.sort(expected, (a, b) -> s.substring(a).compareTo(s.substring(b)));
+      assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(),
+          BioCTextIndex.suffixArray(text));
+    }
+  }
+
+  @Test
+  public void test_emptyString() {
+    BioCTextIndex index = BioCTextIndex.build(collection);
+    thrown.expect(IllegalArgumentException.class);
+    index.search("");
+  }
+
+  private static String sentence(Random random) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 6; i++) {
+      if (i != 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  private List<Hit> scan(String s) {
+    List<Hit> hits = Lists.newArrayList();
+    for (int d = 0; d < collection.getDocmentCount(); d++) {
+      BioCDocument document = collection.getDocument(d);
+      BioCPassage passage = document.getPassage(0);
+      scan(hits, d, document.getID(), passage.getText().get(), passage.getOffset(), s);
+      for (BioCSentence sentence : document.getPassage(1).getSentences()) {
+        scan(hits, d, document.getID(), sentence.getText().get(), sentence.getOffset(), s);
+      }
+    }
+    return hits;
+  }
+
+  private static void scan(List<Hit> hits, int document, String id, String text, int offset,
+      String s) {
+    for (int i = text.indexOf(s); i >= 0; i = text.indexOf(s, i + 1)) {
+      hits.add(new Hit(document, id, offset + i));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCSentence;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BioCTextViewTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private BioCDocument document;
+
+  @Before
+  public void setUp() {
+    document = new BioCDocument("1");
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(0);
+    passage.setText("Title.");
+    document.addPassage(passage);
+
+    passage = new BioCPassage();
+    passage.setOffset(8);
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(8);
+    sentence.setText("First.");
+    passage.addSentence(sentence);
+    sentence = new BioCSentence();
+    sentence.setOffset(15);
+    sentence.setText("Second.");
+    passage.addSentence(sentence);
+    document.addPassage(passage);
+
+    // a passage without text still pads the text up to its offset
+    passage = new BioCPassage();
+    passage.setOffset(25);
+    document.addPassage(passage);
+  }
+
+  @Test
+  public void test_document() {
+    BioCTextView text = BioCTextView.of(document);
+    String expected = "Title.\n\nFirst.\nSecond.\n\n\n";
+    assertEquals(0, text.getOffset());
+    assertEquals(expected.length(), text.length());
+    assertEquals(expected, text.toString());
+    for (int i = 0; i < expected.length(); i++) {
+      assertEquals(expected.charAt(i), text.charAt(i));
+    }
+    assertEquals("First.\nSec", text.subSequence(8, 18));
+    assertEquals(expected, BioCUtils.getText(document));
+  }
+
+  @Test
+  public void test_passage() {
+    BioCTextView text = BioCTextView.of(document.getPassage(1));
+    assertEquals(8, text.getOffset());
+    assertEquals("First.\nSecond.", text.toString());
+    assertTrue(text.regionMatches(15, "Second.", 0, 7));
+    assertFalse(text.regionMatches(7, "First.", 0, 6));
+  }
+
+  @Test
+  public void test_regionMatches() {
+    BioCTextView text = BioCTextView.of(document);
+    assertTrue(text.regionMatches(0, "Title.", 0, 6));
+    assertTrue(text.regionMatches(11, "xxst.\nSe", 2, 6));
+    assertTrue(text.regionMatches(6, "\n\nF", 0, 3));
+    assertFalse(text.regionMatches(8, "Firsts", 0, 6));
+    assertFalse(text.regionMatches(-1, "Title.", 0, 6));
+    assertFalse(text.regionMatches(24, "\n\n\n", 0, 3));
+    assertFalse(text.regionMatches(0, "Title.", 2, 6));
+  }
+
+  @Test
+  public void test_overlapped() {
+    document.getPassage(1).getSentence(1).setOffset(10);
+    thrown.expect(IllegalArgumentException.class);
+    BioCTextView.of(document);
+  }
+
+  @Test
+  public void test_charAt_outOfBounds() {
+    BioCTextView text = BioCTextView.of(document);
+    thrown.expect(IndexOutOfBoundsException.class);
+    text.charAt(text.length());
+  }
+}
@@ -9,10 +9,13 @@ import com.pengyifan.bioc.BioCPassage;
 import com.pengyifan.bioc.BioCRelation;
 import com.pengyifan.bioc.BioCSentence;
 import com.pengyifan.bioc.io.BioCCollectionReader;
+import com.pengyifan.bioc.validation.BioCValidationError;
+import com.pengyifan.bioc.validation.BioCValidationReport;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URL;
+import java.util.List;
 import javax.xml.stream.XMLStreamException;
 import org.junit.Before;
 import org.junit.Rule;
@@ -20,6 +23,10 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class BioCValidate3Test {
 
   @Rule
@@ -181,6 +188,133 @@ public class BioCValidate3Test {
     v.check(d);
   }
 
+  @Test
+  public void testCheckTextLocations() {
+    BioCSentence sentence = new BioCSentence();
+    sentence.setOffset(2);
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(0);
+    passage.setText("ab");
+    passage.addSentence(sentence);
+    BioCDocument document = new BioCDocument("1");
+    document.addPassage(passage);
+    BioCCollection collection = new BioCCollection();
+    collection.addDocument(document);
+
+    List<BioCValidationError> errors = v.check(collection, 1, false).getErrors();
+    assertEquals(2, errors.size());
+    assertEquals("document[id=1]/passage[offset=0]", errors.get(0).getLocation());
+    assertEquals("document[id=1]/passage[offset=0]/sentence[offset=2]",
+        errors.get(1).getLocation());
+  }
+
+  @Test
+  public void testCheckParallel() {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < 50; i++) {
+      collection.addDocument(createDocument(Integer.toString(i), i == 7 || i == 30));
+    }
+    // overlapping text stops the check of its document only
+    collection.getDocument(40).getPassage(1).setOffset(5);
+
+    BioCValidationReport report = v.check(collection, 4, false);
+    assertEquals(50, report.getDocumentCount());
+    assertFalse(report.isValid());
+    List<BioCValidationError> errors = report.getErrors();
+    assertEquals(3, errors.size());
+    assertEquals("7", errors.get(0).getDocumentID().get());
+    assertEquals("document[id=7]/passage[offset=11]/annotation[id=T1]",
+        errors.get(0).getLocation());
+    assertTrue(errors.get(0).getMessage().startsWith("The annotation[id=T1] text"));
+    assertEquals("30", errors.get(1).getDocumentID().get());
+    assertEquals("40", errors.get(2).getDocumentID().get());
+    assertEquals("document[id=40]", errors.get(2).getLocation());
+    assertEquals(1, report.getErrors(30).size());
+    assertTrue(report.getErrors(31).isEmpty());
+  }
+
+  @Test
+  public void testCheckParallelFailFast() {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < 1000; i++) {
+      collection.addDocument(createDocument(Integer.toString(i), i % 2 == 0));
+    }
+    BioCValidationReport report = v.check(collection, 2, true);
+    assertFalse(report.isValid());
+    assertTrue(report.getDocumentCount() < 1000);
+
+    collection = new BioCCollection();
+    for (int i = 0; i < 10; i++) {
+      collection.addDocument(createDocument(Integer.toString(i), false));
+    }
+    report = v.check(collection, 2, true);
+    assertTrue(report.isValid());
+    assertEquals(10, report.getDocumentCount());
+  }
+
+  @Test
+  public void testValidatePath() throws Exception {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < 20; i++) {
+      collection.addDocument(createDocument(Integer.toString(i), i == 3));
+    }
+    BioCRelation r = new BioCRelation("R1");
+    r.addNode(new BioCNode("T9", "x"));
+    collection.getDocument(12).getPassage(1).addRelation(r);
+    File file = folder.newFile();
+    BioCUtils.writeCollectioin(file.toPath(), collection);
+
+    BioCValidationReport report = v.validate(file.toPath());
+    assertEquals(20, report.getDocumentCount());
+    assertEquals(v.check(collection, 1, false).getErrors(), report.getErrors());
+    List<BioCValidationError> errors = report.getErrors();
+    assertEquals(2, errors.size());
+    assertEquals("3", errors.get(0).getDocumentID().get());
+    assertEquals("document[id=12]/passage[offset=11]/relation[id=R1]/node[id=T9]",
+        errors.get(1).getLocation());
+
+    v.setThrowException(true);
+    exception.expect(IllegalArgumentException.class);
+    v.validate(file);
+  }
+
+  @Test
+  public void testPassageSentences() {
+    BioCPassage p = new BioCPassage();
+    p.setOffset(20);
+    BioCSentence s = new BioCSentence();
+    s.setOffset(22);
+    s.setText("0123456789");
+    BioCAnnotation a = new BioCAnnotation("T1");
+    a.addLocation(new BioCLocation(24, 3));
+    a.setText("234");
+    s.addAnnotation(a);
+    p.addSentence(s);
+
+    v.setThrowException(true);
+    v.check(p);
+    a.setText("345");
+    exception.expect(IllegalArgumentException.class);
+    v.check(p);
+  }
+
+  private static BioCDocument createDocument(String id, boolean invalid) {
+    BioCDocument document = new BioCDocument(id);
+    BioCPassage passage = new BioCPassage();
+    passage.setOffset(0);
+    passage.setText("0123456789");
+    document.addPassage(passage);
+    passage = new BioCPassage();
+    passage.setOffset(11);
+    passage.setText("0123456789");
+    BioCAnnotation annotation = new BioCAnnotation("T1");
+    annotation.addLocation(new BioCLocation(11, 5));
+    annotation.setText(invalid ? "12345" : "01234");
+    passage.addAnnotation(annotation);
+    document.addPassage(passage);
+    return document;
+  }
+
   @Test
   public void testRelation2() {
     v.check(d);
@@ -0,0 +1,156 @@
+package com.pengyifan.bioc.util;
+
+import com.pengyifan.bioc.BioCAnnotation;
+import com.pengyifan.bioc.BioCCollection;
+import com.pengyifan.bioc.BioCDocument;
+import com.pengyifan.bioc.BioCPassage;
+import com.pengyifan.bioc.BioCRelation;
+import com.pengyifan.bioc.BioCSentence;
+import com.pengyifan.bioc.BioCStructure;
+import com.pengyifan.bioc.util.BioCVisitor.Result;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BioCWalkerTest {
+
+  @Test
+  public void test_walk() {
+    StringBuilder sb = new StringBuilder();
+    Result result = BioCWalker.walk(createCollection(2), new BioCVisitor() {
+      @Override
+      public Result enterDocument(BioCDocument document) {
+        sb.append("<d").append(document.getID());
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result leaveDocument(BioCDocument document) {
+        sb.append(">");
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result enterPassage(BioCDocument document, BioCPassage passage) {
+        sb.append("<p");
+        return passage.getInfon("type").get().equals("title")
+            ? Result.SKIP_SUBTREE
+            : Result.CONTINUE;
+      }
+
+      @Override
+      public Result leavePassage(BioCDocument document, BioCPassage passage) {
+        sb.append(">");
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result enterSentence(BioCPassage passage, BioCSentence sentence) {
+        sb.append("<s");
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result leaveSentence(BioCPassage passage, BioCSentence sentence) {
+        sb.append(">");
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result visitAnnotation(BioCStructure parent, BioCAnnotation annotation) {
+        sb.append(" ").append(annotation.getID());
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result visitRelation(BioCStructure parent, BioCRelation relation) {
+        sb.append(" ").append(relation.getID());
+        return Result.CONTINUE;
+      }
+    });
+    assertEquals(Result.CONTINUE, result);
+    assertEquals("<d0 d r<p<p p<s s>>><d1 d r<p<p p<s s>>>", sb.toString());
+  }
+
+  @Test
+  public void test_terminate() {
+    StringBuilder sb = new StringBuilder();
+    Result result = BioCWalker.walk(createCollection(2), new BioCVisitor() {
+      @Override
+      public Result visitAnnotation(BioCStructure parent, BioCAnnotation annotation) {
+        sb.append(annotation.getID());
+        return annotation.getID().equals("p") ? Result.TERMINATE : Result.CONTINUE;
+      }
+
+      @Override
+      public Result leaveCollection(BioCCollection collection) {
+        sb.append("!");
+        return Result.CONTINUE;
+      }
+    });
+    assertEquals(Result.TERMINATE, result);
+    assertEquals("dtp", sb.toString());
+  }
+
+  @Test
+  public void test_walkParallel() {
+    AtomicInteger annotations = new AtomicInteger();
+    AtomicInteger left = new AtomicInteger();
+    Result result = BioCWalker.walkParallel(createCollection(1000), new BioCVisitor() {
+      @Override
+      public Result visitAnnotation(BioCStructure parent, BioCAnnotation annotation) {
+        annotations.incrementAndGet();
+        return Result.CONTINUE;
+      }
+
+      @Override
+      public Result leaveCollection(BioCCollection collection) {
+        left.incrementAndGet();
+        return Result.CONTINUE;
+      }
+    });
+    assertEquals(Result.CONTINUE, result);
+    assertEquals(4000, annotations.get());
+    assertEquals(1, left.get());
+
+    AtomicInteger documents = new AtomicInteger();
+    result = BioCWalker.walkParallel(createCollection(1000), new BioCVisitor() {
+      @Override
+      public Result enterDocument(BioCDocument document) {
+        documents.incrementAndGet();
+        return Result.TERMINATE;
+      }
+    });
+    assertEquals(Result.TERMINATE, result);
+    assertTrue(documents.get() < 1000);
+  }
+
+  /**
+   * Every document has annotation d and relation r, a title passage with annotation t, and a
+   * passage with annotation p and a sentence with annotation s.
+   */
+  private static BioCCollection createCollection(int size) {
+    BioCCollection collection = new BioCCollection();
+    for (int i = 0; i < size; i++) {
+      BioCPassage title = new BioCPassage();
+      title.putInfon("type", "title");
+      title.addAnnotation(new BioCAnnotation("t"));
+      BioCSentence sentence = new BioCSentence();
+      sentence.addAnnotation(new BioCAnnotation("s"));
+      BioCPassage passage = new BioCPassage();
+      passage.putInfon("type", "abstract");
+      passage.addAnnotation(new BioCAnnotation("p"));
+      passage.addSentence(sentence);
+      BioCDocument document = new BioCDocument(Integer.toString(i));
+      document.addAnnotation(new BioCAnnotation("d"));
+      document.addRelation(new BioCRelation("r"));
+      document.addPassage(title);
+      document.addPassage(passage);
+      collection.addDocument(document);
+    }
+    return collection;
+  }
+}
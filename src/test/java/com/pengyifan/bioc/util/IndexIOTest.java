@@ -0,0 +1,59 @@
+package com.pengyifan.bioc.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class IndexIOTest {
+
+  @Test
+  public void test_chars()
+      throws IOException {
+    // longer than one buffer, and not a multiple of it
+    char[] array = new char[100_003];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = (char) (i * 31);
+    }
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(expected);
+    out.writeInt(array.length);
+    for (char c : array) {
+      out.writeChar(c);
+    }
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    IndexIO.writeChars(new DataOutputStream(actual), array);
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    assertArrayEquals(array, IndexIO.readChars(
+        new DataInputStream(new ByteArrayInputStream(actual.toByteArray()))));
+  }
+
+  @Test
+  public void test_ints()
+      throws IOException {
+    int[] array = new int[50_001];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = i * -7919;
+    }
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(expected);
+    out.writeInt(array.length);
+    for (int i : array) {
+      out.writeInt(i);
+    }
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    IndexIO.writeInts(new DataOutputStream(actual), array);
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    assertArrayEquals(array, IndexIO.readInts(
+        new DataInputStream(new ByteArrayInputStream(actual.toByteArray()))));
+    assertArrayEquals(new int[0], IndexIO.readInts(new DataInputStream(
+        new ByteArrayInputStream(new byte[4]))));
+  }
+}
@@ -0,0 +1,60 @@
+package com.pengyifan.bioc.validation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.EqualsTester;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BioCValidationReportTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void test_order() {
+    BioCValidationReport report = new BioCValidationReport();
+    assertTrue(report.isValid());
+    IntStream.range(0, 1000).parallel().forEach(i -> report.add(i, i % 100 == 0
+        ? ImmutableList.of(error(i, "a"), error(i, "b"))
+        : Collections.emptyList()));
+    assertEquals(1000, report.getDocumentCount());
+    assertEquals(20, report.getErrorCount());
+    assertFalse(report.isValid());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(error(i / 2 * 100, i % 2 == 0 ? "a" : "b"), report.getErrors().get(i));
+    }
+    assertEquals(ImmutableList.of(error(300, "a"), error(300, "b")), report.getErrors(300));
+    assertTrue(report.getErrors(301).isEmpty());
+  }
+
+  @Test
+  public void test_duplicateDocument() {
+    BioCValidationReport report = new BioCValidationReport();
+    report.add(0, ImmutableList.of(error(0, "a")));
+    thrown.expect(IllegalArgumentException.class);
+    report.add(0, ImmutableList.of(error(0, "b")));
+  }
+
+  @Test
+  public void test_equals() {
+    new EqualsTester()
+        .addEqualityGroup(error(0, "a"), error(0, "a"))
+        .addEqualityGroup(error(1, "a"))
+        .addEqualityGroup(error(0, "b"))
+        .addEqualityGroup(new BioCValidationError(null, "document[id=0]", "a"))
+        .testEquals();
+  }
+
+  private static BioCValidationError error(int document, String message) {
+    return new BioCValidationError(Integer.toString(document), "document[id=" + document + "]",
+        message);
+  }
+}